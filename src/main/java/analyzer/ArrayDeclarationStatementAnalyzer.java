@@ -1,32 +1,24 @@
 package analyzer;
 
 import ast.Statement;
-import context.ApplicationContext;
-import context.ProcedureContext;
-import interpreter.Interpreter;
-import structure.Array;
-import structure.Block;
-
-import java.util.Collections;
-import java.util.List;
+import exception.SemanticException;
+import structure.Dimension;
 
 public class ArrayDeclarationStatementAnalyzer implements StatementAnalyzer<Statement.VarArray> {
     @Override
-    public void analyze(Statement.VarArray statement, Block block) {
+    public void analyze(Statement.VarArray statement, Scope scope) {
         String arrayName = statement.getName().lexeme();
 
-        List<Statement> arrayDeclarations = block.getStatementList()
-                                                 .stream()
-                                                 .filter(s -> s instanceof Statement.VarArray &&
-                                                         ((Statement.VarArray) s).getName().lexeme().equals(arrayName))
-                                                 .toList();
-
-        if (arrayDeclarations.size() > 1) {
-            Interpreter.error(statement.getName().line(),
-                              "Array declaration",
-                              "Array " + arrayName + " is declared more than once");
-            System.exit(1);
+        if (scope.countDeclarations(statement.getName()) > 1) {
+            throw new SemanticException(statement.getName().line(),
+                                         "Array declaration",
+                                         "Array " + arrayName + " is declared more than once");
         }
 
+        if (Dimension.elementCount(statement.getDimensionRanges()) > Integer.MAX_VALUE) {
+            throw new SemanticException(statement.getName().line(),
+                                         "Array declaration",
+                                         "Array " + arrayName + " has more than " + Integer.MAX_VALUE + " elements");
+        }
     }
 }
@@ -2,106 +2,84 @@ package analyzer;
 
 import ast.BasicExpression;
 import ast.Statement;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 import util.AnalyzerUtils;
 
-import java.util.List;
-import java.util.regex.Pattern;
 
 public class AssignmentStatementAnalyzer implements StatementAnalyzer<Statement.Assignment> {
 
     @Override
-    public void analyze(Statement.Assignment statement, Block block) {
+    public void analyze(Statement.Assignment statement, Scope scope) {
         if (statement.getIdent() instanceof BasicExpression.ArrayVariable identExpression) {
-            analyzeArrayVariableAssignment(identExpression, statement.getExpression(), block);
+            analyzeArrayVariableAssignment(identExpression, statement.getExpression(), scope);
         } else {
-            analyzeVariableAssignment((BasicExpression.Literal) statement.getIdent(),
-                                      statement.getExpression(), block);
+            analyzeVariableAssignment((BasicExpression.Variable) statement.getIdent(),
+                                      statement.getExpression(), scope);
         }
     }
 
     private void analyzeArrayVariableAssignment(BasicExpression.ArrayVariable identExpression,
                                                 BasicExpression initializerExpression,
-                                                Block block) {
+                                                Scope scope) {
         String ident = identExpression.name.lexeme();
 
-        List<Statement> arrayDeclarations = block.getStatementList()
-                                                 .stream()
-                                                 .filter(s -> s instanceof Statement.VarArray varStatement &&
-                                                              varStatement.getName().lexeme().equals(ident))
-                                                 .toList();
+        Statement.VarArray varArray = scope.getArray(identExpression.name);
 
-
-        if (arrayDeclarations.isEmpty()) {
-            Interpreter.error(identExpression.name.line(),
-                              "Variable Value Assignment",
-                              "Variable " + ident + " is not declared");
-            System.exit(1);
+        if (varArray == null) {
+            throw new SemanticException(identExpression.name.line(),
+                                         "Variable Value Assignment",
+                                         "Variable " + ident + " is not declared");
         }
 
-        Statement.VarArray varArray = (Statement.VarArray) arrayDeclarations.get(0);
-
         String arrayType = varArray.getType().lexeme();
-        String expressionType = AnalyzerUtils.getExpressionType(initializerExpression, block,
+        String expressionType = AnalyzerUtils.getExpressionType(initializerExpression, scope,
                                                                 identExpression.name.line());
 
-        if (expressionType.equals("NUMERIC") && !AnalyzerUtils.NUMERIC_TYPES.containsKey(arrayType)) {
-            Interpreter.error(identExpression.name.line(),
-                              "Variable Value Assignment",
-                              "Variable " + ident + " is of type " + arrayType +
-                              " but is being assigned a value of type " + expressionType);
-            System.exit(1);
+        if ("NUMERIC".equals(expressionType) && !AnalyzerUtils.NUMERIC_TYPES.containsKey(arrayType)) {
+            throw new SemanticException(identExpression.name.line(),
+                                         "Variable Value Assignment",
+                                         "Variable " + ident + " is of type " + arrayType +
+                                         " but is being assigned a value of type " + expressionType);
         }
 
-        if (expressionType.equals("BOOLEAN") && !AnalyzerUtils.BOOLEAN_TYPES.containsKey(arrayType)) {
-            Interpreter.error(identExpression.name.line(),
-                              "Variable Value Assignment",
-                              "Variable " + ident + " is of type " + arrayType +
-                              " but is being assigned a value of type " + expressionType);
-            System.exit(1);
+        if ("BOOLEAN".equals(expressionType) && !AnalyzerUtils.BOOLEAN_TYPES.containsKey(arrayType)) {
+            throw new SemanticException(identExpression.name.line(),
+                                         "Variable Value Assignment",
+                                         "Variable " + ident + " is of type " + arrayType +
+                                         " but is being assigned a value of type " + expressionType);
         }
 
     }
 
 
-    private void analyzeVariableAssignment(BasicExpression.Literal identExpression,
-                                           BasicExpression initializerExpression, Block block) {
-        String ident = identExpression.value.lexeme();
+    private void analyzeVariableAssignment(BasicExpression.Variable identExpression,
+                                           BasicExpression initializerExpression, Scope scope) {
+        String ident = identExpression.name.lexeme();
 
-        List<Statement> varDeclarations = block.getStatementList()
-                                              .stream()
-                                              .filter(s -> s instanceof Statement.Var &&
-                                                  ((Statement.Var) s).getName().lexeme().equals(ident))
-                                              .toList();
+        Statement.Var variable = scope.getVariable(identExpression.name);
 
-        if (varDeclarations.isEmpty()) {
-            Interpreter.error(identExpression.value.line(),
-                              "Variable Value Assignment",
-                              "Variable " + ident + " is not declared");
-            System.exit(1);
+        if (variable == null) {
+            throw new SemanticException(identExpression.name.line(),
+                                         "Variable Value Assignment",
+                                         "Variable " + ident + " is not declared");
         }
 
-        Statement.Var varArray = (Statement.Var) varDeclarations.get(0);
-
-        String varType = varArray.getType().lexeme();
-        String expressionType = AnalyzerUtils.getExpressionType(initializerExpression, block,
-                                                                 identExpression.value.line());
+        String varType = variable.getType().lexeme();
+        String expressionType = AnalyzerUtils.getExpressionType(initializerExpression, scope,
+                                                                 identExpression.name.line());
 
-        if (expressionType.equals("NUMERIC") && !AnalyzerUtils.NUMERIC_TYPES.containsKey(varType)) {
-            Interpreter.error(identExpression.value.line(),
-                "Variable Value Assignment",
-                "Variable " + ident + " is of type " + varType +
-                    " but is being assigned a value of type " + expressionType);
-            System.exit(1);
+        if ("NUMERIC".equals(expressionType) && !AnalyzerUtils.NUMERIC_TYPES.containsKey(varType)) {
+            throw new SemanticException(identExpression.name.line(),
+                           "Variable Value Assignment",
+                           "Variable " + ident + " is of type " + varType +
+                               " but is being assigned a value of type " + expressionType);
         }
 
-        if (expressionType.equals("BOOLEAN") && !AnalyzerUtils.BOOLEAN_TYPES.containsKey(varType)) {
-            Interpreter.error(identExpression.value.line(),
-                              "Variable Value Assignment",
-                              "Variable " + ident + " is of type " + varType +
-                              " but is being assigned a value of type " + expressionType);
-            System.exit(1);
+        if ("BOOLEAN".equals(expressionType) && !AnalyzerUtils.BOOLEAN_TYPES.containsKey(varType)) {
+            throw new SemanticException(identExpression.name.line(),
+                                         "Variable Value Assignment",
+                                         "Variable " + ident + " is of type " + varType +
+                                         " but is being assigned a value of type " + expressionType);
         }
     }
 }
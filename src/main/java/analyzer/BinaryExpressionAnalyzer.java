@@ -1,42 +1,45 @@
 package analyzer;
 
 import ast.BasicExpression;
+import ast.Operator;
 import context.ProcedureContext;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 import util.AnalyzerUtils;
 
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 
 public class BinaryExpressionAnalyzer implements ExpressionAnalyzer<BasicExpression.Binary>{
 
-    private static final List<String> BOOLEAN_OPERATORS = List.of("=", "#", ">", ">=", "<", "<=" ,"AND", "OR");
-    private static final List<String> NUMERIC_OPERATORS = List.of("+", "-", "*", "DIV", "MOD");
+    private static final Set<Operator> BOOLEAN_OPERATORS = EnumSet.of(Operator.EQUAL, Operator.NOT_EQUAL,
+                                                                       Operator.GREATER, Operator.GREATER_EQUAL,
+                                                                       Operator.LESS, Operator.LESS_EQUAL,
+                                                                       Operator.AND, Operator.OR);
+    private static final Set<Operator> NUMERIC_OPERATORS = EnumSet.of(Operator.PLUS, Operator.MINUS,
+                                                                       Operator.TIMES, Operator.DIV, Operator.MOD);
 
     @Override
-    public void analyze(BasicExpression.Binary expression, Block block) {
-        String leftType = AnalyzerUtils.getExpressionType(expression.left, block, expression.getLine());
-        String rightType = AnalyzerUtils.getExpressionType(expression.right, block, expression.getLine());
-
-        if (!leftType.equals(rightType)) {
-            Interpreter.error(expression.getLine(),
-                              "Binary expression",
-                              "Binary expression operands must be of the same type");
-            System.exit(1);
+    public void analyze(BasicExpression.Binary expression, Scope scope) {
+        String leftType = AnalyzerUtils.getExpressionType(expression.left, scope, expression.getLine());
+        String rightType = AnalyzerUtils.getExpressionType(expression.right, scope, expression.getLine());
+
+        if (!Objects.equals(leftType, rightType)) {
+            throw new SemanticException(expression.getLine(),
+                                         "Binary expression",
+                                         "Binary expression operands must be of the same type");
         }
 
-        if (leftType.equals("BOOLEAN") && !BOOLEAN_OPERATORS.contains(expression.operator.lexeme())) {
-            Interpreter.error(expression.getLine(),
-                              "Binary expression",
-                              "Binary expression operator must be =, #, AND, or OR for boolean operands");
-            System.exit(1);
+        if ("BOOLEAN".equals(leftType) && !BOOLEAN_OPERATORS.contains(expression.operator)) {
+            throw new SemanticException(expression.getLine(),
+                                         "Binary expression",
+                                         "Binary expression operator must be =, #, AND, or OR for boolean operands");
         }
 
-        if (leftType.equals("NUMERIC") && !NUMERIC_OPERATORS.contains(expression.operator.lexeme())) {
-            Interpreter.error(expression.getLine(),
-                              "Binary expression",
-                              "Binary expression operator must be +, -, *, DIV or MOD for numeric operands");
-            System.exit(1);
+        if ("NUMERIC".equals(leftType) && !NUMERIC_OPERATORS.contains(expression.operator)) {
+            throw new SemanticException(expression.getLine(),
+                                         "Binary expression",
+                                         "Binary expression operator must be +, -, *, DIV or MOD for numeric operands");
         }
 
     }
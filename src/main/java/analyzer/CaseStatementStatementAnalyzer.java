@@ -1,36 +1,29 @@
 package analyzer;
 
 import ast.Statement;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 import util.AnalyzerUtils;
 
 public class CaseStatementStatementAnalyzer implements StatementAnalyzer<Statement.Case> {
 
     @Override
-    public void analyze(Statement.Case statement, Block block) {
+    public void analyze(Statement.Case statement, Scope scope) {
         String ident = statement.getIdent().lexeme();
 
-        Statement.Var variable = AnalyzerUtils.extractAllVars(block.getStatementList())
-                                               .stream()
-                                               .filter(v -> v.getName().lexeme().equals(ident))
-                                               .findFirst()
-                                               .orElse(null);
+        Statement.Var variable = scope.getVariable(statement.getIdent());
 
         if (variable == null) {
-            Interpreter.error(statement.getIdent().line(),
-                              "Case statement",
-                              "Variable " + ident + " is not declared");
-            System.exit(1);
+            throw new SemanticException(statement.getIdent().line(),
+                                         "Case statement",
+                                         "Variable " + ident + " is not declared");
         }
 
         String variableType = variable.getType().lexeme();
 
-        if (!variableType.equals("NUMERIC")) {
-            Interpreter.error(statement.getIdent().line(),
-                              "Case statement",
-                              "Variable " + ident + " is not of type NUMERIC");
-            System.exit(1);
+        if (!AnalyzerUtils.NUMERIC_TYPES.containsKey(variableType)) {
+            throw new SemanticException(statement.getIdent().line(),
+                                         "Case statement",
+                                         "Variable " + ident + " is not of type NUMERIC");
         }
     }
 }
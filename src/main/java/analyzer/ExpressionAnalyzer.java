@@ -1,9 +1,7 @@
 package analyzer;
 
 import ast.BasicExpression;
-import context.ProcedureContext;
-import structure.Block;
 
 public interface ExpressionAnalyzer<T extends BasicExpression> {
-    void analyze(T expression, Block block);
+    void analyze(T expression, Scope scope);
 }
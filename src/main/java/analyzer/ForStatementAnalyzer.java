@@ -1,39 +1,35 @@
 package analyzer;
 
 import ast.Statement;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 import util.AnalyzerUtils;
 
 public class ForStatementAnalyzer implements StatementAnalyzer<Statement.For> {
     @Override
-    public void analyze(Statement.For statement, Block block) {
+    public void analyze(Statement.For statement, Scope scope) {
         AssignmentStatementAnalyzer assignmentStatementAnalyzer = new AssignmentStatementAnalyzer();
-        assignmentStatementAnalyzer.analyze((Statement.Assignment) statement.getIndex(), block);
-        if (!AnalyzerUtils.getExpressionType(((Statement.Assignment) statement.getIndex()).getExpression(),
-                                              block, statement.getLine())
-                          .equals("NUMERIC")) {
-            Interpreter.error(statement.getLine(),
-                              "For statement",
-                              "For statement initial value must be a numeric expression");
-            System.exit(1);
+        assignmentStatementAnalyzer.analyze((Statement.Assignment) statement.getIndex(), scope);
+        if (!AnalyzerUtils.isNumeric(AnalyzerUtils.getExpressionType(
+            ((Statement.Assignment) statement.getIndex()).getExpression(), scope, statement.getLine()))) {
+            throw new SemanticException(statement.getLine(),
+                                         "For statement",
+                                         "For statement initial value must be a numeric expression");
         }
 
-        if (!AnalyzerUtils.getExpressionType(statement.getTo(), block, statement.getLine())
-                          .equals("NUMERIC")) {
-            Interpreter.error(statement.getLine(),
-                              "For statement",
-                              "For statement to value must be a numeric expression");
-            System.exit(1);
+        if (!AnalyzerUtils.isNumeric(AnalyzerUtils.getExpressionType(statement.getTo(), scope,
+                                                                     statement.getLine()))) {
+            throw new SemanticException(statement.getLine(),
+                                         "For statement",
+                                         "For statement to value must be a numeric expression");
         }
 
 
         if (statement.getBy() != null &&
-            !AnalyzerUtils.getExpressionType(statement.getBy(), block, statement.getLine())
-            .equals("NUMERIC")) {
-            Interpreter.error(statement.getLine(),
-                "For statement",
-                "For statement by value must be a numeric expression");
+            !AnalyzerUtils.isNumeric(AnalyzerUtils.getExpressionType(statement.getBy(), scope,
+                                                                     statement.getLine()))) {
+            throw new SemanticException(statement.getLine(),
+                                         "For statement",
+                                         "For statement by value must be a numeric expression");
         }
     }
 }
@@ -4,27 +4,27 @@ import ast.BasicExpression;
 import ast.Statement;
 import context.ProcedureContext;
 import evaluator.ExpressionEvaluator;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 
 public class IfStatementAnalyzer implements StatementAnalyzer<Statement.If> {
     @Override
-    public void analyze(Statement.If statement, Block block) {
+    public void analyze(Statement.If statement, Scope scope) {
         BasicExpression condition = statement.getCondition();
         if (condition == null) {
-            Interpreter.error(statement.getLine(),
-                              "If statement",
-                              "If statement condition must not be empty");
-            System.exit(1);
+            throw new SemanticException(statement.getLine(),
+                                         "If statement",
+                                         "If statement condition must not be empty");
         }
 
 
         statement.getBody()
-                 .forEach(bodyStatement -> SemanticAnalyzer.analyze(bodyStatement, block));
+                 .forEach(bodyStatement -> SemanticAnalyzer.analyze(bodyStatement, scope));
         statement.getElsifBranches()
-                 .forEach(elsif -> SemanticAnalyzer.analyze(elsif, block));
-        statement.getElseBranch()
-                 .getStatements()
-                 .forEach(bodyStatement -> SemanticAnalyzer.analyze(bodyStatement, block));
+                 .forEach(elsif -> SemanticAnalyzer.analyze(elsif, scope));
+        if (statement.getElseBranch() != null) {
+            statement.getElseBranch()
+                     .getStatements()
+                     .forEach(bodyStatement -> SemanticAnalyzer.analyze(bodyStatement, scope));
+        }
     }
 }
@@ -2,9 +2,8 @@ package analyzer;
 
 import ast.Statement;
 import context.ProcedureContext;
-import interpreter.Interpreter;
+import exception.SemanticException;
 import library.Terminal2;
-import structure.Block;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,17 +18,16 @@ public class ImportStatementAnalyzer implements StatementAnalyzer<Statement.Impo
     }
 
     @Override
-    public void analyze(Statement.Import statement, Block block) {
+    public void analyze(Statement.Import statement, Scope scope) {
         int line = statement.getModule().line();
         String libraryName = statement.getModule().lexeme();
         List<String> procedureName = statement.getImports();
         List<String> supportedProcedures = libraryMap.get(libraryName);
         procedureName.forEach(name -> {
             if (!supportedProcedures.contains(name)) {
-                Interpreter.error(line,
-                                  "Import declaration",
-                                  "Procedure " + name + " is not supported in library " + libraryName);
-                System.exit(1);
+                throw new SemanticException(line,
+                                             "Import declaration",
+                                             "Procedure " + name + " is not supported in library " + libraryName);
             }
         });
     }
@@ -2,17 +2,15 @@ package analyzer;
 
 import ast.Statement;
 import context.ProcedureContext;
-import interpreter.Interpreter;
-import structure.Block;
+import exception.SemanticException;
 
 public class ModuleDeclarationStatementAnalyzer implements StatementAnalyzer<Statement.Module> {
     @Override
-    public void analyze(Statement.Module statement, Block block) {
+    public void analyze(Statement.Module statement, Scope scope) {
         if (statement.getName().lexeme().isBlank()) {
-            Interpreter.error(statement.getName().line(),
-                              "Module declaration",
-                              "Module " + statement.getName().lexeme() + " is already declared");
-            System.exit(1);
+            throw new SemanticException(statement.getName().line(),
+                                         "Module declaration",
+                                         "Module " + statement.getName().lexeme() + " is already declared");
         }
     }
 }
@@ -0,0 +1,139 @@
+package analyzer;
+
+import ast.Statement;
+import scanner.Token;
+import structure.Block;
+import util.SymbolMap;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarations visible to the semantic analyzer, built in one pass over the module and one per procedure.
+ * Lookups go from a procedure's scope out to the module's and are keyed on symbol IDs. The first declaration
+ * of a name wins; later ones are only counted, so the declaration analyzers can report duplicates.
+ */
+public class Scope {
+
+    private final Scope parent;
+    private final SymbolMap<Statement.Var> variables = new SymbolMap<>();
+    private final SymbolMap<Statement.VarArray> arrays = new SymbolMap<>();
+    private final SymbolMap<Statement.Const> constants = new SymbolMap<>();
+    private final SymbolMap<Statement.Procedure> procedures = new SymbolMap<>();
+    private final SymbolMap<Integer> declarationCounts = new SymbolMap<>();
+    private final SymbolMap<Integer> procedureCounts = new SymbolMap<>();
+    private final Map<Statement.Procedure, Scope> procedureScopes;
+
+    private Scope(Scope parent) {
+        this.parent = parent;
+        this.procedureScopes = parent == null ? new IdentityHashMap<>() : parent.procedureScopes;
+    }
+
+    public static Scope of(Block block) {
+        Scope module = new Scope(null);
+        module.declareAll(block.getStatementList());
+        return module;
+    }
+
+    private void declareAll(List<Statement> statements) {
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Var variable) {
+                declare(variables, variable.getName(), variable);
+            } else if (statement instanceof Statement.VarArray array) {
+                declare(arrays, array.getName(), array);
+            } else if (statement instanceof Statement.Const constant) {
+                declare(constants, constant.getName(), constant);
+            } else if (statement instanceof Statement.Procedure procedure) {
+                int symbol = procedure.getName().symbol();
+                if (procedures.get(symbol) == null) {
+                    procedures.put(symbol, procedure);
+                }
+                increment(procedureCounts, symbol);
+
+                Scope scope = new Scope(this);
+                for (Statement.Var parameter : procedure.getParameters()) {
+                    scope.declare(scope.variables, parameter.getName(), parameter);
+                }
+                scope.declareAll(procedure.getBody());
+                procedureScopes.put(procedure, scope);
+            }
+        }
+    }
+
+    private <T extends Statement> void declare(SymbolMap<T> table, Token name, T declaration) {
+        if (table.get(name.symbol()) == null) {
+            table.put(name.symbol(), declaration);
+        }
+        increment(declarationCounts, name.symbol());
+    }
+
+    private static void increment(SymbolMap<Integer> counts, int symbol) {
+        Integer count = counts.get(symbol);
+        counts.put(symbol, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Scope of the body of {@code procedure}, which must be declared somewhere in this module.
+     */
+    public Scope of(Statement.Procedure procedure) {
+        return procedureScopes.get(procedure);
+    }
+
+    public Scope getParent() {
+        return parent;
+    }
+
+    public Statement.Var getVariable(Token name) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Statement.Var variable = scope.variables.get(name.symbol());
+            if (variable != null) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    public Statement.VarArray getArray(Token name) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Statement.VarArray array = scope.arrays.get(name.symbol());
+            if (array != null) {
+                return array;
+            }
+        }
+        return null;
+    }
+
+    public Statement.Const getConstant(Token name) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Statement.Const constant = scope.constants.get(name.symbol());
+            if (constant != null) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    public Statement.Procedure getProcedure(Token name) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Statement.Procedure procedure = scope.procedures.get(name.symbol());
+            if (procedure != null) {
+                return procedure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * How many variables, arrays and constants of this very scope are named {@code name}.
+     */
+    public int countDeclarations(Token name) {
+        Integer count = declarationCounts.get(name.symbol());
+        return count == null ? 0 : count;
+    }
+
+    public int countProcedures(Token name) {
+        Integer count = procedureCounts.get(name.symbol());
+        return count == null ? 0 : count;
+    }
+}
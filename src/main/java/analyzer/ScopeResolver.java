@@ -0,0 +1,314 @@
+package analyzer;
+
+import ast.BasicExpression;
+import ast.Operator;
+import ast.Statement;
+import context.FrameLayout;
+import evaluator.BinaryOperation;
+import evaluator.LiteralExpressionEvaluator;
+import library.Native;
+import library.Terminal2;
+import scanner.Token;
+import structure.Block;
+
+import java.util.List;
+
+/**
+ * Resolution pass run after semantic analysis: assigns every declaration a slot in its scope's
+ * {@link FrameLayout} and binds every identifier occurrence to a (depth, slot) pair, so that execution never
+ * looks variables up by name.
+ */
+public class ScopeResolver {
+
+    private ScopeResolver() {
+    }
+
+    public static FrameLayout resolve(Block block) {
+        FrameLayout global = new FrameLayout(null);
+        List<Statement> statements = block.getStatementList();
+        declare(statements, global);
+
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Procedure procedure) {
+                resolveProcedure(procedure, global);
+            } else if (statement instanceof Statement.Const) {
+                resolveStatement(statement, global);
+            } else if (statement instanceof Statement.Main main) {
+                declare(main.getBody(), global);
+                for (Statement mainStatement : main.getBody()) {
+                    resolveStatement(mainStatement, global);
+                }
+            }
+        }
+        return global;
+    }
+
+    private static void declare(List<Statement> statements, FrameLayout scope) {
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Var variable) {
+                scope.declare(variable.getName().symbol(), variable.getType().lexeme());
+            } else if (statement instanceof Statement.VarArray array) {
+                scope.declareArray(array);
+            } else if (statement instanceof Statement.Const constant) {
+                constant.setSlot(scope.declare(constant.getName().symbol(), null));
+            } else if (statement instanceof Statement.Procedure procedure) {
+                scope.declareProcedure(procedure);
+            }
+        }
+    }
+
+    private static void resolveProcedure(Statement.Procedure procedure, FrameLayout parent) {
+        FrameLayout layout = new FrameLayout(parent);
+        for (Statement.Var parameter : procedure.getParameters()) {
+            layout.declareParameter(parameter.getName().symbol(), parameter.getType().lexeme());
+        }
+        declare(procedure.getBody(), layout);
+        procedure.setLayout(layout);
+
+        for (Statement statement : procedure.getBody()) {
+            if (statement instanceof Statement.Procedure nested) {
+                resolveProcedure(nested, layout);
+            } else if (!(statement instanceof Statement.Var) && !(statement instanceof Statement.VarArray)) {
+                layout.addStatement(statement);
+                resolveStatement(statement, layout);
+            }
+        }
+        markTailCalls(layout.getStatements(), procedure.getReturnType() == null, true, layout);
+    }
+
+    /**
+     * Marks the calls in tail position of a procedure body: the operand of any RETURN, and in a proper
+     * procedure a call after which the body ends or returns. {@code ending} tells whether the end of
+     * {@code statements} is the end of the body. Only user procedures declared outside the caller qualify, since
+     * a procedure nested in the caller needs the caller's frame as its static link, and only from callers
+     * without local arrays, whose storage is cleared with the frame while the callee may still refer to it.
+     */
+    private static void markTailCalls(List<? extends Statement> statements, boolean proper, boolean ending,
+                                      FrameLayout scope) {
+        if (statements == null) {
+            return;
+        }
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            boolean last = ending && i == statements.size() - 1 ||
+                           i < statements.size() - 1 && isBareReturn(statements.get(i + 1));
+            if (statement instanceof Statement.Return returnStatement) {
+                if (returnStatement.getExpression() instanceof BasicExpression.ProcedureCall procedureCall &&
+                    isTailCallable(procedureCall.name, scope)) {
+                    procedureCall.setTailCall(true);
+                }
+            } else if (statement instanceof Statement.Call call) {
+                call.setTailCall(last && proper && isTailCallable(call.getProcedureName(), scope));
+            } else if (statement instanceof Statement.If ifStatement) {
+                markTailCalls(ifStatement.getBody(), proper, last, scope);
+                ifStatement.getElsifBranches()
+                           .forEach(elsif -> markTailCalls(elsif.getStatements(), proper, last, scope));
+                if (ifStatement.getElseBranch() != null) {
+                    markTailCalls(ifStatement.getElseBranch().getStatements(), proper, last, scope);
+                }
+            } else if (statement instanceof Statement.Case caseStatement) {
+                caseStatement.getBranches().forEach(branch -> markTailCalls(branch.getBody(), proper, last, scope));
+                markTailCalls(caseStatement.getDefaultBranch(), proper, last, scope);
+            } else if (statement instanceof Statement.While whileStatement) {
+                markTailCalls(whileStatement.getBody(), proper, false, scope);
+            } else if (statement instanceof Statement.For forStatement) {
+                markTailCalls(forStatement.getBody(), proper, false, scope);
+            }
+        }
+    }
+
+    private static boolean isBareReturn(Statement statement) {
+        return statement instanceof Statement.Return returnStatement &&
+               (returnStatement.getExpression() == null ||
+                returnStatement.getExpression() instanceof BasicExpression.Empty);
+    }
+
+    private static boolean isTailCallable(Token name, FrameLayout scope) {
+        if (Terminal2.supportedProcedures.contains(name.lexeme()) ||
+            Native.supportedProcedures.contains(name.lexeme()) || scope.getProcedure(name.symbol()) != null ||
+            scope.hasArrays()) {
+            return false;
+        }
+        for (FrameLayout layout = scope.getParent(); layout != null; layout = layout.getParent()) {
+            if (layout.getProcedure(name.symbol()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void resolveStatements(List<Statement> statements, FrameLayout scope) {
+        if (statements != null) {
+            statements.forEach(statement -> resolveStatement(statement, scope));
+        }
+    }
+
+    private static void resolveStatement(Statement statement, FrameLayout scope) {
+        if (statement instanceof Statement.Assignment assignment) {
+            resolveExpression(assignment.getIdent(), scope);
+            resolveExpression(assignment.getExpression(), scope);
+        } else if (statement instanceof Statement.Const constant) {
+            resolveExpression(constant.getInitializer(), scope);
+            scope.setType(constant.getSlot(), typeOf(constant.getInitializer(), scope));
+        } else if (statement instanceof Statement.Call call) {
+            call.getArguments().forEach(argument -> resolveExpression(argument, scope));
+        } else if (statement instanceof Statement.If ifStatement) {
+            resolveExpression(ifStatement.getCondition(), scope);
+            resolveStatements(ifStatement.getBody(), scope);
+            ifStatement.getElsifBranches().forEach(elsif -> resolveStatement(elsif, scope));
+            if (ifStatement.getElseBranch() != null) {
+                resolveStatement(ifStatement.getElseBranch(), scope);
+            }
+        } else if (statement instanceof Statement.Elsif elsif) {
+            resolveExpression(elsif.getCondition(), scope);
+            resolveStatements(elsif.getStatements(), scope);
+        } else if (statement instanceof Statement.ElseBranch elseBranch) {
+            resolveStatements(elseBranch.getStatements(), scope);
+        } else if (statement instanceof Statement.While whileStatement) {
+            resolveExpression(whileStatement.getCondition(), scope);
+            resolveStatements(whileStatement.getBody(), scope);
+        } else if (statement instanceof Statement.For forStatement) {
+            resolveStatement(forStatement.getIndex(), scope);
+            resolveExpression(forStatement.getTo(), scope);
+            resolveExpression(forStatement.getBy(), scope);
+            resolveStatements(forStatement.getBody(), scope);
+        } else if (statement instanceof Statement.Case caseStatement) {
+            resolveExpression(caseStatement.getSelector(), scope);
+            caseStatement.getBranches().forEach(branch -> resolveStatements(branch.getBody(), scope));
+            resolveStatements(caseStatement.getDefaultBranch(), scope);
+        } else if (statement instanceof Statement.CaseBranch caseBranch) {
+            resolveStatements(caseBranch.getBody(), scope);
+        } else if (statement instanceof Statement.Return returnStatement) {
+            resolveExpression(returnStatement.getExpression(), scope);
+        } else if (statement instanceof Statement.Read read) {
+            resolveExpression(read.getArrayIndex(), scope);
+        } else if (statement instanceof Statement.Write write) {
+            resolveExpression(write.getArrayIndex(), scope);
+        } else if (statement instanceof Statement.Main main) {
+            declare(main.getBody(), scope);
+            resolveStatements(main.getBody(), scope);
+        }
+    }
+
+    /**
+     * Binds the names in {@code expression} and annotates it and all its subexpressions with their static
+     * types, innermost first.
+     */
+    private static void resolveExpression(BasicExpression expression, FrameLayout scope) {
+        if (expression == null) {
+            return;
+        }
+        if (expression instanceof BasicExpression.Variable variable) {
+            resolveVariable(variable, scope);
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            resolveExpression(binary.getLeft(), scope);
+            resolveExpression(binary.getRight(), scope);
+            binary.setOperation(BinaryOperation.forTypes(binary.getOperator(),
+                                                         binary.getLeft().getType(),
+                                                         binary.getRight().getType(),
+                                                         binary.getLine()));
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            resolveExpression(grouping.expression, scope);
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            resolveExpression(negation.getNegatedValue(), scope);
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            int symbol = arrayVariable.name.symbol();
+            int depth = 0;
+            for (FrameLayout layout = scope; layout != null; layout = layout.getParent(), depth++) {
+                int slot = layout.slotOf(symbol);
+                if (slot >= 0) {
+                    arrayVariable.bind(depth, slot);
+                    break;
+                }
+            }
+            for (BasicExpression index : arrayVariable.index) {
+                resolveExpression(index, scope);
+            }
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            procedureCall.arguments.forEach(argument -> resolveExpression(argument, scope));
+        }
+        expression.setType(typeOf(expression, scope));
+    }
+
+    private static void resolveVariable(BasicExpression.Variable variable, FrameLayout scope) {
+        int symbol = variable.name.symbol();
+        int depth = 0;
+        for (FrameLayout layout = scope; layout != null; layout = layout.getParent(), depth++) {
+            int slot = layout.slotOf(symbol);
+            if (slot >= 0) {
+                variable.bind(depth, slot);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Static type of an expression whose subexpressions are already annotated, or {@code null} if unknown.
+     * Declared types are kept as written, so a CARDINAL variable stays CARDINAL.
+     */
+    private static String typeOf(BasicExpression expression, FrameLayout scope) {
+        if (expression instanceof BasicExpression.Literal literal) {
+            return BinaryOperation.typeOf(literal.getConstantValue());
+        } else if (expression instanceof BasicExpression.Variable variable) {
+            if (variable.isBound()) {
+                FrameLayout layout = declaringLayout(scope, variable.getDepth());
+                return layout.isArray(variable.getSlot()) ? null : declaredType(layout.getType(variable.getSlot()));
+            }
+            return BinaryOperation.typeOf(LiteralExpressionEvaluator.valueOf(variable.name));
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            if (arrayVariable.isBound()) {
+                return declaredType(declaringLayout(scope, arrayVariable.getDepth()).getType(arrayVariable.getSlot()));
+            }
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            Operator operator = binary.getOperator();
+            if (operator.isComparison() || operator.isLogical()) {
+                return BinaryOperation.BOOLEAN;
+            }
+            String leftType = binary.getLeft().getType();
+            String resultType = binary.getOperation().getResultType();
+            return resultType != null && leftType != null && leftType.equals(binary.getRight().getType())
+                   ? leftType : resultType;
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            return grouping.expression.getType();
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            return negation.getNegatedValue().getType();
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            return returnType(procedureCall, scope);
+        }
+        return null;
+    }
+
+    private static String returnType(BasicExpression.ProcedureCall procedureCall, FrameLayout scope) {
+        for (FrameLayout layout = scope; layout != null; layout = layout.getParent()) {
+            Statement.Procedure procedure = layout.getProcedure(procedureCall.name.symbol());
+            if (procedure != null) {
+                return procedure.getReturnType() == null ? null : declaredType(procedure.getReturnType().lexeme());
+            }
+        }
+        return switch (procedureCall.name.lexeme()) {
+            case "CHR" -> BinaryOperation.CHAR;
+            case "ORD", "TRUNC", "INC", "DEC" -> BinaryOperation.INTEGER;
+            case "FLOAT" -> BinaryOperation.REAL;
+            case "CAP" -> BinaryOperation.STRING;
+            case "MIN", "MAX", "VAL" -> procedureCall.arguments.isEmpty()
+                                        || !(procedureCall.arguments.get(0) instanceof BasicExpression.Variable type)
+                                        ? null : declaredType(type.name.lexeme());
+            default -> null;
+        };
+    }
+
+    /**
+     * {@code type} if it names one of the Modula-2 base types, otherwise {@code null}.
+     */
+    private static String declaredType(String type) {
+        return BinaryOperation.normalize(type) == null ? null : type;
+    }
+
+    private static FrameLayout declaringLayout(FrameLayout scope, int depth) {
+        FrameLayout layout = scope;
+        for (int i = depth; i > 0; i--) {
+            layout = layout.getParent();
+        }
+        return layout;
+    }
+}
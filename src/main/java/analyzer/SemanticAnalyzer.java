@@ -3,11 +3,15 @@ package analyzer;
 import ast.BasicExpression;
 import ast.Statement;
 import context.ProcedureContext;
+import exception.SemanticException;
 import structure.Block;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class SemanticAnalyzer {
 
@@ -24,6 +28,7 @@ public class SemanticAnalyzer {
         statementAnalyzerMap.put(Statement.Const.class.getName(), new ConstDeclarationStatementAnalyzer());
         statementAnalyzerMap.put(Statement.Assignment.class.getName(), new AssignmentStatementAnalyzer());
         statementAnalyzerMap.put(Statement.If.class.getName(), new IfStatementAnalyzer());
+        statementAnalyzerMap.put(Statement.While.class.getName(), new WhileStatementAnalyzer());
         statementAnalyzerMap.put(Statement.For.class.getName(), new ForStatementAnalyzer());
         statementAnalyzerMap.put(Statement.Elsif.class.getName(), new ElsifStatementAnalyzer());
         statementAnalyzerMap.put(Statement.Case.class.getName(), new CaseStatementStatementAnalyzer());
@@ -35,10 +40,76 @@ public class SemanticAnalyzer {
         );
     }
 
-    public static void analyze(Statement statement, Block block) {
-        statementAnalyzerMap.get(statement.getClass().getName()).analyze(statement, block);
+    /**
+     * Analyzes a whole module and returns its diagnostics in source order. Procedure bodies only depend on
+     * the already built scopes, so each is analyzed as a task of the common {@link ForkJoinPool}; within a
+     * statement analysis stops at the first error.
+     */
+    public static List<SemanticException> analyze(Block block, Scope scope) {
+        return analyzeAll(block.getStatementList(), scope);
     }
-    public static void analyze(BasicExpression expression, Block block) {
-        expressionAnalyzerMap.get(expression.getClass().getName()).analyze(expression, block);
+
+    private static List<SemanticException> analyzeAll(List<Statement> statements, Scope scope) {
+        List<ProcedureAnalysis> procedures = new ArrayList<>();
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Procedure procedure) {
+                ProcedureAnalysis task = new ProcedureAnalysis(procedure, scope.of(procedure));
+                task.fork();
+                procedures.add(task);
+            }
+        }
+
+        List<SemanticException> diagnostics = new ArrayList<>();
+        int next = 0;
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Main main) {
+                diagnostics.addAll(analyzeAll(main.getBody(), scope));
+                continue;
+            }
+            if (statement != null) {
+                try {
+                    analyze(statement, scope);
+                } catch (SemanticException e) {
+                    diagnostics.add(e);
+                }
+            }
+            if (statement instanceof Statement.Procedure) {
+                diagnostics.addAll(procedures.get(next++).join());
+            }
+        }
+        return diagnostics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void analyze(Statement statement, Scope scope) {
+        StatementAnalyzer<Statement> analyzer =
+            (StatementAnalyzer<Statement>) statementAnalyzerMap.get(statement.getClass().getName());
+        if (analyzer != null) {
+            analyzer.analyze(statement, scope);
+        }
+    }
+    public static void analyze(BasicExpression expression, Scope scope) {
+        expressionAnalyzerMap.get(expression.getClass().getName()).analyze(expression, scope);
+    }
+
+    /**
+     * Body of one procedure, analyzed in the procedure's own scope; nested procedures fork tasks of their own.
+     */
+    private static final class ProcedureAnalysis extends RecursiveTask<List<SemanticException>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Statement.Procedure procedure;
+        private final transient Scope scope;
+
+        ProcedureAnalysis(Statement.Procedure procedure, Scope scope) {
+            this.procedure = procedure;
+            this.scope = scope;
+        }
+
+        @Override
+        protected List<SemanticException> compute() {
+            return analyzeAll(procedure.getBody(), scope);
+        }
     }
 }
@@ -1,9 +1,7 @@
 package analyzer;
 
 import ast.Statement;
-import context.ProcedureContext;
-import structure.Block;
 
 public interface StatementAnalyzer<T extends Statement>{
-    void analyze(T statement, Block block);
+    void analyze(T statement, Scope scope);
 }
@@ -1,28 +1,17 @@
 package analyzer;
 
 import ast.Statement;
-import interpreter.Interpreter;
-import structure.Block;
-import util.AnalyzerUtils;
-
-import java.util.Collections;
-import java.util.List;
+import exception.SemanticException;
 
 public class VariableDeclarationStatementAnalyzer implements StatementAnalyzer<Statement.Var> {
     @Override
-    public void analyze(Statement.Var statement, Block block) {
+    public void analyze(Statement.Var statement, Scope scope) {
         String variableName = statement.getName().lexeme();
 
-        List<String> occupiedNames =
-            AnalyzerUtils.mergeStatements(AnalyzerUtils.extractAllVars(block.getStatementList()),
-                                           AnalyzerUtils.extractAllVarArrays(block.getStatementList()),
-                                           AnalyzerUtils.extractAllConsts(block.getStatementList()));
-
-        if (Collections.frequency(occupiedNames, variableName) > 1) {
-            Interpreter.error(statement.getName().line(),
-                              "Variable declaration",
-                              "Variable " + variableName + " is already declared");
-            System.exit(1);
+        if (scope.countDeclarations(statement.getName()) > 1) {
+            throw new SemanticException(statement.getName().line(),
+                                         "Variable declaration",
+                                         "Variable " + variableName + " is already declared");
         }
     }
 }
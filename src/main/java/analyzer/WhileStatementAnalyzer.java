@@ -0,0 +1,28 @@
+package analyzer;
+
+import ast.BasicExpression;
+import ast.Statement;
+import exception.SemanticException;
+import util.AnalyzerUtils;
+
+public class WhileStatementAnalyzer implements StatementAnalyzer<Statement.While> {
+    @Override
+    public void analyze(Statement.While statement, Scope scope) {
+        BasicExpression condition = statement.getCondition();
+        if (condition == null) {
+            throw new SemanticException(statement.getLine(),
+                                         "While statement",
+                                         "While statement condition must not be empty");
+        }
+
+        String conditionType = AnalyzerUtils.getExpressionType(condition, scope, statement.getLine());
+        if (conditionType != null && !conditionType.equals("BOOLEAN")) {
+            throw new SemanticException(statement.getLine(),
+                                         "While statement",
+                                         "While statement condition must be a boolean expression");
+        }
+
+        statement.getBody()
+                 .forEach(bodyStatement -> SemanticAnalyzer.analyze(bodyStatement, scope));
+    }
+}
@@ -1,30 +1,51 @@
 package ast;
 
+import context.CallSite;
+import evaluator.BinaryOperation;
+import evaluator.LiteralExpressionEvaluator;
 import scanner.Token;
 
 import java.util.List;
 
 public abstract class BasicExpression {
 
+    private String type;
+
+    /**
+     * Modula-2 type the resolver determined for this expression: INTEGER, CARDINAL, REAL, CHAR, BOOLEAN or
+     * STRING, for an array element the element type of the array. {@code null} until the expression has been
+     * resolved, or when the type is only known at run time.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
     public static class Binary extends BasicExpression {
 
         public final BasicExpression left;
-        public final Token operator;
+        public final Operator operator;
         public final BasicExpression right;
         public final int line;
 
-        public Binary(BasicExpression left, Token operator, BasicExpression right, int line) {
+        private BinaryOperation operation;
+
+        public Binary(BasicExpression left, Operator operator, BasicExpression right, int line) {
             this.left = left;
             this.operator = operator;
             this.right = right;
             this.line = line;
+            this.operation = BinaryOperation.uninitialized(operator, line);
         }
 
         public BasicExpression getLeft() {
             return left;
         }
 
-        public Token getOperator() {
+        public Operator getOperator() {
             return operator;
         }
 
@@ -35,6 +56,14 @@ public abstract class BasicExpression {
         public int getLine() {
             return line;
         }
+
+        public BinaryOperation getOperation() {
+            return operation;
+        }
+
+        public void setOperation(BinaryOperation operation) {
+            this.operation = operation;
+        }
     }
 
     public static class Grouping extends BasicExpression {
@@ -45,12 +74,62 @@ public abstract class BasicExpression {
         public final BasicExpression expression;
     }
 
+    /**
+     * Number, string, character or boolean constant written in the source; its value is computed when the
+     * node is built.
+     */
     public static class Literal extends BasicExpression {
         public Literal(Token value) {
+            this(value, LiteralExpressionEvaluator.valueOf(value));
+        }
+
+        public Literal(Token value, Object constantValue) {
             this.value = value;
+            this.constantValue = constantValue;
         }
 
         public final Token value;
+
+        private final Object constantValue;
+
+        public Object getConstantValue() {
+            return constantValue;
+        }
+    }
+
+    /**
+     * Reference to a variable, constant or parameter by name.
+     */
+    public static class Variable extends BasicExpression {
+        public Variable(Token name) {
+            this.name = name;
+        }
+
+        public final Token name;
+
+        private int depth = -1;
+        private int slot = -1;
+
+        /**
+         * Binds the reference to a frame slot, {@code depth} static links away from the frame the expression
+         * is evaluated in.
+         */
+        public void bind(int depth, int slot) {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        public boolean isBound() {
+            return slot >= 0;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
     }
 
     public static class Negation extends BasicExpression {
@@ -68,22 +147,60 @@ public abstract class BasicExpression {
 
     public static class ArrayVariable extends BasicExpression {
         public final Token name;
-        public final Token[] index;
+        public final BasicExpression[] index;
+
+        private int depth = -1;
+        private int slot = -1;
 
-        public ArrayVariable(Token name, Token[] index) {
+        public ArrayVariable(Token name, BasicExpression[] index) {
             this.name = name;
             this.index = index;
         }
+
+        public void bind(int depth, int slot) {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        public boolean isBound() {
+            return slot >= 0;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
     }
 
     public static class ProcedureCall extends BasicExpression {
         public final Token name;
         public final List<BasicExpression> arguments;
 
+        private boolean tailCall;
+        private final CallSite callSite = new CallSite();
+
         public ProcedureCall(Token name, List<BasicExpression> arguments) {
             this.name = name;
             this.arguments = arguments;
         }
+
+        /**
+         * Whether the call is the operand of a RETURN, so its result is the caller's result as is.
+         */
+        public boolean isTailCall() {
+            return tailCall;
+        }
+
+        public void setTailCall(boolean tailCall) {
+            this.tailCall = tailCall;
+        }
+
+        public CallSite getCallSite() {
+            return callSite;
+        }
     }
 
     public static class Empty extends BasicExpression {
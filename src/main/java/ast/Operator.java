@@ -0,0 +1,84 @@
+package ast;
+
+import scanner.TokenType;
+
+/**
+ * Binary operators, resolved once by the parser. Precedence follows Modula-2: relations bind loosest, then
+ * the adding operators and OR, then the multiplying operators and AND.
+ */
+public enum Operator {
+
+    EQUAL("=", 1),
+    NOT_EQUAL("#", 1),
+    LESS("<", 1),
+    LESS_EQUAL("<=", 1),
+    GREATER(">", 1),
+    GREATER_EQUAL(">=", 1),
+    PLUS("+", 2),
+    MINUS("-", 2),
+    OR("OR", 2),
+    TIMES("*", 3),
+    SLASH("/", 3),
+    DIV("DIV", 3),
+    MOD("MOD", 3),
+    AND("AND", 3);
+
+    public static final int LOWEST_PRECEDENCE = 1;
+    public static final int TERM_PRECEDENCE = 3;
+
+    private final String symbol;
+    private final int precedence;
+
+    Operator(String symbol, int precedence) {
+        this.symbol = symbol;
+        this.precedence = precedence;
+    }
+
+    /**
+     * The operator a token stands for, or {@code null} if it is not a binary operator.
+     */
+    public static Operator of(TokenType type) {
+        return switch (type) {
+            case EQUAL -> EQUAL;
+            case NOT_EQUAL -> NOT_EQUAL;
+            case LESS -> LESS;
+            case LESS_EQUAL -> LESS_EQUAL;
+            case GREATER -> GREATER;
+            case GREATER_EQUAL -> GREATER_EQUAL;
+            case PLUS -> PLUS;
+            case MINUS -> MINUS;
+            case OR -> OR;
+            case STAR -> TIMES;
+            case SLASH -> SLASH;
+            case DIV -> DIV;
+            case MOD -> MOD;
+            case AND -> AND;
+            default -> null;
+        };
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    public boolean isArithmetic() {
+        return this == PLUS || this == MINUS || this == TIMES || this == SLASH || this == DIV || this == MOD;
+    }
+
+    public boolean isComparison() {
+        return precedence == 1;
+    }
+
+    public boolean isLogical() {
+        return this == AND || this == OR;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
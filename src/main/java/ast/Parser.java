@@ -4,7 +4,9 @@ import context.ApplicationContext;
 import exception.IllegalTokenException;
 import interpreter.Interpreter;
 import scanner.Token;
+import scanner.TokenArena;
 import scanner.TokenType;
+import structure.Dimension;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,25 +17,19 @@ public class Parser {
     private static final String CONST = "CONST";
     private static final String VAR = "VAR";
     private static final String ILLEGAL_TOKEN_ERROR_MESSAGE = "Illegal token (%s) during %s reading, line: %d";
-    private static final List<TokenType> BOOLEAN_OPERATION_TYPE_LIST = Arrays.asList(TokenType.GREATER,
-                                                                                     TokenType.LESS,
-                                                                                     TokenType.GREATER_EQUAL,
-                                                                                     TokenType.LESS_EQUAL,
-                                                                                     TokenType.EQUAL,
-                                                                                     TokenType.NOT_EQUAL,
-                                                                                     TokenType.NOT,
-                                                                                     TokenType.AND,
-                                                                                     TokenType.OR);
-
-    private static final List<TokenType> MATH_OPERATION_TYPE_LIST = Arrays.asList(TokenType.PLUS, TokenType.MINUS,
-                                                                                  TokenType.STAR, TokenType.SLASH,
-                                                                                  TokenType.DIV, TokenType.MOD);
-
-    private final List<Token> tokenList;
+    private static final List<TokenType> STATEMENT_START_TYPE_LIST = Arrays.asList(TokenType.IF, TokenType.WHILE,
+                                                                                   TokenType.FOR, TokenType.CASE,
+                                                                                   TokenType.RETURN);
+
+    private static final List<TokenType> STATEMENT_END_TYPE_LIST = Arrays.asList(TokenType.SEMICOLON,
+                                                                                 TokenType.END, TokenType.ELSE,
+                                                                                 TokenType.ELSIF, TokenType.PIPE);
+
+    private final TokenArena tokens;
     private int tokenIndex;
 
-    public Parser(List<Token> tokenList) {
-        this.tokenList = tokenList;
+    public Parser(TokenArena tokens) {
+        this.tokens = tokens;
         this.tokenIndex = 0;
     }
 
@@ -46,12 +42,12 @@ public class Parser {
         }
 
         currentToken = peekToken();
-        peekToken();
+        skipToken();
         return new Statement.Module(currentToken);
     }
 
     public Statement.Import readImports() {
-        if (!TokenType.FROM.equals(tokenList.get(tokenIndex).type())) {
+        if (!TokenType.FROM.equals(tokens.type(tokenIndex))) {
             return null;
         }
 
@@ -101,47 +97,22 @@ public class Parser {
     }
 
     public List<Statement.Const> readConst() {
-        if (!TokenType.CONST.equals(tokenList.get(tokenIndex).type())) {
+        if (!TokenType.CONST.equals(tokens.type(tokenIndex))) {
             return Collections.emptyList();
         }
 
-        peekToken();
+        skipToken();
         List<Statement.Const> constList = new ArrayList<>();
-        Token currentToken = peekToken();
-
-        while (!TokenType.SEMICOLON.equals(currentToken.type())) {
-            if (!TokenType.IDENT.equals(currentToken.type())) {
-                throw new IllegalTokenException(String.format(ILLEGAL_TOKEN_ERROR_MESSAGE,
-                    currentToken.type(), CONST, currentToken.line()));
-            }
-            Token constName = currentToken;
-
-            currentToken = peekToken();
 
-            if (!TokenType.EQUAL.equals(currentToken.type())) {
-                throw new IllegalTokenException(String.format(ILLEGAL_TOKEN_ERROR_MESSAGE,
-                    currentToken.type(), CONST, currentToken.line()));
-            }
-
-            currentToken = peekToken();
-            BasicExpression initializer = readExpression(new BasicExpression.Literal(currentToken));
-            constList.add(new Statement.Const(constName, initializer));
-
-            if (TokenType.SEMICOLON.equals(currentToken.type())) {
-                break;
-            }
-            currentToken = peekToken();
+        while (TokenType.IDENT.equals(tokens.type(tokenIndex))) {
+            Token constName = peekToken();
+            expect(TokenType.EQUAL, CONST);
+            constList.add(new Statement.Const(constName, readExpression()));
 
-            if (TokenType.COMMA.equals(currentToken.type())) {
-                currentToken = peekToken();
-            } else if (TokenType.SEMICOLON.equals(currentToken.type())) {
-                break;
+            if (TokenType.COMMA.equals(tokens.type(tokenIndex)) ||
+                TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+                skipToken();
             }
-
-        }
-
-        if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
         }
 
         return constList;
@@ -149,15 +120,15 @@ public class Parser {
 
     public void readVar(List<Statement.Var> vars, List<Statement.VarArray> varArrays) {
 
-        if (!TokenType.VAR.equals(tokenList.get(tokenIndex).type())) {
+        if (!TokenType.VAR.equals(tokens.type(tokenIndex))) {
             return;
         }
 
-        peekToken();
+        skipToken();
         Token currentToken = peekToken();
 
         while (!TokenType.BEGIN.equals(currentToken.type()) &&
-               !TokenType.PROCEDURE.equals(tokenList.get(tokenIndex).type())) {
+               !TokenType.PROCEDURE.equals(tokens.type(tokenIndex))) {
             if (!TokenType.IDENT.equals(currentToken.type())) {
                 throw new IllegalTokenException(String.format(ILLEGAL_TOKEN_ERROR_MESSAGE,
                     currentToken.type(), VAR, currentToken.line()));
@@ -190,30 +161,24 @@ public class Parser {
                     currentToken.type(), VAR, currentToken.line()));
             }
 
-            if (TokenType.OPEN_BRACKET.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
+            if (TokenType.OPEN_BRACKET.equals(tokens.type(tokenIndex))) {
+                skipToken();
                 try {
-                    Map<Integer, Set<Integer>> dimensionRange = new HashMap<>();
-                    Integer dimension = 0;
+                    List<Dimension> dimensions = new ArrayList<>();
                     int indexFrom = Integer.parseInt(peekToken().lexeme());
-                    peekToken();
-                    peekToken();
+                    skipToken();
+                    skipToken();
                     int indexTo = Integer.parseInt(peekToken().lexeme());
-                    dimensionRange.put(dimension, IntStream.range(indexFrom, indexTo + 1)
-                                  .boxed()
-                                  .collect(Collectors.toSet()));
-                    peekToken();
+                    dimensions.add(readDimension(indexFrom, indexTo, currentToken.line()));
+                    skipToken();
                     currentToken = peekToken();
                     while (TokenType.OPEN_BRACKET.equals(currentToken.type())) {
-                        dimension++;
                         int rangeIndexFrom = Integer.parseInt(peekToken().lexeme());
-                        peekToken();
-                        peekToken();
+                        skipToken();
+                        skipToken();
                         int rangeIndexTo = Integer.parseInt(peekToken().lexeme());
-                        dimensionRange.put(dimension, IntStream.range(rangeIndexFrom, rangeIndexTo + 1)
-                                      .boxed()
-                                      .collect(Collectors.toSet()));
-                        peekToken();
+                        dimensions.add(readDimension(rangeIndexFrom, rangeIndexTo, currentToken.line()));
+                        skipToken();
                         currentToken = peekToken();
                     }
                     if (!TokenType.OF.equals(currentToken.type())) {
@@ -221,10 +186,11 @@ public class Parser {
                             currentToken.type(), "VarArray declaration", currentToken.line()));
                     }
                     Token type = peekToken();
+                    List<Dimension> dimensionRange = Dimension.rowMajor(dimensions);
                     for (Token name : names) {
                         varArrays.add(new Statement.VarArray(name, type, dimensionRange, null));
                     }
-                    peekToken();
+                    skipToken();
                     currentToken = peekToken();
                 } catch (NumberFormatException e) {
                     Interpreter.error(currentToken.line(), "Invalid array size", e.getMessage());
@@ -237,7 +203,7 @@ public class Parser {
                     for (Token name : names) {
                         vars.add(new Statement.Var(name, type, null));
                     }
-                    if(!TokenType.PROCEDURE.equals(tokenList.get(tokenIndex).type())) {
+                    if(!TokenType.PROCEDURE.equals(tokens.type(tokenIndex))) {
                         currentToken = peekToken();
                     }
                 }
@@ -246,7 +212,7 @@ public class Parser {
     }
 
     public void readProcedures(List<Statement.Procedure> procedures) {
-        while (TokenType.PROCEDURE.equals(tokenList.get(tokenIndex).type())) {
+        while (TokenType.PROCEDURE.equals(tokens.type(tokenIndex))) {
             Token currentToken = peekToken();
             Token name;
             Token returnType = null;
@@ -258,7 +224,7 @@ public class Parser {
             if (TokenType.PROCEDURE.equals(currentToken.type())) {
                 currentToken = peekToken();
                 name = currentToken;
-                if (TokenType.OPEN_PARENTHESIS.equals(tokenList.get(tokenIndex).type())) {
+                if (TokenType.OPEN_PARENTHESIS.equals(tokens.type(tokenIndex))) {
                     currentToken = peekToken();
                 }
             } else {
@@ -291,67 +257,68 @@ public class Parser {
                 currentToken = peekToken();
                 if (TokenType.IDENT.equals(currentToken.type())) {
                     returnType = currentToken;
-                    peekToken();
+                    skipToken();
                 }
             }
 
-            if (TokenType.SEMICOLON.equals(currentToken.type())) {
+            if (TokenType.SEMICOLON.equals(currentToken.type()) &&
+                !TokenType.VAR.equals(tokens.type(tokenIndex))) {
                 currentToken = peekToken();
             }
 
-            if (TokenType.VAR.equals(tokenList.get(tokenIndex).type())) {
+            if (TokenType.VAR.equals(tokens.type(tokenIndex))) {
                 readVar(vars, varArrays);
                 body.addAll(vars);
                 body.addAll(varArrays);
             }
 
             if (TokenType.SEMICOLON.equals(currentToken.type())) {
-                currentToken = tokenList.get(tokenIndex);
+                currentToken = tokens.get(tokenIndex);
             }
 
-            if (!TokenType.IDENT.equals(tokenList.get(tokenIndex).type())) {
+            if (!TokenType.IDENT.equals(tokens.type(tokenIndex)) &&
+                !STATEMENT_START_TYPE_LIST.contains(tokens.type(tokenIndex))) {
                 currentToken = peekToken();
             }
 
 
             List<Statement.Procedure> subProcedures = new ArrayList<>();
-            while (TokenType.PROCEDURE.equals(tokenList.get(tokenIndex).type())) {
+            while (TokenType.PROCEDURE.equals(tokens.type(tokenIndex))) {
                 readProcedures(subProcedures);
             }
             body.addAll(subProcedures);
 
             while (!TokenType.END.equals(currentToken.type())) {
-                if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-                    peekToken();
+                if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+                    skipToken();
                 }
 
-                if (TokenType.BEGIN.equals(tokenList.get(tokenIndex).type())) {
-                    peekToken();
+                if (TokenType.BEGIN.equals(tokens.type(tokenIndex))) {
+                    skipToken();
                 }
 
-                if (!TokenType.PROCEDURE.equals(tokenList.get(tokenIndex).type())) {
+                if (!TokenType.PROCEDURE.equals(tokens.type(tokenIndex))) {
                     body.add(readStatement());
                 }
-                currentToken = tokenList.get(tokenIndex);
+                currentToken = tokens.get(tokenIndex);
 
             }
-            peekToken();
-            peekToken();
-            peekToken();
+            skipToken();
+            skipToken();
+            skipToken();
             procedures.add(new Statement.Procedure(name, returnType, parameters, body));
         }
     }
 
     private Statement readReturnStatement() {
-        Token currentToken = peekToken();
-        if (TokenType.RETURN.equals(currentToken.type())) {
-            currentToken = peekToken();
-        }
+        skipToken();
 
-        BasicExpression expression = readExpression(new BasicExpression.Literal(currentToken));
+        BasicExpression expression = STATEMENT_END_TYPE_LIST.contains(tokens.type(tokenIndex))
+                                     ? new BasicExpression.Empty()
+                                     : readExpression();
 
-        if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
         return new Statement.Return(expression);
@@ -361,7 +328,7 @@ public class Parser {
         List<Statement> body = new ArrayList<>();
         List<Statement.Var> vars = new ArrayList<>();
         List<Statement.VarArray> varArrays = new ArrayList<>();
-        Token currentToken = tokenList.get(tokenIndex);
+        Token currentToken = tokens.get(tokenIndex);
         if (TokenType.VAR.equals(currentToken.type())) {
             readVar(vars, varArrays);
         }
@@ -369,13 +336,13 @@ public class Parser {
         body.addAll(vars);
         body.addAll(varArrays);
 
-        if (TokenType.BEGIN.equals(tokenList.get(tokenIndex).type())) {
+        if (TokenType.BEGIN.equals(tokens.type(tokenIndex))) {
             currentToken = peekToken();
         }
 
         while (!TokenType.END.equals(currentToken.type())) {
             body.add(readStatement());
-            currentToken = tokenList.get(tokenIndex);
+            currentToken = tokens.get(tokenIndex);
 
         }
 
@@ -383,8 +350,8 @@ public class Parser {
     }
 
     public Statement readStatement() {
-        Token token = tokenList.get(tokenIndex);
-        return switch (token.type()) {
+        TokenType type = tokens.type(tokenIndex);
+        return switch (type) {
             case IF -> readIfStatement();
             case WHILE -> readWhileStatement();
             case CASE -> readCaseStatement();
@@ -396,74 +363,77 @@ public class Parser {
             case BEGIN -> readMain();
             default -> throw new IllegalTokenException(
                 String.format("Illegal token (%s) during Statement reading, line: %d ",
-                    token.type(), token.line()));
+                    type, tokens.line(tokenIndex)));
         };
     }
 
     private Statement.If readIfStatement() {
-        peekToken();
+        skipToken();
         List<Statement> body = new ArrayList<>();
         List<Statement.Elsif> elsifBranches = new ArrayList<>();
         Statement.ElseBranch elseBranch = null;
-        Token currentToken = peekToken();
-        BasicExpression condition = readExpression(new BasicExpression.Literal(currentToken));
+        int line = tokens.line(tokenIndex);
+        BasicExpression condition = readExpression();
+        expect(TokenType.THEN, "IF");
 
-        while (!TokenType.ELSIF.equals(tokenList.get(tokenIndex).type()) &&
-            !TokenType.ELSE.equals(tokenList.get(tokenIndex).type()) &&
-            !TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+        while (!TokenType.ELSIF.equals(tokens.type(tokenIndex)) &&
+            !TokenType.ELSE.equals(tokens.type(tokenIndex)) &&
+            !TokenType.END.equals(tokens.type(tokenIndex))) {
             body.add(readStatement());
         }
 
-        if (TokenType.ELSIF.equals(tokenList.get(tokenIndex).type())) {
-            currentToken = peekToken();
-            int line = currentToken.line();
-            currentToken = peekToken();
-            BasicExpression elsifCondition = readExpression(new BasicExpression.Literal(currentToken));
+        while (TokenType.ELSIF.equals(tokens.type(tokenIndex))) {
+            int elsifLine = peekToken().line();
+            BasicExpression elsifCondition = readExpression();
+            expect(TokenType.THEN, "ELSIF");
             List<Statement> elsifBody = new ArrayList<>();
 
-            while (!TokenType.ELSIF.equals(tokenList.get(tokenIndex).type()) &&
-                !TokenType.ELSE.equals(tokenList.get(tokenIndex).type()) &&
-                !TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+            while (!TokenType.ELSIF.equals(tokens.type(tokenIndex)) &&
+                !TokenType.ELSE.equals(tokens.type(tokenIndex)) &&
+                !TokenType.END.equals(tokens.type(tokenIndex))) {
                 elsifBody.add(readStatement());
             }
 
-            elsifBranches.add(new Statement.Elsif(elsifCondition, elsifBody, line));
+            elsifBranches.add(new Statement.Elsif(elsifCondition, elsifBody, elsifLine));
         }
 
-        if (TokenType.ELSE.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.ELSE.equals(tokens.type(tokenIndex))) {
+            skipToken();
             List<Statement> elseBody = new ArrayList<>();
-            while (!TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+            while (!TokenType.END.equals(tokens.type(tokenIndex))) {
                 elseBody.add(readStatement());
             }
             elseBranch = new Statement.ElseBranch(elseBody);
         }
 
-        peekToken();
-        if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        skipToken();
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
-        return new Statement.If(condition, body, elsifBranches, elseBranch, currentToken.line());
+        return new Statement.If(condition, body, elsifBranches, elseBranch, line);
     }
 
     private Statement.While readWhileStatement() {
         List<Statement> body = new ArrayList<>();
-        peekToken();
+        int line = peekToken().line();
 
-        BasicExpression condition = readExpression(new BasicExpression.Literal(peekToken()));
+        BasicExpression condition = readExpression();
+        expect(TokenType.DO, "WHILE");
 
-        while (!TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+        while (!TokenType.END.equals(tokens.type(tokenIndex))) {
             body.add(readStatement());
         }
-        peekToken();
-        peekToken();
-        return new Statement.While(condition, body);
+        skipToken();
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
+        }
+        return new Statement.While(condition, body, line);
     }
 
     public Statement.Case readCaseStatement() {
         List<Statement.CaseBranch> body = new ArrayList<>();
         List<Statement> defaultCase = new ArrayList<>();
-        peekToken();
+        skipToken();
         Token currentToken = peekToken();
         Token ident = currentToken;
 
@@ -473,27 +443,27 @@ public class Parser {
             throw new IllegalTokenException("Invalid CASE condition");
         }
 
-        while (!TokenType.ELSE.equals(tokenList.get(tokenIndex).type()) &&
-            !TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+        while (!TokenType.ELSE.equals(tokens.type(tokenIndex)) &&
+            !TokenType.END.equals(tokens.type(tokenIndex))) {
             body.add(readCaseBranch());
-            if (TokenType.PIPE.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
+            if (TokenType.PIPE.equals(tokens.type(tokenIndex))) {
+                skipToken();
             }
         }
 
-        if (TokenType.ELSE.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
-            while (!TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+        if (TokenType.ELSE.equals(tokens.type(tokenIndex))) {
+            skipToken();
+            while (!TokenType.END.equals(tokens.type(tokenIndex))) {
                 defaultCase.add(readStatement());
             }
         }
 
-        if (TokenType.END.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.END.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
-        if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
         return new Statement.Case(ident, body, defaultCase);
@@ -503,13 +473,13 @@ public class Parser {
         List<Statement> body = new ArrayList<>();
         Set<Integer> range = readCaseBranchRange();
 
-        while (!TokenType.PIPE.equals(tokenList.get(tokenIndex).type()) &&
-            !TokenType.ELSE.equals(tokenList.get(tokenIndex).type())) {
+        while (!TokenType.PIPE.equals(tokens.type(tokenIndex)) &&
+            !TokenType.ELSE.equals(tokens.type(tokenIndex))) {
             body.add(readStatement());
         }
 
-        if (TokenType.PIPE.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.PIPE.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
         return new Statement.CaseBranch(range, body);
@@ -520,8 +490,8 @@ public class Parser {
         Token currentToken = peekToken();
         while (!TokenType.COLON.equals(currentToken.type())) {
             int rangeStart = ((Double) currentToken.literal()).intValue();
-            if (TokenType.DOT.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
+            if (TokenType.DOT.equals(tokens.type(tokenIndex))) {
+                skipToken();
                 currentToken = peekToken();
                 if (!TokenType.DOT.equals(currentToken.type())) {
                     Interpreter.error(currentToken.line(), "Invalid CASE condition", "Expected '..' token");
@@ -543,334 +513,226 @@ public class Parser {
 
     public Statement.For readForStatement() {
         List<Statement> body = new ArrayList<>();
-        peekToken();
+        skipToken();
 
         Statement index = readAssignmentOrCallStatement();
+        expect(TokenType.TO, "FOR");
 
-        Token currentToken = peekToken();
-
-        if (TokenType.TO.equals(currentToken.type())) {
-            currentToken = peekToken();
-        }
-
-        BasicExpression toExpression = readExpression(new BasicExpression.Literal(currentToken));
+        int line = tokens.line(tokenIndex);
+        BasicExpression toExpression = readExpression();
 
         BasicExpression byExpression = null;
-        if (TokenType.BY.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
-            byExpression = readExpression(new BasicExpression.Literal(peekToken()));
-        }
-
-        if (!TokenType.DO.equals(tokenList.get(tokenIndex).type())) {
-            peekToken();
+        if (TokenType.BY.equals(tokens.type(tokenIndex))) {
+            skipToken();
+            byExpression = readExpression();
         }
 
-        if (!TokenType.DO.equals(tokenList.get(tokenIndex).type())) {
+        if (!TokenType.DO.equals(tokens.type(tokenIndex))) {
             throw new IllegalTokenException("Invalid FOR condition");
         }
 
-        peekToken();
+        skipToken();
 
-        while (!TokenType.END.equals(tokenList.get(tokenIndex).type())) {
+        while (!TokenType.END.equals(tokens.type(tokenIndex))) {
             body.add(readStatement());
         }
-        peekToken();
-        peekToken();
-        return new Statement.For(index, toExpression, byExpression, body, currentToken.line());
+        skipToken();
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
+        }
+        return new Statement.For(index, toExpression, byExpression, body, line);
     }
 
     public Statement readAssignmentOrCallStatement() {
-        Token currentToken = tokenList.get(tokenIndex);
-        Token ident;
-        BasicExpression expression = null;
-
-        if (currentToken == null) {
-            throw new IllegalTokenException(String.format(
-                "Error during assignment statement reading, token with index: %d is null",
-                this.tokenIndex
-            ));
-        }
-
-        if (TokenType.IDENT.equals(currentToken.type())) {
-            ident = currentToken;
-        } else {
+        if (!TokenType.IDENT.equals(tokens.type(tokenIndex))) {
+            Token currentToken = tokens.get(tokenIndex);
             throw new IllegalTokenException(String.format(
                 "Illegal token during assignment statement reading. TokenType: %s, literal: %s, line: %d, index: %d",
                 currentToken.type(), currentToken.lexeme(), currentToken.line(), tokenIndex
             ));
         }
+        Token ident = peekToken();
+        Statement statement;
 
-        peekToken();
-        currentToken = peekToken();
-
-        if (TokenType.ASSIGNMENT.equals(currentToken.type())) {
-            currentToken = peekToken();
-            expression = readExpression(new BasicExpression.Literal(currentToken));
-            if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-            }
-            return new Statement.Assignment(new BasicExpression.Literal(ident), expression);
-        } else if (TokenType.SEMICOLON.equals(currentToken.type())) {
-            return new Statement.Call(ident, Collections.emptyList());
-        } else if (TokenType.OPEN_BRACKET.equals(currentToken.type())) {
-            List<Token> indices = new ArrayList<>();
-            currentToken = peekToken();
-            indices.add(currentToken);
-            peekToken();
-            currentToken = peekToken();
-            while (!TokenType.ASSIGNMENT.equals(currentToken.type())) {
-                indices.add(peekToken());
-                peekToken();
-                currentToken = peekToken();
-            }
-            currentToken = peekToken();
-            if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-            }
-            expression = readExpression(new BasicExpression.Literal(currentToken));
-            return new Statement.Assignment(new BasicExpression.ArrayVariable(ident,
-                                                                              indices.toArray(new Token[0])),
-                                                                              expression);
-        } else if (TokenType.OPEN_PARENTHESIS.equals(currentToken.type())) {
-            currentToken = peekToken();
-            List<BasicExpression> argumentExpressions = new ArrayList<>();
-            argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
-            while (TokenType.COMMA.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-                currentToken = peekToken();
-                argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
+        switch (tokens.type(tokenIndex)) {
+            case ASSIGNMENT -> {
+                skipToken();
+                statement = new Statement.Assignment(new BasicExpression.Variable(ident), readExpression());
             }
-            if (TokenType.CLOSE_PARENTHESIS.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
+            case OPEN_BRACKET -> {
+                BasicExpression.ArrayVariable target = new BasicExpression.ArrayVariable(ident, readIndices());
+                expect(TokenType.ASSIGNMENT, "array assignment");
+                statement = new Statement.Assignment(target, readExpression());
             }
-            if (TokenType.SEMICOLON.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-            }
-            return new Statement.Call(ident, argumentExpressions);
-        } else {
-            throw new IllegalTokenException(String.format(
-                "Illegal token during assignment statement reading. TokenType: %s, literal: %s, line: %d, index: %d",
-                currentToken.type(), currentToken.lexeme(), currentToken.line(), tokenIndex
-            ));
+            case OPEN_PARENTHESIS -> statement = new Statement.Call(ident, readArguments());
+            default -> statement = new Statement.Call(ident, Collections.emptyList());
+        }
+
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
+        return statement;
     }
 
-    private BasicExpression readExpression(BasicExpression expression) {
-        if (expression instanceof BasicExpression.Literal &&
-            ((BasicExpression.Literal) expression).value.lexeme().equals("-")) {
-            Integer number = ((Double) peekToken().literal()).intValue() * -1;
+    /**
+     * Reads an expression starting at the current token and stops at the first token that cannot continue
+     * it, without consuming that token.
+     */
+    private BasicExpression readExpression() {
+        return readExpression(Operator.LOWEST_PRECEDENCE);
+    }
 
-            expression = new BasicExpression.Literal(new Token(TokenType.NUMBER,
-                number.toString(),
-                number,
-                ((BasicExpression.Literal) expression).value.line()));
+    /**
+     * Precedence climbing: operands are read by {@link #readFactor()}, and an operator is only taken while it
+     * binds at least as tightly as {@code minimumPrecedence}. Its right operand is read one level tighter,
+     * which makes operators of the same level associate to the left.
+     */
+    private BasicExpression readExpression(int minimumPrecedence) {
+        BasicExpression left = readFactor();
+        while (true) {
+            Operator operator = Operator.of(tokens.type(tokenIndex));
+            if (operator == null || operator.getPrecedence() < minimumPrecedence) {
+                return left;
+            }
+            int line = tokens.line(tokenIndex);
+            skipToken();
+            BasicExpression right = readExpression(operator.getPrecedence() + 1);
+            left = new BasicExpression.Binary(left, operator, right, line);
         }
+    }
 
-        if (expression instanceof BasicExpression.Literal &&
-            TokenType.NOT.equals(((BasicExpression.Literal) expression).value.type())) {
-            Token negatedToken = peekToken();
-            if (TokenType.OPEN_PARENTHESIS.equals(negatedToken.type())) {
-                expression = new BasicExpression.Negation(readExpression(new BasicExpression.Literal(peekToken())));
-            } else {
-                expression = new BasicExpression.Negation(new BasicExpression.Literal(negatedToken));
+    private BasicExpression readFactor() {
+        Token token = peekToken();
+        switch (token.type()) {
+            case MINUS -> {
+                // a sign applies to the whole term that follows it
+                BasicExpression operand = readExpression(Operator.TERM_PRECEDENCE);
+                if (operand instanceof BasicExpression.Literal literal &&
+                    TokenType.NUMBER.equals(literal.value.type())) {
+                    return negativeNumber(literal.value, token.line());
+                }
+                return new BasicExpression.Negation(operand);
             }
-        }
-
-        if (expression instanceof BasicExpression.Literal &&
-            TokenType.IDENT.equals(((BasicExpression.Literal) expression).value.type()) &&
-            TokenType.OPEN_PARENTHESIS.equals(tokenList.get(tokenIndex).type())) {
-            Token ident = ((BasicExpression.Literal) expression).value;
-            peekToken();
-            List<BasicExpression> argumentExpressions = new ArrayList<>();
-            Token currentToken = peekToken();
-            argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
-            while (TokenType.COMMA.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-                currentToken = peekToken();
-                argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
+            case PLUS -> {
+                return readExpression(Operator.TERM_PRECEDENCE);
             }
-            peekToken();
-            expression = new BasicExpression.ProcedureCall(ident, argumentExpressions);
-        }
-
-        if (expression instanceof BasicExpression.Literal &&
-            TokenType.IDENT.equals(((BasicExpression.Literal) expression).value.type()) &&
-            TokenType.OPEN_BRACKET.equals(tokenList.get(tokenIndex).type())) {
-            Token ident = ((BasicExpression.Literal) expression).value;
-            peekToken();
-            Token index = peekToken();
-            List<Token> indices = new ArrayList<>();
-            indices.add(index);
-            peekToken();
-            while (!TokenType.COMMA.equals(tokenList.get(tokenIndex).type())) {
-                peekToken();
-                indices.add(peekToken());
-                peekToken();
+            case NOT -> {
+                return new BasicExpression.Negation(readFactor());
             }
-            expression = new BasicExpression.ArrayVariable(ident, indices.toArray(new Token[0]));
-        }
-
-        if (expression instanceof BasicExpression.Literal &&
-            TokenType.OPEN_PARENTHESIS.equals(((BasicExpression.Literal) expression).value.type()) &&
-            TokenType.OPEN_PARENTHESIS.equals(tokenList.get(tokenIndex).type())) {
-            expression = readExpression(new BasicExpression.Literal(peekToken()));
-            expression = new BasicExpression.Grouping(expression);
-        }
-
-        if (expression instanceof BasicExpression.Literal &&
-            TokenType.OPEN_PARENTHESIS.equals(((BasicExpression.Literal) expression).value.type())) {
-            Token currentToken = peekToken();
-            BasicExpression groupExpression = null;
-            if (TokenType.MINUS.equals(currentToken.type())) {
-                currentToken = peekToken();
-                groupExpression = new BasicExpression.Negation(new BasicExpression.Literal(currentToken));
-            } else {
-                groupExpression = new BasicExpression.Literal(currentToken);
+            case OPEN_PARENTHESIS -> {
+                BasicExpression expression = readExpression();
+                expect(TokenType.CLOSE_PARENTHESIS, "expression");
+                return new BasicExpression.Grouping(expression);
             }
-            currentToken = peekToken();
-            while (!TokenType.CLOSE_PARENTHESIS.equals(currentToken.type()) && (
-                MATH_OPERATION_TYPE_LIST.contains(currentToken.type()) ||
-                    BOOLEAN_OPERATION_TYPE_LIST.contains(currentToken.type()))) {
-                Token groupedOperator = currentToken;
-                BasicExpression groupedRight = null;
-                currentToken = peekToken();
-                if (TokenType.MINUS.equals(currentToken.type())) {
-                    currentToken = peekToken();
-                    groupedRight = new BasicExpression.Negation(new BasicExpression.Literal(currentToken));
-                } else {
-                    groupedRight = new BasicExpression.Literal(currentToken);
-                }
-                groupExpression = new BasicExpression.Binary(groupExpression, groupedOperator,
-                                                             groupedRight, currentToken.line());
-                if (MATH_OPERATION_TYPE_LIST.contains(tokenList.get(tokenIndex).type()) ||
-                    BOOLEAN_OPERATION_TYPE_LIST.contains(tokenList.get(tokenIndex).type())) {
-                    currentToken = peekToken();
+            case NUMBER, STRING, CHAR -> {
+                return new BasicExpression.Literal(token);
+            }
+            case IDENT -> {
+                if (TokenType.OPEN_PARENTHESIS.equals(tokens.type(tokenIndex))) {
+                    return new BasicExpression.ProcedureCall(token, readArguments());
+                } else if (TokenType.OPEN_BRACKET.equals(tokens.type(tokenIndex))) {
+                    return new BasicExpression.ArrayVariable(token, readIndices());
+                } else if (token.lexeme().equals("TRUE") || token.lexeme().equals("FALSE")) {
+                    return new BasicExpression.Literal(token);
                 }
+                return new BasicExpression.Variable(token);
             }
-            peekToken();
-            expression = new BasicExpression.Grouping(groupExpression);
+            default -> throw new IllegalTokenException(String.format(ILLEGAL_TOKEN_ERROR_MESSAGE,
+                token.type(), "expression", token.line()));
         }
+    }
 
-        if (!MATH_OPERATION_TYPE_LIST.contains(tokenList.get(tokenIndex).type()) &&
-            !BOOLEAN_OPERATION_TYPE_LIST.contains(tokenList.get(tokenIndex).type())) {
-            return expression;
-        }
-
-        Token currentToken = peekToken();
-
-        while (MATH_OPERATION_TYPE_LIST.contains(currentToken.type()) ||
-            BOOLEAN_OPERATION_TYPE_LIST.contains(currentToken.type())) {
-            BasicExpression left = expression;
-
-            if (left instanceof BasicExpression.Literal &&
-                TokenType.NOT.equals(((BasicExpression.Literal) left).value.type())) {
-                left = new BasicExpression.Negation(readExpression(new BasicExpression.Literal(peekToken())));
-            }
-            Token operator = currentToken;
-            currentToken = peekToken();
-            Token right = currentToken;
+    private BasicExpression.Literal negativeNumber(Token numberToken, int line) {
+        Number number = numberToken.lexeme().contains(".")
+                        ? (Number) Double.valueOf(-(Double) numberToken.literal())
+                        : (Number) Integer.valueOf(((Double) numberToken.literal()).intValue() * -1);
+        return new BasicExpression.Literal(new Token(TokenType.NUMBER, number.toString(), number, line), number);
+    }
 
-            if (TokenType.OPEN_PARENTHESIS.equals(currentToken.type())) {
-                currentToken = peekToken();
-                BasicExpression groupExpression = null;
-                if (TokenType.MINUS.equals(currentToken.type())) {
-                    currentToken = peekToken();
-                    groupExpression = new BasicExpression.Negation(new BasicExpression.Literal(currentToken));
-                } else {
-                    groupExpression = new BasicExpression.Literal(currentToken);
-                }
-                currentToken = peekToken();
-                while (!TokenType.CLOSE_PARENTHESIS.equals(currentToken.type()) &&
-                    (MATH_OPERATION_TYPE_LIST.contains(currentToken.type()) ||
-                        BOOLEAN_OPERATION_TYPE_LIST.contains(currentToken.type()))) {
-                    Token groupedOperator = currentToken;
-                    currentToken = peekToken();
-                    if (TokenType.MINUS.equals(currentToken.type())) {
-                        currentToken = peekToken();
-                        BasicExpression groupedRight = new BasicExpression.Negation(new BasicExpression.Literal(currentToken));
-                        groupExpression = new BasicExpression.Binary(groupExpression, groupedOperator, groupedRight,
-                                                                     currentToken.line());
-                    } else {
-                        BasicExpression groupedRight = new BasicExpression.Literal(currentToken);
-                        groupExpression = new BasicExpression.Binary(groupExpression, groupedOperator,
-                                                                     groupedRight, currentToken.line());
-                    }
-                    if (MATH_OPERATION_TYPE_LIST.contains(tokenList.get(tokenIndex).type())) {
-                        currentToken = peekToken();
-                    }
-                }
-                currentToken = peekToken();
-                expression = new BasicExpression.Binary(expression, operator,
-                    new BasicExpression.Grouping(groupExpression), currentToken.line());
-            } else if (TokenType.IDENT.equals(currentToken.type()) &&
-                TokenType.OPEN_PARENTHESIS.equals(tokenList.get(tokenIndex).type())) {
-                Token ident = currentToken;
-                List<BasicExpression> argumentExpressions = new ArrayList<>();
-                peekToken();
-                currentToken = peekToken();
-                argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
-                while (TokenType.COMMA.equals(tokenList.get(tokenIndex).type())) {
-                    peekToken();
-                    currentToken = peekToken();
-                    argumentExpressions.add(readExpression(new BasicExpression.Literal(currentToken)));
-                }
-                currentToken = peekToken();
-                expression = new BasicExpression.Binary(expression, operator,
-                                                        new BasicExpression.ProcedureCall(ident, argumentExpressions),
-                                                        currentToken.line());
-            } else {
-                currentToken = peekToken();
-                BasicExpression rightExpression;
+    /**
+     * Reads {@code (a, b, ...)}, starting at the opening parenthesis.
+     */
+    private List<BasicExpression> readArguments() {
+        skipToken();
+        List<BasicExpression> arguments = new ArrayList<>();
+        if (!TokenType.CLOSE_PARENTHESIS.equals(tokens.type(tokenIndex))) {
+            arguments.add(readExpression());
+            while (TokenType.COMMA.equals(tokens.type(tokenIndex))) {
+                skipToken();
+                arguments.add(readExpression());
+            }
+        }
+        expect(TokenType.CLOSE_PARENTHESIS, "argument list");
+        return arguments;
+    }
 
-                if (TokenType.NOT.equals(right.type())) {
-                    rightExpression = new BasicExpression.Negation(readExpression(new BasicExpression.Literal(currentToken)));
-                    currentToken = peekToken();
-                } else {
-                    rightExpression = new BasicExpression.Literal(right);
-                }
-                expression = new BasicExpression.Binary(left, operator, rightExpression, currentToken.line());
-            }
+    /**
+     * Reads {@code [i][j]} or {@code [i, j]}, starting at the first opening bracket.
+     */
+    private BasicExpression[] readIndices() {
+        List<BasicExpression> indices = new ArrayList<>();
+        while (TokenType.OPEN_BRACKET.equals(tokens.type(tokenIndex))) {
+            skipToken();
+            indices.add(readExpression());
+            while (TokenType.COMMA.equals(tokens.type(tokenIndex))) {
+                skipToken();
+                indices.add(readExpression());
+            }
+            expect(TokenType.CLOSE_BRACKET, "array index");
+        }
+        return indices.toArray(new BasicExpression[0]);
+    }
 
-            if (TokenType.CLOSE_PARENTHESIS.equals(currentToken.type())) {
-                currentToken = peekToken();
-            }
+    private void expect(TokenType type, String during) {
+        if (!type.equals(tokens.type(tokenIndex))) {
+            throw new IllegalTokenException(String.format(ILLEGAL_TOKEN_ERROR_MESSAGE,
+                tokens.type(tokenIndex), during, tokens.line(tokenIndex)));
         }
-
-        return expression;
+        skipToken();
     }
 
     private Statement.Read readReadStatement() {
-        peekToken();
-        Token currentToken = peekToken();
-        Token variableName = currentToken;
+        skipToken();
+        Token variableName = peekToken();
         Statement.Read statement = new Statement.Read(variableName, null);
-        if (TokenType.OPEN_BRACKET.equals(peekToken().type())) {
-            currentToken = peekToken();
-            BasicExpression expression = readExpression(new BasicExpression.Literal(currentToken));
-            statement = new Statement.Read(variableName, expression);
-            peekToken();
+        if (TokenType.OPEN_BRACKET.equals(tokens.type(tokenIndex))) {
+            skipToken();
+            statement = new Statement.Read(variableName, readExpression());
+            expect(TokenType.CLOSE_BRACKET, "read");
+        }
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
         return statement;
     }
 
     public Statement.Write readWriteStatement() {
-        peekToken();
-        Token currentToken = peekToken();
-        Token variableName = currentToken;
+        skipToken();
+        Token variableName = peekToken();
         Statement.Write statement = new Statement.Write(variableName, null);
-        if (TokenType.OPEN_BRACKET.equals(peekToken().type())) {
-            currentToken = peekToken();
-            BasicExpression expression = readExpression(new BasicExpression.Literal(currentToken));
-            statement = new Statement.Write(variableName, expression);
-            peekToken();
+        if (TokenType.OPEN_BRACKET.equals(tokens.type(tokenIndex))) {
+            skipToken();
+            statement = new Statement.Write(variableName, readExpression());
+            expect(TokenType.CLOSE_BRACKET, "write");
+        }
+        if (TokenType.SEMICOLON.equals(tokens.type(tokenIndex))) {
+            skipToken();
         }
 
         return statement;
     }
 
+    private static Dimension readDimension(int low, int high, int line) {
+        if (low > high) {
+            throw new IllegalTokenException(String.format("Array bounds [%d..%d] are reversed, line: %d",
+                                                          low, high, line));
+        }
+        return new Dimension(low, high);
+    }
+
     private Token peekToken() {
-        Token token = this.tokenList.get(tokenIndex);
+        Token token = tokens.get(tokenIndex);
 
         if (token == null) {
             throw new IllegalTokenException(String.format(
@@ -883,8 +745,21 @@ public class Parser {
         return token;
     }
 
-    private List<Token> getTokenList() {
-        return tokenList;
+    /**
+     * Moves past a token whose type is already known without materializing it.
+     */
+    private void skipToken() {
+        if (!tokens.has(tokenIndex)) {
+            throw new IllegalTokenException(String.format(
+                "Error during assignment statement reading, token with index: %d is null",
+                this.tokenIndex
+            ));
+        }
+        tokenIndex++;
+    }
+
+    private TokenArena getTokens() {
+        return tokens;
     }
 
     private int getTokenIndex() {
@@ -1,9 +1,13 @@
 package ast;
 
+import context.CallSite;
+import context.FrameLayout;
+import context.InvocationProfile;
+import context.LoopProfile;
 import scanner.Token;
+import structure.Dimension;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -71,6 +75,8 @@ public abstract class Statement {
         final Token returnType;
         final List<Var> parameters;
         final List<Statement> body;
+        final InvocationProfile profile = new InvocationProfile();
+        FrameLayout layout;
 
         public Procedure(Token name, Token returnType,
                          List<Var> parameters, List<Statement> body) {
@@ -80,6 +86,19 @@ public abstract class Statement {
             this.body = body;
         }
 
+        public InvocationProfile getProfile() {
+            return profile;
+        }
+
+        public FrameLayout getLayout() {
+            return layout;
+        }
+
+        public Procedure setLayout(FrameLayout layout) {
+            this.layout = layout;
+            return this;
+        }
+
         public Token getName() {
             return name;
         }
@@ -300,11 +319,11 @@ public abstract class Statement {
     public static class VarArray extends Statement {
         public final Token name;
         final Token type;
-        final Map<Integer, Set<Integer>> dimensionRanges;
+        final List<Dimension> dimensionRanges;
         public final BasicExpression initializer;
 
 
-        public VarArray(Token name, Token type, Map<Integer, Set<Integer>> dimensionRanges, BasicExpression initializer) {
+        public VarArray(Token name, Token type, List<Dimension> dimensionRanges, BasicExpression initializer) {
             this.name = name;
             this.type = type;
             this.dimensionRanges = dimensionRanges;
@@ -319,7 +338,7 @@ public abstract class Statement {
             return type;
         }
 
-        public Map<Integer, Set<Integer>> getDimensionRanges() {
+        public List<Dimension> getDimensionRanges() {
             return dimensionRanges;
         }
 
@@ -346,13 +365,17 @@ public abstract class Statement {
 
         public static class While extends Statement {
 
-        public While(BasicExpression condition, List<Statement> body) {
+        public While(BasicExpression condition, List<Statement> body, int line) {
             this.condition = condition;
             this.body = body;
+            this.line = line;
+            this.profile = new LoopProfile("WHILE", line);
         }
 
         final BasicExpression condition;
         final List<Statement> body;
+        final int line;
+        final LoopProfile profile;
 
         public BasicExpression getCondition() {
             return condition;
@@ -362,6 +385,14 @@ public abstract class Statement {
             return body;
         }
 
+        public int getLine() {
+            return line;
+        }
+
+        public LoopProfile getProfile() {
+            return profile;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -432,11 +463,13 @@ public abstract class Statement {
     public static class Case extends Statement {
 
         final Token ident;
+        final BasicExpression.Variable selector;
         final List<CaseBranch> branches;
         final List<Statement> defaultBranch;
 
         public Case(Token ident, List<CaseBranch> branches, List<Statement> defaultBranch) {
             this.ident = ident;
+            this.selector = new BasicExpression.Variable(ident);
             this.branches = branches;
             this.defaultBranch = defaultBranch;
         }
@@ -445,6 +478,10 @@ public abstract class Statement {
             return ident;
         }
 
+        public BasicExpression.Variable getSelector() {
+            return selector;
+        }
+
         public List<CaseBranch> getBranches() {
             return branches;
         }
@@ -536,6 +573,8 @@ public abstract class Statement {
     public static class Call extends Statement {
         final Token procedureName;
         List<BasicExpression> arguments;
+        boolean tailCall;
+        final CallSite callSite = new CallSite();
 
         public Call(Token procedureName, List<BasicExpression> arguments) {
             this.procedureName = procedureName;
@@ -555,6 +594,22 @@ public abstract class Statement {
             return this;
         }
 
+        /**
+         * Whether nothing of the calling procedure runs after this call, so it may reuse the caller's frame.
+         */
+        public boolean isTailCall() {
+            return tailCall;
+        }
+
+        public Call setTailCall(boolean tailCall) {
+            this.tailCall = tailCall;
+            return this;
+        }
+
+        public CallSite getCallSite() {
+            return callSite;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -573,12 +628,22 @@ public abstract class Statement {
     public static class Const extends Statement {
         public final Token name;
         public final BasicExpression initializer;
+        int slot = -1;
 
         public Const(Token name, BasicExpression initializer) {
             this.name = name;
             this.initializer = initializer;
         }
 
+        public int getSlot() {
+            return slot;
+        }
+
+        public Const setSlot(int slot) {
+            this.slot = slot;
+            return this;
+        }
+
         public Token getName() {
             return name;
         }
@@ -0,0 +1,615 @@
+package compiler;
+
+import ast.BasicExpression;
+import ast.Statement;
+import context.ApplicationContext;
+import context.FrameLayout;
+import context.LoopProfile;
+import context.ProcedureContext;
+import evaluator.BinaryOperation;
+import evaluator.LiteralExpressionEvaluator;
+import executor.CallStatementExecutor;
+import executor.ForStatementExecutor;
+import interpreter.Interpreter;
+import library.Native;
+import structure.Array;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compiles the resolved AST once into a tree of closures with direct references to their children, so that
+ * execution does no per-node executor lookup. Must run after {@link analyzer.ScopeResolver}.
+ */
+public class ClosureCompiler {
+
+    private final Map<Statement.Procedure, CompiledProcedure> procedures = new IdentityHashMap<>();
+
+    public CompiledStatement compileMain(Statement.Main main, FrameLayout globalLayout) {
+        return compileBlock(main.getBody(), globalLayout);
+    }
+
+    public CompiledProcedure compileProcedure(Statement.Procedure procedure) {
+        CompiledProcedure compiled = procedures.get(procedure);
+        if (compiled == null) {
+            compiled = new CompiledProcedure(procedure);
+            procedures.put(procedure, compiled);
+            compiled.setBody(compileBlock(procedure.getLayout().getStatements(), procedure.getLayout()));
+        }
+        return compiled;
+    }
+
+    private CompiledStatement compileBlock(List<Statement> statements, FrameLayout scope) {
+        List<CompiledStatement> compiled = new ArrayList<>();
+        if (statements != null) {
+            for (Statement statement : statements) {
+                CompiledStatement compiledStatement = compileStatement(statement, scope);
+                if (compiledStatement != null) {
+                    compiled.add(compiledStatement);
+                }
+            }
+        }
+
+        CompiledStatement[] block = compiled.toArray(new CompiledStatement[0]);
+        if (block.length > 1 && containsReturn(statements)) {
+            return procedureContext -> {
+                for (int i = 0; i < block.length && !procedureContext.isReturning(); i++) {
+                    block[i].execute(procedureContext);
+                }
+            };
+        }
+        return switch (block.length) {
+            case 0 -> procedureContext -> { };
+            case 1 -> block[0];
+            case 2 -> {
+                CompiledStatement first = block[0];
+                CompiledStatement second = block[1];
+                yield procedureContext -> {
+                    first.execute(procedureContext);
+                    second.execute(procedureContext);
+                };
+            }
+            default -> procedureContext -> {
+                for (CompiledStatement statement : block) {
+                    statement.execute(procedureContext);
+                }
+            };
+        };
+    }
+
+    /**
+     * Whether a RETURN can complete the call somewhere inside {@code statements}. Only blocks and loops that
+     * contain one test the frame's completion flag after each statement.
+     */
+    private static boolean containsReturn(List<? extends Statement> statements) {
+        if (statements == null) {
+            return false;
+        }
+        for (Statement statement : statements) {
+            if (statement instanceof Statement.Return) {
+                return true;
+            } else if (statement instanceof Statement.If ifStatement) {
+                if (containsReturn(ifStatement.getBody()) ||
+                    ifStatement.getElsifBranches().stream().anyMatch(elsif -> containsReturn(elsif.getStatements())) ||
+                    ifStatement.getElseBranch() != null && containsReturn(ifStatement.getElseBranch().getStatements())) {
+                    return true;
+                }
+            } else if (statement instanceof Statement.While whileStatement) {
+                if (containsReturn(whileStatement.getBody())) {
+                    return true;
+                }
+            } else if (statement instanceof Statement.For forStatement) {
+                if (containsReturn(forStatement.getBody())) {
+                    return true;
+                }
+            } else if (statement instanceof Statement.Case caseStatement) {
+                if (caseStatement.getBranches().stream().anyMatch(branch -> containsReturn(branch.getBody())) ||
+                    containsReturn(caseStatement.getDefaultBranch())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code null} for declarations, which have no run-time effect.
+     */
+    private CompiledStatement compileStatement(Statement statement, FrameLayout scope) {
+        if (statement instanceof Statement.Assignment assignment) {
+            return compileAssignment(assignment, scope);
+        } else if (statement instanceof Statement.Call call) {
+            return compileCall(call, scope);
+        } else if (statement instanceof Statement.If ifStatement) {
+            return compileIf(ifStatement, scope);
+        } else if (statement instanceof Statement.While whileStatement) {
+            return compileWhile(whileStatement, scope);
+        } else if (statement instanceof Statement.For forStatement) {
+            return compileFor(forStatement, scope);
+        } else if (statement instanceof Statement.Case caseStatement) {
+            return compileCase(caseStatement, scope);
+        } else if (statement instanceof Statement.Const constant) {
+            int slot = constant.getSlot();
+            CompiledExpression initializer = compileExpression(constant.getInitializer(), scope);
+            return procedureContext -> procedureContext.getSlots()[slot] = initializer.evaluate(procedureContext);
+        } else if (statement instanceof Statement.Main main) {
+            return compileBlock(main.getBody(), scope);
+        } else if (statement instanceof Statement.Return returnStatement) {
+            BasicExpression expression = returnStatement.getExpression();
+            if (expression instanceof BasicExpression.ProcedureCall procedureCall && procedureCall.isTailCall()) {
+                return compileTailCall(procedureCall.name.lexeme(),
+                                       compileArguments(procedureCall.arguments, scope), scope);
+            }
+            if (expression == null || expression instanceof BasicExpression.Empty) {
+                return procedureContext -> procedureContext.setResult(null);
+            }
+            CompiledExpression result = compileExpression(expression, scope);
+            return procedureContext -> procedureContext.setResult(result.evaluate(procedureContext));
+        } else if (statement instanceof Statement.Var || statement instanceof Statement.VarArray ||
+                   statement instanceof Statement.Procedure) {
+            return null;
+        }
+        String name = statement.getClass().getSimpleName();
+        return procedureContext -> {
+            Interpreter.error(0, " at '" + name + "'", "Statement is not supported");
+            System.exit(1);
+        };
+    }
+
+    private CompiledStatement compileAssignment(Statement.Assignment assignment, FrameLayout scope) {
+        CompiledExpression value = compileExpression(assignment.getExpression(), scope);
+
+        if (assignment.getIdent() instanceof BasicExpression.Variable variable) {
+            if (!variable.isBound()) {
+                Interpreter.error(variable.name.line(), " at '" + variable.name.lexeme() + "'",
+                                  "Variable not found");
+                System.exit(1);
+            }
+            int depth = variable.getDepth();
+            int slot = variable.getSlot();
+            return switch (depth) {
+                case 0 -> procedureContext -> procedureContext.getSlots()[slot] = value.evaluate(procedureContext);
+                case 1 -> procedureContext ->
+                    procedureContext.getParent().getSlots()[slot] = value.evaluate(procedureContext);
+                default -> procedureContext ->
+                    procedureContext.getFrame(depth).getSlots()[slot] = value.evaluate(procedureContext);
+            };
+        }
+
+        BasicExpression.ArrayVariable arrayVariable = (BasicExpression.ArrayVariable) assignment.getIdent();
+        CompiledExpression array = compileArrayReference(arrayVariable, scope);
+        CompiledExpression[] index = compileIndex(arrayVariable, scope);
+        int line = arrayVariable.name.line();
+        return procedureContext -> {
+            Object element = value.evaluate(procedureContext);
+            Array target = (Array) array.evaluate(procedureContext);
+            target.set(offset(target, index, line, procedureContext), element);
+        };
+    }
+
+    private CompiledStatement compileCall(Statement.Call call, FrameLayout scope) {
+        String name = call.getProcedureName().lexeme();
+        CompiledExpression[] arguments = compileArguments(call.getArguments(), scope);
+
+        if (ApplicationContext.imports.contains(name)) {
+            return procedureContext -> CallStatementExecutor.callTerminal2(call, evaluate(arguments, procedureContext));
+        }
+
+        if (Native.supportedProcedures.contains(name)) {
+            Function<List<Object>, Object> intrinsic = Native.intrinsic(name);
+            if ((name.equals("INC") || name.equals("DEC")) &&
+                call.getArguments().get(0) instanceof BasicExpression.Variable variable && variable.isBound()) {
+                int depth = variable.getDepth();
+                int slot = variable.getSlot();
+                return procedureContext -> procedureContext.getFrame(depth).getSlots()[slot] =
+                    intrinsic.apply(evaluate(arguments, procedureContext));
+            }
+            return procedureContext -> intrinsic.apply(evaluate(arguments, procedureContext));
+        }
+
+        if (call.isTailCall()) {
+            return compileTailCall(name, arguments, scope);
+        }
+        CompiledExpression invocation = compileInvocation(call.getProcedureName().line(), name, arguments, scope);
+        return invocation::evaluate;
+    }
+
+    private CompiledStatement compileIf(Statement.If ifStatement, FrameLayout scope) {
+        List<CompiledExpression> conditions = new ArrayList<>();
+        List<CompiledStatement> branches = new ArrayList<>();
+        conditions.add(compileExpression(ifStatement.getCondition(), scope));
+        branches.add(compileBlock(ifStatement.getBody(), scope));
+        for (Statement.Elsif elsif : ifStatement.getElsifBranches()) {
+            conditions.add(compileExpression(elsif.getCondition(), scope));
+            branches.add(compileBlock(elsif.getStatements(), scope));
+        }
+        CompiledStatement otherwise = ifStatement.getElseBranch() != null
+                                      ? compileBlock(ifStatement.getElseBranch().getStatements(), scope)
+                                      : null;
+
+        if (conditions.size() == 1) {
+            CompiledExpression condition = conditions.get(0);
+            CompiledStatement then = branches.get(0);
+            if (otherwise == null) {
+                return procedureContext -> {
+                    if ((boolean) condition.evaluate(procedureContext)) {
+                        then.execute(procedureContext);
+                    }
+                };
+            }
+            return procedureContext -> {
+                if ((boolean) condition.evaluate(procedureContext)) {
+                    then.execute(procedureContext);
+                } else {
+                    otherwise.execute(procedureContext);
+                }
+            };
+        }
+
+        CompiledExpression[] guards = conditions.toArray(new CompiledExpression[0]);
+        CompiledStatement[] bodies = branches.toArray(new CompiledStatement[0]);
+        return procedureContext -> {
+            for (int i = 0; i < guards.length; i++) {
+                if ((boolean) guards[i].evaluate(procedureContext)) {
+                    bodies[i].execute(procedureContext);
+                    return;
+                }
+            }
+            if (otherwise != null) {
+                otherwise.execute(procedureContext);
+            }
+        };
+    }
+
+    private CompiledStatement compileWhile(Statement.While whileStatement, FrameLayout scope) {
+        CompiledExpression condition = compileExpression(whileStatement.getCondition(), scope);
+        CompiledStatement body = compileBlock(whileStatement.getBody(), scope);
+        LoopProfile profile = whileStatement.getProfile();
+        int line = whileStatement.getLine();
+        if (containsReturn(whileStatement.getBody())) {
+            return procedureContext -> {
+                profile.enter();
+                while (test(condition.evaluate(procedureContext), line)) {
+                    body.execute(procedureContext);
+                    if (procedureContext.isReturning()) {
+                        return;
+                    }
+                    profile.backedge();
+                }
+            };
+        }
+        return procedureContext -> {
+            profile.enter();
+            while (test(condition.evaluate(procedureContext), line)) {
+                body.execute(procedureContext);
+                profile.backedge();
+            }
+        };
+    }
+
+    private static boolean test(Object condition, int line) {
+        if (condition instanceof Boolean value) {
+            return value;
+        }
+        Interpreter.error(line, " at 'WHILE'", "Condition must be a boolean expression");
+        System.exit(1);
+        return false;
+    }
+
+    private CompiledStatement compileFor(Statement.For forStatement, FrameLayout scope) {
+        Statement.Assignment index = (Statement.Assignment) forStatement.getIndex();
+        BasicExpression.Variable variable = (BasicExpression.Variable) index.getIdent();
+        CompiledStatement start = compileAssignment(index, scope);
+        CompiledExpression to = compileExpression(forStatement.getTo(), scope);
+        CompiledExpression by = forStatement.getBy() != null ? compileExpression(forStatement.getBy(), scope) : null;
+        CompiledStatement body = compileBlock(forStatement.getBody(), scope);
+        int depth = variable.getDepth();
+        boolean returns = containsReturn(forStatement.getBody());
+        return procedureContext -> {
+            start.execute(procedureContext);
+            Object[] slots = procedureContext.getFrame(depth).getSlots();
+            Object last = to.evaluate(procedureContext);
+            Object step = by != null ? by.evaluate(procedureContext) : null;
+            ForStatementExecutor.count(variable, slots, last, step, () -> {
+                body.execute(procedureContext);
+                return !returns || !procedureContext.isReturning();
+            });
+        };
+    }
+
+    private CompiledStatement compileCase(Statement.Case caseStatement, FrameLayout scope) {
+        CompiledExpression selector = compileExpression(caseStatement.getSelector(), scope);
+        List<Statement.CaseBranch> branches = caseStatement.getBranches();
+        CompiledStatement[] bodies = new CompiledStatement[branches.size()];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = compileBlock(branches.get(i).getBody(), scope);
+        }
+        CompiledStatement defaultBranch = compileBlock(caseStatement.getDefaultBranch(), scope);
+        return procedureContext -> {
+            Integer value = (Integer) selector.evaluate(procedureContext);
+            boolean executed = false;
+            for (int i = 0; i < bodies.length; i++) {
+                if (branches.get(i).getRange().contains(value)) {
+                    bodies[i].execute(procedureContext);
+                    executed = true;
+                    if (procedureContext.isReturning()) {
+                        return;
+                    }
+                }
+            }
+            if (!executed) {
+                defaultBranch.execute(procedureContext);
+            }
+        };
+    }
+
+    public CompiledExpression compileExpression(BasicExpression expression, FrameLayout scope) {
+        if (expression instanceof BasicExpression.Literal literal) {
+            return compileLiteral(literal);
+        } else if (expression instanceof BasicExpression.Variable variable) {
+            return compileVariable(variable);
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            return compileBinary(binary, scope);
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            return compileExpression(grouping.expression, scope);
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            return compileNegation(negation, scope);
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            CompiledExpression array = compileArrayReference(arrayVariable, scope);
+            CompiledExpression[] index = compileIndex(arrayVariable, scope);
+            int line = arrayVariable.name.line();
+            return procedureContext -> {
+                Array source = (Array) array.evaluate(procedureContext);
+                return source.get(offset(source, index, line, procedureContext));
+            };
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            String name = procedureCall.name.lexeme();
+            CompiledExpression[] arguments = compileArguments(procedureCall.arguments, scope);
+            if (findProcedureDepth(name, scope) < 0 && Native.supportedProcedures.contains(name)) {
+                Function<List<Object>, Object> intrinsic = Native.intrinsic(name);
+                return procedureContext -> intrinsic.apply(evaluate(arguments, procedureContext));
+            }
+            return compileInvocation(procedureCall.name.line(), name, arguments, scope);
+        }
+        return procedureContext -> null;
+    }
+
+    private CompiledExpression compileLiteral(BasicExpression.Literal literal) {
+        Object value = literal.getConstantValue();
+        return procedureContext -> value;
+    }
+
+    private CompiledExpression compileVariable(BasicExpression.Variable variable) {
+        if (variable.isBound()) {
+            int depth = variable.getDepth();
+            int slot = variable.getSlot();
+            return switch (depth) {
+                case 0 -> procedureContext -> procedureContext.getSlots()[slot];
+                case 1 -> procedureContext -> procedureContext.getParent().getSlots()[slot];
+                default -> procedureContext -> procedureContext.getFrame(depth).getSlots()[slot];
+            };
+        }
+        Object value = LiteralExpressionEvaluator.valueOf(variable.name);
+        return procedureContext -> value;
+    }
+
+    /**
+     * Operators whose operand types are known statically get a closure of their own with the primitive
+     * operation inlined; a failed guard falls back to the expression's operator node.
+     */
+    private CompiledExpression compileBinary(BasicExpression.Binary binary, FrameLayout scope) {
+        CompiledExpression left = compileExpression(binary.getLeft(), scope);
+        CompiledExpression right = compileExpression(binary.getRight(), scope);
+        BinaryOperation operation = binary.getOperation();
+
+        if (BinaryOperation.INTEGER.equals(operation.getOperandType())) {
+            switch (operation.getOperator()) {
+                case PLUS:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x + y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case MINUS:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x - y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case TIMES:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x * y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case LESS:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x < y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case LESS_EQUAL:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x <= y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case GREATER:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x > y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                case GREATER_EQUAL:
+                    return procedureContext -> {
+                        Object a = left.evaluate(procedureContext);
+                        Object b = right.evaluate(procedureContext);
+                        if (a instanceof Integer x && b instanceof Integer y) {
+                            return x >= y;
+                        }
+                        return binary.getOperation().apply(binary, a, b);
+                    };
+                default:
+                    break;
+            }
+        }
+
+        return procedureContext -> binary.getOperation().apply(binary, left.evaluate(procedureContext),
+                                                               right.evaluate(procedureContext));
+    }
+
+    /**
+     * Negation of an operand whose static type is known skips the type dispatch of {@link #negate} as long as
+     * the value matches it.
+     */
+    private CompiledExpression compileNegation(BasicExpression.Negation negation, FrameLayout scope) {
+        CompiledExpression operand = compileExpression(negation.getNegatedValue(), scope);
+        String type = negation.getType();
+        if (BinaryOperation.INTEGER.equals(BinaryOperation.normalize(type))) {
+            return procedureContext -> {
+                Object value = operand.evaluate(procedureContext);
+                return value instanceof Integer number ? -number : negate(value);
+            };
+        } else if (BinaryOperation.REAL.equals(type)) {
+            return procedureContext -> {
+                Object value = operand.evaluate(procedureContext);
+                return value instanceof Double number ? -number : negate(value);
+            };
+        } else if (BinaryOperation.BOOLEAN.equals(type)) {
+            return procedureContext -> {
+                Object value = operand.evaluate(procedureContext);
+                return value instanceof Boolean bool ? !bool : negate(value);
+            };
+        }
+        return procedureContext -> negate(operand.evaluate(procedureContext));
+    }
+
+    private static Object negate(Object value) {
+        if (value instanceof Integer number) {
+            return -number;
+        } else if (value instanceof Double number) {
+            return -number;
+        } else if (value instanceof Boolean bool) {
+            return !bool;
+        }
+        Interpreter.error(-1, "", "Unknown type for negation");
+        System.exit(1);
+        return null;
+    }
+
+    private CompiledExpression compileArrayReference(BasicExpression.ArrayVariable arrayVariable, FrameLayout scope) {
+        if (arrayVariable.isBound()) {
+            int depth = arrayVariable.getDepth();
+            int slot = arrayVariable.getSlot();
+            return procedureContext -> procedureContext.getFrame(depth).getSlots()[slot];
+        }
+        int symbol = arrayVariable.name.symbol();
+        return procedureContext -> procedureContext.getArray(symbol);
+    }
+
+    private CompiledExpression[] compileIndex(BasicExpression.ArrayVariable arrayVariable, FrameLayout scope) {
+        CompiledExpression[] index = new CompiledExpression[arrayVariable.index.length];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = compileExpression(arrayVariable.index[i], scope);
+        }
+        return index;
+    }
+
+    private static int offset(Array array, CompiledExpression[] index, int line, ProcedureContext procedureContext) {
+        int offset = 0;
+        for (int dimension = 0; dimension < index.length; dimension++) {
+            offset += array.offset(dimension, ((Number) index[dimension].evaluate(procedureContext)).intValue(), line);
+        }
+        return offset;
+    }
+
+    private CompiledExpression[] compileArguments(List<BasicExpression> arguments, FrameLayout scope) {
+        CompiledExpression[] compiled = new CompiledExpression[arguments.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compileExpression(arguments.get(i), scope);
+        }
+        return compiled;
+    }
+
+    private static List<Object> evaluate(CompiledExpression[] arguments, ProcedureContext procedureContext) {
+        List<Object> values = new ArrayList<>(arguments.length);
+        for (CompiledExpression argument : arguments) {
+            values.add(argument.evaluate(procedureContext));
+        }
+        return values;
+    }
+
+    private CompiledExpression compileInvocation(int line, String name, CompiledExpression[] arguments,
+                                                 FrameLayout scope) {
+        int depth = findProcedureDepth(name, scope);
+        if (depth < 0) {
+            return procedureContext -> {
+                Interpreter.error(line, " at '" + name + "'", "Procedure not found");
+                System.exit(1);
+                return null;
+            };
+        }
+        CompiledProcedure procedure = compileProcedure(declaringScope(scope, depth).getProcedure(name));
+        return procedureContext -> procedure.invoke(procedureContext.getFrame(depth), arguments, procedureContext);
+    }
+
+    /**
+     * A call the resolver marked as a tail call: it evaluates the arguments into the frame and leaves the call
+     * to {@link CompiledProcedure#invoke}, which makes it once the body has unwound.
+     */
+    private CompiledStatement compileTailCall(String name, CompiledExpression[] arguments, FrameLayout scope) {
+        int depth = findProcedureDepth(name, scope);
+        Statement.Procedure target = declaringScope(scope, depth).getProcedure(name);
+        CompiledProcedure procedure = compileProcedure(target);
+        int count = Math.min(arguments.length, target.getLayout().getParameterCount());
+        return procedureContext -> {
+            Object[] values = procedureContext.getTailArguments(count);
+            for (int i = 0; i < count; i++) {
+                values[i] = arguments[i].evaluate(procedureContext);
+            }
+            procedureContext.setTailCall(procedure, procedureContext.getFrame(depth), count);
+        };
+    }
+
+    private static FrameLayout declaringScope(FrameLayout scope, int depth) {
+        FrameLayout declaringScope = scope;
+        for (int i = depth; i > 0; i--) {
+            declaringScope = declaringScope.getParent();
+        }
+        return declaringScope;
+    }
+
+    /**
+     * Number of static links from {@code scope} to the scope declaring procedure {@code name}, or -1.
+     */
+    private static int findProcedureDepth(String name, FrameLayout scope) {
+        int depth = 0;
+        for (FrameLayout layout = scope; layout != null; layout = layout.getParent(), depth++) {
+            if (layout.getProcedure(name) != null) {
+                return depth;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,8 @@
+package compiler;
+
+import context.ProcedureContext;
+
+@FunctionalInterface
+public interface CompiledExpression {
+    Object evaluate(ProcedureContext procedureContext);
+}
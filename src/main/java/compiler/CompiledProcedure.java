@@ -0,0 +1,73 @@
+package compiler;
+
+import ast.Statement;
+import context.FrameLayout;
+import context.ProcedureContext;
+
+/**
+ * A procedure compiled to closures. The body is filled in after the holder is registered, so recursive calls
+ * link to the holder while the body is still being compiled.
+ */
+public class CompiledProcedure {
+
+    private final Statement.Procedure procedure;
+    private CompiledStatement body;
+
+    public CompiledProcedure(Statement.Procedure procedure) {
+        this.procedure = procedure;
+    }
+
+    /**
+     * Calls the procedure, then every procedure it hands a tail call to, in a pooled frame: a self tail call
+     * reuses the frame and any other swaps it for one of the callee's.
+     */
+    public Object invoke(ProcedureContext declaringContext,
+                         CompiledExpression[] arguments,
+                         ProcedureContext callerContext) {
+        FrameLayout layout = procedure.getLayout();
+        ProcedureContext innerProcedureContext = ProcedureContext.acquire(layout, declaringContext);
+        Object[] slots = innerProcedureContext.getSlots();
+        int parameterCount = Math.min(arguments.length, layout.getParameterCount());
+        try {
+            for (int i = 0; i < parameterCount; i++) {
+                slots[i] = arguments[i].evaluate(callerContext);
+            }
+            CompiledProcedure current = this;
+            while (true) {
+                current.body.execute(innerProcedureContext);
+                if (innerProcedureContext.getTailCallee() == null) {
+                    return innerProcedureContext.getResult();
+                }
+
+                CompiledProcedure callee = (CompiledProcedure) innerProcedureContext.getTailCallee();
+                ProcedureContext link = innerProcedureContext.getTailLink();
+                Object[] values = innerProcedureContext.getTailArguments(0);
+                int count = innerProcedureContext.getTailArgumentCount();
+                if (callee == current) {
+                    innerProcedureContext.reset(link);
+                    System.arraycopy(values, 0, innerProcedureContext.getSlots(), 0, count);
+                } else {
+                    ProcedureContext calleeContext = ProcedureContext.acquire(callee.procedure.getLayout(), link);
+                    System.arraycopy(values, 0, calleeContext.getSlots(), 0, count);
+                    innerProcedureContext.release();
+                    innerProcedureContext = calleeContext;
+                }
+                current = callee;
+            }
+        } finally {
+            innerProcedureContext.release();
+        }
+    }
+
+    public Statement.Procedure getProcedure() {
+        return procedure;
+    }
+
+    public CompiledStatement getBody() {
+        return body;
+    }
+
+    void setBody(CompiledStatement body) {
+        this.body = body;
+    }
+}
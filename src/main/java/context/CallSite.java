@@ -0,0 +1,82 @@
+package context;
+
+import ast.Statement;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Inline cache of one call site for the tree interpreter: the call is resolved when it first executes, and
+ * afterwards goes straight to the cached library routine, intrinsic or procedure. Sites belong to the AST
+ * nodes, which are built anew whenever a program is loaded, so a cached target never outlives its program.
+ */
+public class CallSite {
+
+    public enum Kind {
+        UNRESOLVED,
+        /** A procedure imported from Terminal2. */
+        TERMINAL,
+        /** A built-in such as CHR or INC. */
+        NATIVE,
+        /** A procedure declared in the program. */
+        PROCEDURE
+    }
+
+    private Kind kind = Kind.UNRESOLVED;
+    private Function<List<Object>, Object> intrinsic;
+    private Statement.Procedure procedure;
+    private int depth;
+    private int resultSlot = -1;
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void bindTerminal() {
+        this.kind = Kind.TERMINAL;
+    }
+
+    public void bindNative(Function<List<Object>, Object> intrinsic) {
+        this.kind = Kind.NATIVE;
+        this.intrinsic = intrinsic;
+    }
+
+    /**
+     * Binds the site to a built-in whose result is stored into {@code slot} of the frame {@code depth} static
+     * links away, as INC and DEC do with their variable.
+     */
+    public void bindNative(Function<List<Object>, Object> intrinsic, int depth, int slot) {
+        bindNative(intrinsic);
+        this.depth = depth;
+        this.resultSlot = slot;
+    }
+
+    /**
+     * Binds the site to {@code procedure}, declared {@code depth} static links away from the calling frame.
+     * The distance is lexical, so it is the same for every execution of the site.
+     */
+    public void bindProcedure(Statement.Procedure procedure, int depth) {
+        this.kind = Kind.PROCEDURE;
+        this.procedure = procedure;
+        this.depth = depth;
+    }
+
+    public Function<List<Object>, Object> getIntrinsic() {
+        return intrinsic;
+    }
+
+    public Statement.Procedure getProcedure() {
+        return procedure;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Slot receiving the built-in's result, or -1 if the result is discarded.
+     */
+    public int getResultSlot() {
+        return resultSlot;
+    }
+}
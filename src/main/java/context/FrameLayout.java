@@ -0,0 +1,202 @@
+package context;
+
+import ast.Statement;
+import scanner.Symbols;
+import structure.Array;
+import structure.ArrayStorage;
+import util.SymbolMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slot assignment of one scope (the module or a procedure), built once by the resolver and shared by every
+ * activation of that scope. Names are keyed on their {@link Symbols} IDs.
+ */
+public class FrameLayout {
+
+    private static final int RECORD_POOL_LIMIT = 64;
+
+    private final FrameLayout parent;
+    private final int level;
+    private final SymbolMap<Integer> slotIndex = new SymbolMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+    private final List<Statement.VarArray> arrays = new ArrayList<>();
+    private final SymbolMap<Statement.Procedure> procedures = new SymbolMap<>();
+    private final List<Statement> statements = new ArrayList<>();
+    private final ProcedureContext[] records = new ProcedureContext[RECORD_POOL_LIMIT];
+    private int freeRecords;
+    private Object[] initialSlots;
+    private int parameterCount;
+    private boolean hasArrays;
+
+    public FrameLayout(FrameLayout parent) {
+        this.parent = parent;
+        this.level = parent == null ? 0 : parent.level + 1;
+    }
+
+    public int declare(String name, String type) {
+        return declare(Symbols.intern(name), type);
+    }
+
+    public int declare(int symbol, String type) {
+        Integer existing = slotIndex.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = names.size();
+        slotIndex.put(symbol, slot);
+        names.add(Symbols.name(symbol));
+        types.add(type);
+        arrays.add(null);
+        return slot;
+    }
+
+    public int declareParameter(int symbol, String type) {
+        int slot = declare(symbol, type);
+        parameterCount = Math.max(parameterCount, slot + 1);
+        return slot;
+    }
+
+    public int declareArray(Statement.VarArray array) {
+        int slot = declare(array.getName().symbol(), array.getType().lexeme());
+        arrays.set(slot, array);
+        hasArrays = true;
+        return slot;
+    }
+
+    public void declareProcedure(Statement.Procedure procedure) {
+        procedures.put(procedure.getName().symbol(), procedure);
+    }
+
+    public void addStatement(Statement statement) {
+        statements.add(statement);
+    }
+
+    /**
+     * Returns the slot of {@code name} in this scope only, or -1.
+     */
+    public int slotOf(int symbol) {
+        Integer slot = slotIndex.get(symbol);
+        return slot == null ? -1 : slot;
+    }
+
+    public int slotOf(String name) {
+        return slotOf(Symbols.lookup(name));
+    }
+
+    public Object[] newSlots() {
+        Object[] slots = initialSlots().clone();
+        for (int slot = 0; slot < slots.length; slot++) {
+            Statement.VarArray array = arrays.get(slot);
+            if (array != null) {
+                slots[slot] = new Array(array.getName().lexeme(), array.getDimensionRanges(),
+                                        array.getType().lexeme());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Resets the scalar slots of an activation to their initial values, clearing the array slots.
+     */
+    void clearSlots(Object[] slots) {
+        System.arraycopy(initialSlots(), 0, slots, 0, slots.length);
+    }
+
+    /**
+     * Values the slots of a fresh activation start with: the zero value of each scalar's type, as in the
+     * registers of the bytecode VM, so that every engine reads an unassigned variable the same way.
+     */
+    private Object[] initialSlots() {
+        Object[] initial = initialSlots;
+        if (initial == null || initial.length != names.size()) {
+            initial = new Object[names.size()];
+            for (int slot = 0; slot < initial.length; slot++) {
+                if (arrays.get(slot) == null) {
+                    initial[slot] = ArrayStorage.zeroOf(types.get(slot));
+                }
+            }
+            initialSlots = initial;
+        }
+        return initial;
+    }
+
+    /**
+     * Released activation record of this scope, or {@code null}. Only recursion keeps several records of one
+     * scope alive at once, and at most {@link #RECORD_POOL_LIMIT} of those are kept for reuse.
+     */
+    ProcedureContext pollRecord() {
+        if (freeRecords == 0) {
+            return null;
+        }
+        ProcedureContext context = records[--freeRecords];
+        records[freeRecords] = null;
+        return context;
+    }
+
+    void offerRecord(ProcedureContext context) {
+        if (freeRecords < RECORD_POOL_LIMIT) {
+            records[freeRecords++] = context;
+        }
+    }
+
+    public Statement.Procedure getProcedure(int symbol) {
+        return procedures.get(symbol);
+    }
+
+    public Statement.Procedure getProcedure(String name) {
+        return procedures.get(Symbols.lookup(name));
+    }
+
+    public boolean declaresProcedures() {
+        return !procedures.isEmpty();
+    }
+
+    public FrameLayout getParent() {
+        return parent;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getSize() {
+        return names.size();
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    public String getName(int slot) {
+        return names.get(slot);
+    }
+
+    public String getType(int slot) {
+        return types.get(slot);
+    }
+
+    public void setType(int slot, String type) {
+        types.set(slot, type);
+        initialSlots = null;
+    }
+
+    public boolean hasArrays() {
+        return hasArrays;
+    }
+
+    public boolean isArray(int slot) {
+        return arrays.get(slot) != null;
+    }
+
+    public Statement.VarArray getArray(int slot) {
+        return arrays.get(slot);
+    }
+
+    public List<Statement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+}
@@ -0,0 +1,43 @@
+package context;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Invocation counter of one procedure, together with the compiled code installed once the procedure got
+ * hot. A procedure the compiler rejected keeps counting but is never offered to it again.
+ */
+public class InvocationProfile {
+
+    private long invocations;
+    private MethodHandle compiledCode;
+    private boolean rejected;
+
+    /**
+     * Counts one invocation and returns the new total.
+     */
+    public long countInvocation() {
+        return ++invocations;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public MethodHandle getCompiledCode() {
+        return compiledCode;
+    }
+
+    public InvocationProfile setCompiledCode(MethodHandle compiledCode) {
+        this.compiledCode = compiledCode;
+        return this;
+    }
+
+    public boolean isRejected() {
+        return rejected;
+    }
+
+    public InvocationProfile reject() {
+        this.rejected = true;
+        return this;
+    }
+}
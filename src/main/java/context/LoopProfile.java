@@ -0,0 +1,78 @@
+package context;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Execution counters of one loop statement. Every loop that is entered at least once is registered, so the
+ * hot loops of a run can be listed and picked as optimization targets.
+ */
+public class LoopProfile {
+
+    private static final List<LoopProfile> profiles = new ArrayList<>();
+
+    private final String kind;
+    private final int line;
+    private long entries;
+    private long backedges;
+
+    public LoopProfile(String kind, int line) {
+        this.kind = kind;
+        this.line = line;
+    }
+
+    public void enter() {
+        if (entries++ == 0) {
+            synchronized (profiles) {
+                profiles.add(this);
+            }
+        }
+    }
+
+    public void backedge() {
+        backedges++;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getBackedges() {
+        return backedges;
+    }
+
+    /**
+     * Loops that took at least {@code threshold} backedges, hottest first.
+     */
+    public static List<LoopProfile> getHotLoops(long threshold) {
+        synchronized (profiles) {
+            return profiles.stream()
+                           .filter(profile -> profile.backedges >= threshold)
+                           .sorted(Comparator.comparingLong(LoopProfile::getBackedges).reversed())
+                           .toList();
+        }
+    }
+
+    public static void report(PrintStream out) {
+        List<LoopProfile> hotLoops = getHotLoops(0);
+        out.println("Loop profile:");
+        for (LoopProfile profile : hotLoops) {
+            out.println("  " + profile);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind + " at line " + line + ": entries=" + entries + ", backedges=" + backedges;
+    }
+}
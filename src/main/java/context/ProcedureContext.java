@@ -1,188 +1,232 @@
 package context;
 
-import ast.BasicExpression;
 import ast.Statement;
-import evaluator.ExpressionEvaluator;
+import scanner.Symbols;
 import structure.Array;
-import structure.Variable;
-import java.util.*;
-import java.util.stream.Collectors;
 
-public class ProcedureContext {
-
-    private final Map<String, Variable> variables;
-    private final Map<String, Array> varArrayList;
-    private final Map<String, ProcedureContext> procedureContexts;
-    private final List<Statement> body;
+import java.util.Arrays;
+import java.util.List;
 
-    private final List<String> parameters;
+/**
+ * Activation record: the slots of one scope plus the static link to the frame of the enclosing scope.
+ * Procedure frames are pooled per {@link FrameLayout}; a call {@link #acquire acquires} one and
+ * {@link #release releases} it when it returns, so only the slots are reset instead of being reallocated.
+ */
+public class ProcedureContext {
 
+    private final FrameLayout layout;
+    private ProcedureContext parent;
+    private final Object[] slots;
+    private final Array[] arrays;
+    private Object result;
+    private boolean returning;
+    private Object tailCallee;
+    private ProcedureContext tailLink;
+    private Object[] tailArguments;
+    private int tailArgumentCount;
+
+    public ProcedureContext(FrameLayout layout, ProcedureContext parent) {
+        this.layout = layout;
+        this.parent = parent;
+        this.slots = layout.newSlots();
+        this.arrays = layout.hasArrays() ? new Array[slots.length] : null;
+        if (arrays != null) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                if (layout.isArray(slot)) {
+                    arrays[slot] = (Array) slots[slot];
+                }
+            }
+        }
+    }
 
-    public ProcedureContext(Map<String, Variable> variables,
-                            Map<String, Array> varArrayList,
-                            Map<String, ProcedureContext> procedureContexts,
-                            List<Statement> body) {
-        this.variables = variables;
-        this.varArrayList = varArrayList;
-        this.procedureContexts = procedureContexts;
-        this.body = body;
-        this.parameters = new ArrayList<>();
+    /**
+     * Frame for a call of a procedure with {@code layout} whose static link is {@code parent}: a released
+     * record of that layout with its slots reset, or a new one if none is free.
+     */
+    public static ProcedureContext acquire(FrameLayout layout, ProcedureContext parent) {
+        ProcedureContext context = layout.pollRecord();
+        if (context == null) {
+            return new ProcedureContext(layout, parent);
+        }
+        context.parent = parent;
+        return context;
+    }
+
+    /**
+     * Hands the frame back to its layout's pool once the call has returned; the frame must not be used
+     * afterwards. Local arrays keep their storage, which is cleared rather than reallocated.
+     */
+    public void release() {
+        reset(null);
+        if (tailArguments != null) {
+            Arrays.fill(tailArguments, null);
+        }
+        layout.offerRecord(this);
+    }
+
+    /**
+     * Clears the frame for another activation of the same procedure whose static link is {@code parent}, as
+     * a self tail call does instead of releasing it and acquiring a new one. The tail call's arguments
+     * survive, since they are copied into the parameter slots afterwards.
+     */
+    public void reset(ProcedureContext parent) {
+        layout.clearSlots(slots);
+        if (arrays != null) {
+            for (int slot = 0; slot < arrays.length; slot++) {
+                if (arrays[slot] != null) {
+                    arrays[slot].getStorage().clear();
+                    slots[slot] = arrays[slot];
+                }
+            }
+        }
+        this.parent = parent;
+        result = null;
+        returning = false;
+        tailCallee = null;
+        tailLink = null;
     }
 
-    public ProcedureContext() {
-        this.variables = new HashMap<>();
-        this.varArrayList = new HashMap<>();
-        this.procedureContexts = new HashMap<>();
-        this.body = new ArrayList<>();
-        this.parameters = new ArrayList<>();
+    /**
+     * Reads the slot of a resolved identifier, {@code depth} static links away from this frame.
+     */
+    public Object get(int depth, int slot) {
+        return getFrame(depth).slots[slot];
     }
 
-    public ProcedureContext(Map<String, Variable> variables,
-                            Map<String, Array> varArrayList,
-                            Map<String, ProcedureContext> procedureContexts,
-                            List<Statement> body, List<String> parameters) {
-        this.variables = variables;
-        this.varArrayList = varArrayList;
-        this.procedureContexts = procedureContexts;
-        this.body = body;
-        this.parameters = parameters;
+    public void set(int depth, int slot, Object value) {
+        getFrame(depth).slots[slot] = value;
     }
 
-    public static ProcedureContext initialize(Statement.Procedure procedure) {
-        if (procedure == null) {
-            return null;
+    /**
+     * Returns the frame {@code depth} static links away from this one.
+     */
+    public ProcedureContext getFrame(int depth) {
+        ProcedureContext context = this;
+        for (int i = depth; i > 0; i--) {
+            context = context.parent;
         }
-        List<String> parameters = new ArrayList<>();
-        List<Statement> statements = procedure.getBody();
-        Map<String, Variable> varMap =
-            statements.stream()
-                .filter(statement -> statement instanceof Statement.Var)
-                .collect(HashMap::new,
-                         (m, v) -> m.put(((Statement.Var) v).getName().lexeme(),
-                                         new Variable(((Statement.Var) v).getName().lexeme(), null,
-                                         ((Statement.Var) v).getType().lexeme())),
-                         HashMap::putAll
-                );
-
-        procedure.getParameters()
-                 .forEach(parameter -> {
-                     varMap.put(parameter.getName().lexeme(),
-                                new Variable(parameter.getName().lexeme(),
-                                null, parameter.getType().lexeme()));
-                     parameters.add(parameter.getName().lexeme());
-                 });
-
-        Map<String, Array> varArrayMap =
-            statements.stream()
-                .filter(statement -> statement instanceof Statement.VarArray)
-                .collect(
-                    Collectors.toMap(
-                        statement -> ((Statement.VarArray) statement).name.lexeme(),
-                        statement -> new Array(((Statement.VarArray) statement).name.lexeme(),
-                                               ((Statement.VarArray) statement).getDimensionRanges(),
-                                               ((Statement.VarArray) statement).getType().lexeme(),
-                                               new HashMap<>()))
-                );
-        Map<String, ProcedureContext> subProcedures =
-            statements.stream()
-                      .filter(statement -> statement instanceof Statement.Procedure)
-                      .collect(
-                          Collectors.toMap(statement -> ((Statement.Procedure) statement).getName().lexeme(),
-                                           statement -> ProcedureContext.initialize(((Statement.Procedure) statement)))
-                      );
-
-        for (ProcedureContext procedureContext : subProcedures.values()) {
-            subProcedures.putAll(procedureContext.getProcedureContexts());
+        return context;
+    }
+
+    /**
+     * Finds the frame whose scope declares the procedure {@code name}; that frame becomes the static link
+     * of the callee.
+     */
+    public ProcedureContext getDeclaringContext(int symbol) {
+        for (ProcedureContext context = this; context != null; context = context.parent) {
+            if (context.layout.getProcedure(symbol) != null) {
+                return context;
+            }
         }
+        return null;
+    }
 
-        List<Statement> body =
-            statements.stream()
-                      .filter(statement -> !(statement instanceof Statement.Var) &&
-                                           !(statement instanceof Statement.VarArray) &&
-                                           !(statement instanceof Statement.Procedure))
-                      .toList();
-
-        return new ProcedureContext(varMap, varArrayMap, subProcedures, body, parameters);
+    public ProcedureContext getDeclaringContext(String name) {
+        return getDeclaringContext(Symbols.lookup(name));
     }
 
-    public Variable getVariable(String key) {
-        return variables.getOrDefault(key, null);
+    public Statement.Procedure getProcedure(int symbol) {
+        ProcedureContext context = getDeclaringContext(symbol);
+        return context == null ? null : context.layout.getProcedure(symbol);
     }
-    public boolean containsVariable(String key) {
-        return variables.containsKey(key);
+
+    public Statement.Procedure getProcedure(String name) {
+        return getProcedure(Symbols.lookup(name));
     }
 
-    public ProcedureContext getProcedure(String key) {
-        return procedureContexts.getOrDefault(key, null);
+    public Array getArray(int symbol) {
+        for (ProcedureContext context = this; context != null; context = context.parent) {
+            int slot = context.layout.slotOf(symbol);
+            if (slot >= 0 && context.layout.isArray(slot)) {
+                return (Array) context.slots[slot];
+            }
+        }
+        return null;
     }
 
-    public Object getArrayVariable(String key, Integer... index) {
-        return varArrayList.getOrDefault(key, null)
-                           .getIndexValueMap()
-                           .get(new Array.CompositeKey(index));
+    public Array getArray(String key) {
+        return getArray(Symbols.lookup(key));
     }
 
-    public void setVariable(String key, Object value) {
-        variables.get(key).setValue(value);
+    public Object getVariable(int symbol) {
+        for (ProcedureContext context = this; context != null; context = context.parent) {
+            int slot = context.layout.slotOf(symbol);
+            if (slot >= 0) {
+                return context.slots[slot];
+            }
+        }
+        return null;
     }
 
-    public void setArrayVariable(String key, Object value, Integer... index) {
-        varArrayList.getOrDefault(key, null)
-                    .getIndexValueMap()
-                    .put(new Array.CompositeKey(index), value);
+    public Object getVariable(String key) {
+        return getVariable(Symbols.lookup(key));
     }
 
-    public Map<String, ProcedureContext> getProcedureContexts() {
-        return procedureContexts;
+    /**
+     * Completes the call running in this frame with {@code result}, {@code null} for a bare RETURN. Statement
+     * lists check {@link #isReturning} after every statement and stop, so RETURN unwinds without an exception.
+     */
+    public void setResult(Object result) {
+        this.result = result;
+        this.returning = true;
     }
 
-    public List<Statement> getBody() {
-        return body;
+    public boolean isReturning() {
+        return returning;
     }
 
-    public boolean arrayExists(String key) {
-        return varArrayList.containsKey(key);
+    public Object getResult() {
+        return result;
     }
 
-    public ProcedureContext getProcedureContext(String key) {
-        return procedureContexts.getOrDefault(key, null);
+    /**
+     * Buffer for the arguments of a tail call made from this frame, valid until the frame is released.
+     */
+    public Object[] getTailArguments(int count) {
+        if (tailArguments == null || tailArguments.length < count) {
+            tailArguments = new Object[count];
+        }
+        return tailArguments;
     }
 
-    public List<Statement> getStatements() {
-        return body;
+    /**
+     * Completes the call running in this frame with a call of {@code callee}, whose static link is
+     * {@code link} and whose first {@code argumentCount} {@link #getTailArguments tail arguments} are set.
+     * Like RETURN it unwinds the body; the engine running the frame then makes the call in place of this one,
+     * so tail calls do not nest. {@code callee} is the procedure in whatever form the engine calls it.
+     */
+    public void setTailCall(Object callee, ProcedureContext link, int argumentCount) {
+        tailCallee = callee;
+        tailLink = link;
+        tailArgumentCount = argumentCount;
+        returning = true;
     }
 
-    public void addProcedureContext(String key, ProcedureContext procedureContext) {
-        procedureContexts.put(key, procedureContext);
+    public Object getTailCallee() {
+        return tailCallee;
     }
 
-    public List<String> getParameters() {
-        return parameters;
+    public ProcedureContext getTailLink() {
+        return tailLink;
     }
 
-    public void updateVariable(String key, Object value) {
-        if (variables.containsKey(key)) {
-            variables.getOrDefault(key, null)
-                     .setValue(value);
-        }
+    public int getTailArgumentCount() {
+        return tailArgumentCount;
     }
 
-    public void setVariableValue(String key, BasicExpression value) {
-        if (variables.containsKey(key)) {
-            variables.getOrDefault(key, null)
-                     .setValue(ExpressionEvaluator.evaluate(value, this));
-        }
+    public ProcedureContext getParent() {
+        return parent;
     }
 
-    public Array getArray(String key) {
-        return varArrayList.getOrDefault(key, null);
+    public FrameLayout getLayout() {
+        return layout;
     }
 
-    public Map<String, Variable> getVariables() {
-        return variables;
+    public Object[] getSlots() {
+        return slots;
     }
 
-    public Map<String, Array> getVarArrayList() {
-        return varArrayList;
+    public List<Statement> getStatements() {
+        return layout.getStatements();
     }
 }
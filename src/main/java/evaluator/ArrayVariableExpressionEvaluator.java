@@ -1,24 +1,31 @@
 package evaluator;
 
 import ast.BasicExpression;
-import context.ApplicationContext;
 import context.ProcedureContext;
-
-import java.util.Arrays;
+import structure.Array;
 
 public class ArrayVariableExpressionEvaluator implements Evaluator<BasicExpression.ArrayVariable> {
     @Override
     public Object evaluate(BasicExpression.ArrayVariable expression, ProcedureContext procedureContext) {
-        Integer[] indices = Arrays.stream(expression.index).map(index ->
-            (Integer) ExpressionEvaluator.evaluate(new BasicExpression.Literal(index), procedureContext)
-        ).toList().toArray(Integer[]::new);
-
-        Object value = ApplicationContext.getArrayVariable(expression.name.lexeme(), indices);
+        Array array = findArray(expression, procedureContext);
+        return array.get(offset(array, expression, procedureContext));
+    }
 
-        if (value == null && procedureContext != null) {
-            value = procedureContext.getArrayVariable(expression.name.lexeme(), indices);
+    public static Array findArray(BasicExpression.ArrayVariable expression, ProcedureContext procedureContext) {
+        if (expression.isBound()) {
+            return (Array) procedureContext.get(expression.getDepth(), expression.getSlot());
         }
+        return procedureContext.getArray(expression.name.symbol());
+    }
 
-        return value;
+    public static int offset(Array array, BasicExpression.ArrayVariable expression, ProcedureContext procedureContext) {
+        BasicExpression[] index = expression.index;
+        int line = expression.name.line();
+        int offset = 0;
+        for (int dimension = 0; dimension < index.length; dimension++) {
+            offset += array.offset(dimension, ((Number) ExpressionEvaluator.evaluate(index[dimension], procedureContext)).intValue(),
+                                   line);
+        }
+        return offset;
     }
 }
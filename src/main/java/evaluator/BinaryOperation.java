@@ -0,0 +1,449 @@
+package evaluator;
+
+import ast.BasicExpression;
+import ast.Operator;
+import interpreter.Interpreter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Operator node attached to every {@link BasicExpression.Binary}. The resolver installs a node specialized
+ * for the statically known operand types; everything else starts as an uninitialized generic node that
+ * rewrites itself to a specialized one on its first evaluation. A specialized node whose operand guard fails
+ * replaces itself with a generic node that stays generic.
+ */
+public abstract class BinaryOperation {
+
+    public static final String INTEGER = "INTEGER";
+    public static final String REAL = "REAL";
+    public static final String CHAR = "CHAR";
+    public static final String BOOLEAN = "BOOLEAN";
+    public static final String STRING = "STRING";
+
+    private static final Map<Operator, IntOperator> INT_ARITHMETIC = new EnumMap<>(Operator.class);
+    private static final Map<Operator, RealOperator> REAL_ARITHMETIC = new EnumMap<>(Operator.class);
+    private static final Map<Operator, IntComparator> INT_COMPARISON = new EnumMap<>(Operator.class);
+    private static final Map<Operator, RealComparator> REAL_COMPARISON = new EnumMap<>(Operator.class);
+
+    static {
+        INT_ARITHMETIC.put(Operator.PLUS, (a, b) -> a + b);
+        INT_ARITHMETIC.put(Operator.MINUS, (a, b) -> a - b);
+        INT_ARITHMETIC.put(Operator.TIMES, (a, b) -> a * b);
+        INT_ARITHMETIC.put(Operator.SLASH, (a, b) -> a / b);
+        INT_ARITHMETIC.put(Operator.DIV, (a, b) -> a / b);
+        INT_ARITHMETIC.put(Operator.MOD, (a, b) -> a % b);
+
+        REAL_ARITHMETIC.put(Operator.PLUS, (a, b) -> a + b);
+        REAL_ARITHMETIC.put(Operator.MINUS, (a, b) -> a - b);
+        REAL_ARITHMETIC.put(Operator.TIMES, (a, b) -> a * b);
+        REAL_ARITHMETIC.put(Operator.SLASH, (a, b) -> a / b);
+        REAL_ARITHMETIC.put(Operator.DIV, (a, b) -> a / b);
+        REAL_ARITHMETIC.put(Operator.MOD, (a, b) -> a % b);
+
+        INT_COMPARISON.put(Operator.LESS, (a, b) -> a < b);
+        INT_COMPARISON.put(Operator.LESS_EQUAL, (a, b) -> a <= b);
+        INT_COMPARISON.put(Operator.GREATER, (a, b) -> a > b);
+        INT_COMPARISON.put(Operator.GREATER_EQUAL, (a, b) -> a >= b);
+        INT_COMPARISON.put(Operator.EQUAL, (a, b) -> a == b);
+        INT_COMPARISON.put(Operator.NOT_EQUAL, (a, b) -> a != b);
+
+        REAL_COMPARISON.put(Operator.LESS, (a, b) -> a < b);
+        REAL_COMPARISON.put(Operator.LESS_EQUAL, (a, b) -> a <= b);
+        REAL_COMPARISON.put(Operator.GREATER, (a, b) -> a > b);
+        REAL_COMPARISON.put(Operator.GREATER_EQUAL, (a, b) -> a >= b);
+        REAL_COMPARISON.put(Operator.EQUAL, (a, b) -> a == b);
+        REAL_COMPARISON.put(Operator.NOT_EQUAL, (a, b) -> a != b);
+    }
+
+    protected final Operator operator;
+    protected final int line;
+
+    protected BinaryOperation(Operator operator, int line) {
+        this.operator = operator;
+        this.line = line;
+    }
+
+    public abstract Object apply(BasicExpression.Binary expression, Object left, Object right);
+
+    /**
+     * Modula-2 type of the result, or {@code null} when it is only known at run time.
+     */
+    public abstract String getResultType();
+
+    /**
+     * Operand type the node is specialized for, or {@code null} for nodes that accept any operands.
+     */
+    public String getOperandType() {
+        return null;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public static BinaryOperation uninitialized(Operator operator, int line) {
+        return new Generic(operator, line, true);
+    }
+
+    /**
+     * Picks the node for statically known operand types; unknown ({@code null}) or mixed types yield an
+     * uninitialized generic node.
+     */
+    public static BinaryOperation forTypes(Operator operator, String leftType, String rightType, int line) {
+        leftType = normalize(leftType);
+        rightType = normalize(rightType);
+        if (leftType == null || !leftType.equals(rightType)) {
+            return uninitialized(operator, line);
+        }
+        BinaryOperation operation = specialize(operator, leftType, line);
+        return operation != null ? operation : uninitialized(operator, line);
+    }
+
+    static BinaryOperation forValues(Operator operator, Object left, Object right, int line) {
+        String leftType = typeOf(left);
+        if (leftType != null && leftType.equals(typeOf(right))) {
+            BinaryOperation operation = specialize(operator, leftType, line);
+            if (operation != null) {
+                return operation;
+            }
+        }
+        if (operator == Operator.EQUAL || operator == Operator.NOT_EQUAL) {
+            return new Equality(operator, line);
+        }
+        return null;
+    }
+
+    private static BinaryOperation specialize(Operator operator, String type, int line) {
+        switch (type) {
+            case INTEGER:
+                if (INT_ARITHMETIC.containsKey(operator)) {
+                    return new IntArithmetic(operator, line);
+                }
+                if (INT_COMPARISON.containsKey(operator)) {
+                    return new IntComparison(operator, line);
+                }
+                return null;
+            case REAL:
+                if (REAL_ARITHMETIC.containsKey(operator)) {
+                    return new RealArithmetic(operator, line);
+                }
+                if (REAL_COMPARISON.containsKey(operator)) {
+                    return new RealComparison(operator, line);
+                }
+                return null;
+            case CHAR:
+                return INT_COMPARISON.containsKey(operator) ? new CharComparison(operator, line) : null;
+            case STRING:
+                if (operator == Operator.PLUS) {
+                    return new Concatenation(operator, line);
+                }
+                return operator == Operator.EQUAL || operator == Operator.NOT_EQUAL
+                       ? new Equality(operator, line) : null;
+            case BOOLEAN:
+                if (operator.isLogical()) {
+                    return new Logical(operator, line);
+                }
+                return operator == Operator.EQUAL || operator == Operator.NOT_EQUAL
+                       ? new Equality(operator, line) : null;
+            default:
+                return null;
+        }
+    }
+
+    public static String normalize(String type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type) {
+            case "INTEGER", "CARDINAL" -> INTEGER;
+            case REAL, CHAR, BOOLEAN, STRING -> type;
+            default -> null;
+        };
+    }
+
+    public static String typeOf(Object value) {
+        if (value instanceof Integer) {
+            return INTEGER;
+        } else if (value instanceof Double) {
+            return REAL;
+        } else if (value instanceof Character) {
+            return CHAR;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof String) {
+            return STRING;
+        }
+        return null;
+    }
+
+    /**
+     * Called by a specialized node whose guard failed: falls back to a generic node for good.
+     */
+    protected Object deoptimize(BasicExpression.Binary expression, Object left, Object right) {
+        Generic generic = new Generic(operator, line, false);
+        expression.setOperation(generic);
+        return generic.apply(expression, left, right);
+    }
+
+    protected Object incompatibleTypes() {
+        Interpreter.error(line, " at '" + operator + "'", "Incompatible types");
+        System.exit(1);
+        return null;
+    }
+
+    @FunctionalInterface
+    interface IntOperator {
+        int apply(int left, int right);
+    }
+
+    @FunctionalInterface
+    interface RealOperator {
+        double apply(double left, double right);
+    }
+
+    @FunctionalInterface
+    interface IntComparator {
+        boolean test(int left, int right);
+    }
+
+    @FunctionalInterface
+    interface RealComparator {
+        boolean test(double left, double right);
+    }
+
+    static final class IntArithmetic extends BinaryOperation {
+        private final IntOperator function;
+
+        IntArithmetic(Operator operator, int line) {
+            super(operator, line);
+            this.function = INT_ARITHMETIC.get(operator);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Integer a && right instanceof Integer b) {
+                return function.apply(a, b);
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return INTEGER;
+        }
+
+        @Override
+        public String getResultType() {
+            return INTEGER;
+        }
+    }
+
+    static final class RealArithmetic extends BinaryOperation {
+        private final RealOperator function;
+
+        RealArithmetic(Operator operator, int line) {
+            super(operator, line);
+            this.function = REAL_ARITHMETIC.get(operator);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Double a && right instanceof Double b) {
+                return function.apply(a, b);
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return REAL;
+        }
+
+        @Override
+        public String getResultType() {
+            return REAL;
+        }
+    }
+
+    static final class IntComparison extends BinaryOperation {
+        private final IntComparator function;
+
+        IntComparison(Operator operator, int line) {
+            super(operator, line);
+            this.function = INT_COMPARISON.get(operator);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Integer a && right instanceof Integer b) {
+                return function.test(a, b);
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return INTEGER;
+        }
+
+        @Override
+        public String getResultType() {
+            return BOOLEAN;
+        }
+    }
+
+    static final class RealComparison extends BinaryOperation {
+        private final RealComparator function;
+
+        RealComparison(Operator operator, int line) {
+            super(operator, line);
+            this.function = REAL_COMPARISON.get(operator);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Double a && right instanceof Double b) {
+                return function.test(a, b);
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return REAL;
+        }
+
+        @Override
+        public String getResultType() {
+            return BOOLEAN;
+        }
+    }
+
+    static final class CharComparison extends BinaryOperation {
+        private final IntComparator function;
+
+        CharComparison(Operator operator, int line) {
+            super(operator, line);
+            this.function = INT_COMPARISON.get(operator);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Character a && right instanceof Character b) {
+                return function.test(a, b);
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return CHAR;
+        }
+
+        @Override
+        public String getResultType() {
+            return BOOLEAN;
+        }
+    }
+
+    static final class Concatenation extends BinaryOperation {
+        Concatenation(Operator operator, int line) {
+            super(operator, line);
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof String a && right instanceof String b) {
+                return a + b;
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return STRING;
+        }
+
+        @Override
+        public String getResultType() {
+            return STRING;
+        }
+    }
+
+    static final class Equality extends BinaryOperation {
+        private final boolean negated;
+
+        Equality(Operator operator, int line) {
+            super(operator, line);
+            this.negated = operator == Operator.NOT_EQUAL;
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            return left.equals(right) != negated;
+        }
+
+        @Override
+        public String getResultType() {
+            return BOOLEAN;
+        }
+    }
+
+    static final class Logical extends BinaryOperation {
+        private final boolean conjunction;
+
+        Logical(Operator operator, int line) {
+            super(operator, line);
+            this.conjunction = operator == Operator.AND;
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            if (left instanceof Boolean a && right instanceof Boolean b) {
+                return conjunction ? a && b : a || b;
+            }
+            return deoptimize(expression, left, right);
+        }
+
+        @Override
+        public String getOperandType() {
+            return BOOLEAN;
+        }
+
+        @Override
+        public String getResultType() {
+            return BOOLEAN;
+        }
+    }
+
+    /**
+     * Dispatches on the operand values. An uninitialized node replaces itself with the specialized node for
+     * the first operand types it sees; a node installed by {@link #deoptimize} keeps dispatching.
+     */
+    static final class Generic extends BinaryOperation {
+        private final boolean rewrite;
+
+        Generic(Operator operator, int line, boolean rewrite) {
+            super(operator, line);
+            this.rewrite = rewrite;
+        }
+
+        @Override
+        public Object apply(BasicExpression.Binary expression, Object left, Object right) {
+            BinaryOperation operation = forValues(operator, left, right, line);
+            if (operation == null) {
+                return incompatibleTypes();
+            }
+            if (rewrite) {
+                expression.setOperation(operation);
+            }
+            return operation.apply(expression, left, right);
+        }
+
+        @Override
+        public String getResultType() {
+            return null;
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class ExpressionEvaluator {
         evaluatorMap.put(BasicExpression.Empty.class.getName(), new EmptyExpressionEvaluator());
         evaluatorMap.put(BasicExpression.Binary.class.getName(), new BinaryExpressionEvaluator());
         evaluatorMap.put(BasicExpression.Literal.class.getName(), new LiteralExpressionEvaluator());
+        evaluatorMap.put(BasicExpression.Variable.class.getName(), new VariableExpressionEvaluator());
         evaluatorMap.put(BasicExpression.Grouping.class.getName(), new GroupingExpressionEvaluator());
         evaluatorMap.put(BasicExpression.Negation.class.getName(), new NegationExpressionEvaluator());
         evaluatorMap.put(BasicExpression.ArrayVariable.class.getName(), new ArrayVariableExpressionEvaluator());
@@ -19,7 +19,7 @@ public class LegacyExpressionEvaluator {
                 return getValueFromContext(((BasicExpression.Literal) expression).value, procedureContext);
             case "Binary":
                 BasicExpression.Binary binary = (BasicExpression.Binary) expression;
-                return calculate(binary.left, binary.operator.lexeme(), binary.right, procedureContext);
+                return calculate(binary.left, binary.operator.getSymbol(), binary.right, procedureContext);
             case "Grouping":
                 BasicExpression.Grouping grouping = (BasicExpression.Grouping) expression;
                 BasicExpression biExpresion = grouping.expression;
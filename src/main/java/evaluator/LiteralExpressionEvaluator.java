@@ -1,13 +1,17 @@
 package evaluator;
 
 import ast.BasicExpression;
-import context.ApplicationContext;
 import context.ProcedureContext;
+import scanner.Token;
 
 public class LiteralExpressionEvaluator implements Evaluator<BasicExpression.Literal> {
     @Override
     public Object evaluate(BasicExpression.Literal expression, ProcedureContext procedureContext) {
-        String value = expression.value.lexeme();
+        return expression.getConstantValue();
+    }
+
+    public static Object valueOf(Token token) {
+        String value = token.lexeme();
 
         if (value.equals("TRUE")) {
             return true;
@@ -15,21 +19,6 @@ public class LiteralExpressionEvaluator implements Evaluator<BasicExpression.Lit
             return false;
         }
 
-
-        if (procedureContext != null && procedureContext.getVariable(value) != null) {
-            return procedureContext.getVariable(value)
-                .getValue();
-        }
-
-        if (ApplicationContext.varExists(value)) {
-            return ApplicationContext.getVariable(value)
-                                     .getValue();
-        }
-
-        if (ApplicationContext.constantExists(value)) {
-            return ApplicationContext.getConst(value);
-        }
-
         try {
             return Integer.parseInt(value);
         } catch (Exception ignored) {
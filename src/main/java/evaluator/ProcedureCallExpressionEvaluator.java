@@ -1,32 +1,39 @@
 package evaluator;
 
 import ast.BasicExpression;
-import context.ApplicationContext;
+import context.CallSite;
 import context.ProcedureContext;
-import executor.StatementExecutor;
+import executor.CallStatementExecutor;
 import interpreter.Interpreter;
 import library.Native;
 
-import java.util.List;
-
 public class ProcedureCallExpressionEvaluator implements Evaluator<BasicExpression.ProcedureCall> {
     @Override
     public Object evaluate(BasicExpression.ProcedureCall expression, ProcedureContext procedureContext) {
-        if (ApplicationContext.getProcedure(expression.name.lexeme()) != null) {
-            ApplicationContext.getProcedure(expression.name.lexeme())
-                              .getBody()
-                              .forEach(statement -> StatementExecutor.execute(statement, procedureContext));
-        } else if (procedureContext != null && procedureContext.getProcedure(expression.name.lexeme()) != null) {
-            procedureContext.getProcedure(expression.name.lexeme())
-                            .getBody()
-                            .forEach(statement -> StatementExecutor.execute(statement, procedureContext));
-        } else if (Native.supportedProcedures.contains(expression.name.lexeme())) {
-            return Native.executeNativeProcedure(expression, procedureContext);
-        } else {
-            Interpreter.error(0, " at '" + expression.name.lexeme() + "'", "Procedure not found");
-            System.exit(1);
-            return null;
+        CallSite site = resolve(expression, procedureContext);
+        if (site.getKind() == CallSite.Kind.PROCEDURE) {
+            return CallStatementExecutor.invoke(site.getProcedure(), procedureContext.getFrame(site.getDepth()),
+                                                expression.arguments, procedureContext);
+        }
+        return site.getIntrinsic().apply(CallStatementExecutor.evaluateArguments(expression.arguments,
+                                                                                 procedureContext));
+    }
+
+    /**
+     * The call site of {@code expression}, filled on its first evaluation: procedures visible from the frame
+     * take precedence over built-ins of the same name.
+     */
+    public static CallSite resolve(BasicExpression.ProcedureCall expression, ProcedureContext procedureContext) {
+        CallSite site = expression.getCallSite();
+        if (site.getKind() == CallSite.Kind.UNRESOLVED &&
+            !CallStatementExecutor.bindProcedure(site, expression.name.symbol(), procedureContext)) {
+            if (Native.supportedProcedures.contains(expression.name.lexeme())) {
+                site.bindNative(Native.intrinsic(expression.name.lexeme()));
+            } else {
+                Interpreter.error(0, " at '" + expression.name.lexeme() + "'", "Procedure not found");
+                System.exit(1);
+            }
         }
-        return null;
+        return site;
     }
 }
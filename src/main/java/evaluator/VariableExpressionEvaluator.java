@@ -0,0 +1,15 @@
+package evaluator;
+
+import ast.BasicExpression;
+import context.ProcedureContext;
+
+public class VariableExpressionEvaluator implements Evaluator<BasicExpression.Variable> {
+    @Override
+    public Object evaluate(BasicExpression.Variable expression, ProcedureContext procedureContext) {
+        if (expression.isBound()) {
+            return procedureContext.get(expression.getDepth(), expression.getSlot());
+        }
+
+        return LiteralExpressionEvaluator.valueOf(expression.name);
+    }
+}
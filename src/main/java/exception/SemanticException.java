@@ -0,0 +1,27 @@
+package exception;
+
+/**
+ * Semantic error found in a statement. Analyzers throw it instead of reporting and exiting, so that analysis
+ * running on worker threads can hand its diagnostics back to the interpreter.
+ */
+public class SemanticException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final String where;
+
+    public SemanticException(int line, String where, String message) {
+        super(message, null, false, false);
+        this.line = line;
+        this.where = where;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+}
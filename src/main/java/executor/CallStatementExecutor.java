@@ -3,81 +3,202 @@ package executor;
 import ast.BasicExpression;
 import ast.Statement;
 import context.ApplicationContext;
+import context.CallSite;
+import context.InvocationProfile;
 import context.ProcedureContext;
 import evaluator.ExpressionEvaluator;
 import interpreter.Interpreter;
+import jit.JitCompiler;
 import library.Native;
 import library.Terminal2;
 
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CallStatementExecutor implements Executor<Statement.Call> {
     @Override
     public void execute(Statement.Call statement, ProcedureContext procedureContext) {
+        CallSite site = statement.getCallSite();
+        if (site.getKind() == CallSite.Kind.UNRESOLVED && !resolve(statement, procedureContext)) {
+            Interpreter.error(statement.getProcedureName().line(),
+                " at '" + statement.getProcedureName().lexeme() + "'",
+                "Procedure not found");
+            System.exit(1);
+        }
+
+        switch (site.getKind()) {
+            case TERMINAL -> executeTerminal2Procedure(statement, procedureContext);
+            case NATIVE -> {
+                Object result = site.getIntrinsic().apply(evaluateArguments(statement.getArguments(),
+                                                                            procedureContext));
+                if (site.getResultSlot() >= 0) {
+                    procedureContext.set(site.getDepth(), site.getResultSlot(), result);
+                }
+            }
+            default -> {
+                ProcedureContext declaringContext = procedureContext.getFrame(site.getDepth());
+                if (statement.isTailCall()) {
+                    tailCall(site.getProcedure(), declaringContext, statement.getArguments(), procedureContext);
+                } else {
+                    invoke(site.getProcedure(), declaringContext, statement.getArguments(), procedureContext);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the call site of {@code statement} on its first execution, looking the name up in the order
+     * statements always have: imported library procedures, built-ins, then procedures visible from the frame.
+     */
+    private static boolean resolve(Statement.Call statement, ProcedureContext procedureContext) {
         String procedureName = statement.getProcedureName().lexeme();
+        CallSite site = statement.getCallSite();
         if (ApplicationContext.imports.contains(procedureName)) {
-            executeTerminal2Procedure(statement, procedureContext);
+            site.bindTerminal();
         } else if (Native.supportedProcedures.contains(procedureName)) {
-            BasicExpression.ProcedureCall procedureCall = new BasicExpression.ProcedureCall(
-                statement.getProcedureName(),
-                statement.getArguments()
-            );
-            ApplicationContext.updateVariable(procedureName,
-                                              Native.executeNativeProcedure(procedureCall, procedureContext));
-            if (procedureContext != null) {
-                procedureContext.updateVariable(procedureName,
-                                                Native.executeNativeProcedure(procedureCall, procedureContext));
+            if ((procedureName.equals("INC") || procedureName.equals("DEC")) &&
+                statement.getArguments().get(0) instanceof BasicExpression.Variable variable &&
+                variable.isBound()) {
+                site.bindNative(Native.intrinsic(procedureName), variable.getDepth(), variable.getSlot());
+            } else {
+                site.bindNative(Native.intrinsic(procedureName));
             }
-        } else if (ApplicationContext.globalProcedureList
-                                     .get(procedureName) != null) {
-            ProcedureContext innerProcedureContext =
-                ProcedureContext.initialize(ApplicationContext.globalProcedureList
-                                                              .get(procedureName));
+        } else {
+            return bindProcedure(site, statement.getProcedureName().symbol(), procedureContext);
+        }
+        return true;
+    }
 
-            for (int i = 0; i < statement.getArguments().size(); i++) {
-                innerProcedureContext.updateVariable(
-                    innerProcedureContext.getParameters().get(i),
-                    ExpressionEvaluator.evaluate(statement.getArguments().get(i), innerProcedureContext)
-                );
-                ApplicationContext.updateVariable(
-                    ApplicationContext.getProcedureArguments(statement.getProcedureName().lexeme()),
-                    ExpressionEvaluator.evaluate(statement.getArguments().get(i), innerProcedureContext)
-                );
+    /**
+     * Binds {@code site} to the procedure {@code symbol} as seen from {@code procedureContext}, together with
+     * the number of static links to the frame declaring it; {@code false} if no such procedure is visible.
+     */
+    public static boolean bindProcedure(CallSite site, int symbol, ProcedureContext procedureContext) {
+        int depth = 0;
+        for (ProcedureContext context = procedureContext; context != null; context = context.getParent(), depth++) {
+            Statement.Procedure procedure = context.getLayout().getProcedure(symbol);
+            if (procedure != null) {
+                site.bindProcedure(procedure, depth);
+                return true;
             }
-            if (procedureContext == null) {
-                procedureContext = innerProcedureContext;
+        }
+        return false;
+    }
+
+    public static List<Object> evaluateArguments(List<BasicExpression> arguments, ProcedureContext procedureContext) {
+        List<Object> values = new ArrayList<>(arguments.size());
+        for (BasicExpression argument : arguments) {
+            values.add(ExpressionEvaluator.evaluate(argument, procedureContext));
+        }
+        return values;
+    }
+
+    /**
+     * Runs {@code procedure} in a frame whose static link is {@code declaringContext}; arguments are
+     * evaluated in the caller's frame and stored into the parameter slots. Returns the value of the RETURN
+     * that completed the call, or {@code null}.
+     */
+    public static Object invoke(Statement.Procedure procedure,
+                              ProcedureContext declaringContext,
+                              List<BasicExpression> arguments,
+                              ProcedureContext callerContext) {
+        Object[] values = new Object[Math.min(arguments.size(), procedure.getLayout().getParameterCount())];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ExpressionEvaluator.evaluate(arguments.get(i), callerContext);
+        }
+        return enter(procedure, declaringContext, values);
+    }
+
+    /**
+     * Runs {@code procedure} with already evaluated arguments in a pooled activation record. Every call is
+     * counted; once the count reaches the compile threshold the procedure is handed to the
+     * {@link JitCompiler} and, if it compiles, runs as JVM bytecode from then on.
+     * <p>
+     * A body that ends in a {@link #tailCall tail call} leaves the callee in its frame, and the call is made
+     * here after the body has unwound: a self call reuses the frame, any other call swaps it for one of the
+     * callee's. Chains of tail calls therefore run at constant Java stack depth.
+     */
+    public static Object enter(Statement.Procedure procedure,
+                               ProcedureContext declaringContext,
+                               Object[] arguments) {
+        ProcedureContext innerProcedureContext = ProcedureContext.acquire(procedure.getLayout(), declaringContext);
+        System.arraycopy(arguments, 0, innerProcedureContext.getSlots(), 0,
+                         Math.min(arguments.length, innerProcedureContext.getLayout().getParameterCount()));
+        try {
+            while (true) {
+                run(procedure, innerProcedureContext);
+                if (innerProcedureContext.getTailCallee() == null) {
+                    return innerProcedureContext.getResult();
+                }
+
+                Statement.Procedure callee = (Statement.Procedure) innerProcedureContext.getTailCallee();
+                ProcedureContext link = innerProcedureContext.getTailLink();
+                Object[] values = innerProcedureContext.getTailArguments(0);
+                int count = innerProcedureContext.getTailArgumentCount();
+                if (callee.getLayout() == innerProcedureContext.getLayout()) {
+                    innerProcedureContext.reset(link);
+                    System.arraycopy(values, 0, innerProcedureContext.getSlots(), 0, count);
+                } else {
+                    ProcedureContext calleeContext = ProcedureContext.acquire(callee.getLayout(), link);
+                    System.arraycopy(values, 0, calleeContext.getSlots(), 0, count);
+                    innerProcedureContext.release();
+                    innerProcedureContext = calleeContext;
+                }
+                procedure = callee;
             }
+        } finally {
+            innerProcedureContext.release();
+        }
+    }
 
-            procedureContext.addProcedureContext(procedureName, innerProcedureContext);
-            procedureContext.getProcedureContexts().putAll(innerProcedureContext.getProcedureContexts());
-            ProcedureContext finalProcedureContext1 = procedureContext;
-            ApplicationContext.globalProcedureList
-                              .get(procedureName)
-                              .getBody()
-                              .forEach(procedureStatement ->
-                                  StatementExecutor.execute(procedureStatement, finalProcedureContext1));
-        } else if (procedureContext != null && procedureContext.getProcedureContext(procedureName) != null) {
-            ProcedureContext innerProcedureContext = procedureContext.getProcedureContext(procedureName);
-            procedureContext.addProcedureContext(procedureName, innerProcedureContext);
-            procedureContext.getProcedureContexts().putAll(innerProcedureContext.getProcedureContexts());
-            ProcedureContext finalProcedureContext1 = procedureContext;
-            procedureContext.getProcedureContext(procedureName).getStatements().forEach(procedureStatement ->
-                StatementExecutor.execute(procedureStatement, finalProcedureContext1));
-        } else {
-            Interpreter.error(statement.getProcedureName().line(),
-                " at '" + statement.getProcedureName().lexeme() + "'",
-                "Procedure not found");
-            System.exit(1);
+    private static void run(Statement.Procedure procedure, ProcedureContext procedureContext) {
+        InvocationProfile profile = procedure.getProfile();
+        MethodHandle compiledCode = profile.getCompiledCode();
+        if (compiledCode == null && profile.countInvocation() == JitCompiler.getThreshold()) {
+            compiledCode = JitCompiler.compile(procedure);
+        }
+
+        try {
+            if (compiledCode != null) {
+                compiledCode.invokeExact(procedureContext);
+            } else {
+                StatementExecutor.executeAll(procedureContext.getStatements(), procedureContext);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Ends the procedure running in {@code procedureContext} with a call of {@code procedure} in tail position:
+     * the arguments are evaluated into the frame and the call is left to {@link #enter}.
+     */
+    public static void tailCall(Statement.Procedure procedure,
+                                ProcedureContext declaringContext,
+                                List<BasicExpression> arguments,
+                                ProcedureContext procedureContext) {
+        int count = Math.min(arguments.size(), procedure.getLayout().getParameterCount());
+        Object[] values = procedureContext.getTailArguments(count);
+        for (int i = 0; i < count; i++) {
+            values[i] = ExpressionEvaluator.evaluate(arguments.get(i), procedureContext);
+        }
+        procedureContext.setTailCall(procedure, declaringContext, count);
+    }
+
     private void executeTerminal2Procedure(Statement.Call statement, ProcedureContext procedureContext) {
-        String procedureName = statement.getProcedureName().lexeme();
         List<Object> arguments = statement.getArguments()
                                           .stream()
                                           .map(expression ->
                                               ExpressionEvaluator.evaluate(expression, procedureContext))
                                           .toList();
+        callTerminal2(statement, arguments);
+    }
+
+    public static void callTerminal2(Statement.Call statement, List<Object> arguments) {
+        String procedureName = statement.getProcedureName().lexeme();
         switch (procedureName) {
             case "WriteString":
                 Terminal2.WriteString((String) arguments.get(0));
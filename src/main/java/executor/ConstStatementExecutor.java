@@ -1,13 +1,14 @@
 package executor;
 
 import ast.Statement;
-import context.ApplicationContext;
 import context.ProcedureContext;
+import evaluator.ExpressionEvaluator;
 
 public class ConstStatementExecutor implements Executor<Statement.Const> {
     @Override
     public void execute(Statement.Const statement, ProcedureContext procedureContext) {
-        ApplicationContext.globalConstantList.put(statement.getName().lexeme(), statement.getInitializer());
+        procedureContext.set(0, statement.getSlot(),
+                             ExpressionEvaluator.evaluate(statement.getInitializer(), procedureContext));
     }
 
 }
@@ -9,8 +9,7 @@ public class ElsifBranchStatementExecutor implements Executor<Statement.Elsif> {
     public void execute(Statement.Elsif statement, ProcedureContext procedureContext) {
         boolean condition = (boolean) ExpressionEvaluator.evaluate(statement.getCondition(), procedureContext);
         if (condition) {
-            statement.getStatements()
-                     .forEach(elseStatement -> StatementExecutor.execute(elseStatement, procedureContext));
+            StatementExecutor.executeAll(statement.getStatements(), procedureContext);
         }
     }
 }
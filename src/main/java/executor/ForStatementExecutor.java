@@ -2,100 +2,101 @@ package executor;
 
 import ast.BasicExpression;
 import ast.Statement;
-import context.ApplicationContext;
 import context.ProcedureContext;
 import evaluator.ExpressionEvaluator;
 import interpreter.Interpreter;
+
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.function.BooleanSupplier;
 
+/**
+ * Counted loop: the trip count is computed once from the start value, TO and BY, and the induction variable
+ * is kept in a primitive local that is stored into the variable's slot once per iteration.
+ */
 public class ForStatementExecutor implements Executor<Statement.For> {
     @Override
     public void execute(Statement.For statement, ProcedureContext procedureContext) {
         StatementExecutor.execute(statement.getIndex(), procedureContext);
-        Object index = ApplicationContext.getVariable(
-            ExpressionEvaluator.evaluate(
-                ((Statement.Assignment) statement.getIndex()).getIdent(),
-                procedureContext
-            ).toString());
-
-        if (index == null && procedureContext != null) {
-            index =
-                procedureContext.getVariable(ExpressionEvaluator.evaluate(
-                    ((Statement.Assignment) statement.getIndex()).getIdent(),
-                    procedureContext
-                ).toString());
-        }
-
-        if (index == null) {
-            index = ExpressionEvaluator.evaluate(
-                ((Statement.Assignment) statement.getIndex()).getExpression(),
-                procedureContext
-            );
-        }
+        BasicExpression.Variable variable =
+            (BasicExpression.Variable) ((Statement.Assignment) statement.getIndex()).getIdent();
 
-        if (index == null) {
-            Interpreter.error(0, " at 'FOR'", "Variable not found");
+        if (!variable.isBound()) {
+            Interpreter.error(variable.name.line(), " at 'FOR'", "Variable not found");
             System.exit(1);
         }
 
+        Object[] slots = procedureContext.getFrame(variable.getDepth()).getSlots();
         Object to = ExpressionEvaluator.evaluate(statement.getTo(), procedureContext);
         Object by = statement.getBy() != null ? ExpressionEvaluator.evaluate(statement.getBy(), procedureContext)
                                               : null;
+        List<Statement> body = statement.getBody();
+
+        count(variable, slots, to, by, () -> {
+            StatementExecutor.executeAll(body, procedureContext);
+            return !procedureContext.isReturning();
+        });
+    }
 
-        String ident = ((BasicExpression.Literal)((Statement.Assignment) statement.getIndex()).getIdent()).value
-                                                                                              .lexeme();
+    /**
+     * Runs {@code body} once per value of the induction variable, whose start value is already stored in
+     * its slot. The loop ends early once {@code body} returns {@code false}, after a RETURN in it.
+     */
+    public static void count(BasicExpression.Variable variable, Object[] slots, Object to, Object by,
+                             BooleanSupplier body) {
+        int slot = variable.getSlot();
+        Object start = slots[slot];
 
-        if (index instanceof Integer) {
-            List<Integer> range = IntStream.range(Integer.min((int) index, (int) to),
-                                                  Integer.max((int) index, (int) to) < 0 ? Integer.max((int) index, (int) to) - 1
-                                                                                         : Integer.max((int) index, (int) to) + 1)
-                                           .boxed()
-                                           .toList();
-            for (int i = (int) index;
-                 range.contains(i);
-                 i += by != null ? (Integer) by : 1) {
-                for (Statement forStatement : statement.getBody()) {
-                    ApplicationContext.updateVariable(ident, i);
-                    if (procedureContext != null) {
-                        procedureContext.updateVariable(ident, i);
-                    }
-                    StatementExecutor.execute(forStatement, procedureContext);
+        if (start instanceof Integer first && to instanceof Integer last && (by == null || by instanceof Integer)) {
+            int step = by == null ? 1 : (Integer) by;
+            checkStep(step, variable);
+            int index = first;
+            for (long trip = tripCount(first, last, step); trip > 0; trip--) {
+                slots[slot] = index;
+                if (!body.getAsBoolean()) {
+                    return;
                 }
+                index += step;
             }
-        } else if (index instanceof Double) {
-            for (double i = (double) index;
-                 i == (double) to;
-                 i += by != null ? (Double) by : 1.0) {
-                for (Statement forStatement : statement.getBody()) {
-                    ApplicationContext.updateVariable(ident, i);
-                    if (procedureContext != null) {
-                        procedureContext.updateVariable(ident, i);
-                    }
-                    StatementExecutor.execute(forStatement, procedureContext);
+        } else if (start instanceof Character first && to instanceof Character last &&
+                   (by == null || by instanceof Integer)) {
+            int step = by == null ? 1 : (Integer) by;
+            checkStep(step, variable);
+            int index = first;
+            for (long trip = tripCount(first, last, step); trip > 0; trip--) {
+                slots[slot] = (char) index;
+                if (!body.getAsBoolean()) {
+                    return;
                 }
+                index += step;
             }
-        } else if (index instanceof Character) {
-            index = (int)((Character) index);
-            to = (int)((Character) to);
-            List<Integer> range = IntStream.range((int) index, (int) to > 0 ? (int) to + 1 : (int) to - 1)
-                                           .boxed()
-                                           .toList();
-
-            for (int i = (int) index;
-                 range.contains(i);
-                 i += (by != null ? (int) by : 1)) {
-                for (Statement forStatement : statement.getBody()) {
-                    ApplicationContext.updateVariable(ident, i);
-                    if (procedureContext != null) {
-                        procedureContext.updateVariable(ident, i);
-                    }
-                    i = (char) i;
-                    StatementExecutor.execute(forStatement, procedureContext);
+        } else if (start instanceof Number first && to instanceof Number last &&
+                   (start instanceof Double || to instanceof Double || by instanceof Double)) {
+            double origin = first.doubleValue();
+            double step = by == null ? 1.0 : ((Number) by).doubleValue();
+            checkStep(step, variable);
+            double trips = Math.floor((last.doubleValue() - origin) / step) + 1;
+            for (long trip = 0; trip < trips; trip++) {
+                slots[slot] = origin + trip * step;
+                if (!body.getAsBoolean()) {
+                    return;
                 }
             }
         } else {
-            Interpreter.error(0, " at 'FOR'", "Incompatible types");
+            Interpreter.error(variable.name.line(), " at 'FOR'", "Incompatible types");
+            System.exit(1);
+        }
+    }
+
+    private static long tripCount(int first, int last, int step) {
+        if (step > 0) {
+            return first > last ? 0 : ((long) last - first) / step + 1;
+        }
+        return first < last ? 0 : ((long) first - last) / -(long) step + 1;
+    }
+
+    private static void checkStep(double step, BasicExpression.Variable variable) {
+        if (step == 0) {
+            Interpreter.error(variable.name.line(), " at 'FOR'", "BY step must not be zero");
             System.exit(1);
         }
     }
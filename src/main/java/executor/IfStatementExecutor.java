@@ -12,7 +12,7 @@ public class IfStatementExecutor implements Executor<Statement.If> {
     @Override
     public void execute(Statement.If statement, ProcedureContext procedureContext) {
         if ((boolean) ExpressionEvaluator.evaluate(statement.getCondition(), procedureContext)) {
-            statement.getBody().forEach(thenStatement -> StatementExecutor.execute(thenStatement, procedureContext));
+            StatementExecutor.executeAll(statement.getBody(), procedureContext);
         } else {
             Statement.Elsif executableElsifBranch = statement.getElsifBranches()
                                                              .stream()
@@ -23,13 +23,9 @@ public class IfStatementExecutor implements Executor<Statement.If> {
                                                              .orElse(null);
 
             if (executableElsifBranch != null) {
-                executableElsifBranch.getStatements()
-                                     .forEach(
-                                         elseStatement -> StatementExecutor.execute(elseStatement, procedureContext));
+                StatementExecutor.executeAll(executableElsifBranch.getStatements(), procedureContext);
             } else if (statement.getElseBranch() != null) {
-                statement.getElseBranch()
-                         .getStatements()
-                         .forEach(elseStatement -> StatementExecutor.execute(elseStatement, procedureContext));
+                StatementExecutor.executeAll(statement.getElseBranch().getStatements(), procedureContext);
             }
         }
     }
@@ -1,11 +1,24 @@
 package executor;
 
+import ast.BasicExpression;
 import ast.Statement;
+import context.CallSite;
 import context.ProcedureContext;
+import evaluator.ExpressionEvaluator;
+import evaluator.ProcedureCallExpressionEvaluator;
 
 public class ReturnStatementExecutor implements Executor<Statement.Return> {
     @Override
     public void execute(Statement.Return statement, ProcedureContext procedureContext) {
-        return;
+        BasicExpression expression = statement.getExpression();
+        if (expression instanceof BasicExpression.ProcedureCall procedureCall && procedureCall.isTailCall()) {
+            CallSite site = ProcedureCallExpressionEvaluator.resolve(procedureCall, procedureContext);
+            CallStatementExecutor.tailCall(site.getProcedure(), procedureContext.getFrame(site.getDepth()),
+                                           procedureCall.arguments, procedureContext);
+            return;
+        }
+        procedureContext.setResult(expression == null || expression instanceof BasicExpression.Empty
+                                   ? null
+                                   : ExpressionEvaluator.evaluate(expression, procedureContext));
     }
 }
@@ -4,6 +4,7 @@ import ast.Statement;
 import context.ProcedureContext;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class StatementExecutor {
@@ -32,4 +33,13 @@ public class StatementExecutor {
     public static <T extends Statement> void execute(T statement, ProcedureContext procedureContext) {
         executorMap.get(statement.getClass().getName()).execute(statement, procedureContext);
     }
+
+    /**
+     * Executes {@code statements} in order until one of them completes the call with RETURN.
+     */
+    public static void executeAll(List<? extends Statement> statements, ProcedureContext procedureContext) {
+        for (int i = 0, size = statements.size(); i < size && !procedureContext.isReturning(); i++) {
+            execute(statements.get(i), procedureContext);
+        }
+    }
 }
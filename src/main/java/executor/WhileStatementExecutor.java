@@ -1,12 +1,36 @@
 package executor;
 
 import ast.Statement;
+import context.LoopProfile;
 import context.ProcedureContext;
+import evaluator.ExpressionEvaluator;
+import interpreter.Interpreter;
+
+import java.util.List;
 
 public class WhileStatementExecutor implements Executor<Statement.While> {
     @Override
     public void execute(Statement.While statement, ProcedureContext procedureContext) {
-        return;
+        LoopProfile profile = statement.getProfile();
+        List<Statement> body = statement.getBody();
+        profile.enter();
+
+        while (test(statement, procedureContext)) {
+            StatementExecutor.executeAll(body, procedureContext);
+            if (procedureContext.isReturning()) {
+                return;
+            }
+            profile.backedge();
+        }
     }
 
+    private static boolean test(Statement.While statement, ProcedureContext procedureContext) {
+        Object condition = ExpressionEvaluator.evaluate(statement.getCondition(), procedureContext);
+        if (condition instanceof Boolean value) {
+            return value;
+        }
+        Interpreter.error(statement.getLine(), " at 'WHILE'", "Condition must be a boolean expression");
+        System.exit(1);
+        return false;
+    }
 }
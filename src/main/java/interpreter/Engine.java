@@ -0,0 +1,40 @@
+package interpreter;
+
+/**
+ * Execution strategies, selected with {@code --engine=<name>} on the command line.
+ */
+public enum Engine {
+    /**
+     * Walks the AST, dispatching every node through the executor and evaluator maps.
+     */
+    TREE("tree"),
+    /**
+     * Compiles the AST once into linked closures and runs those.
+     */
+    CLOSURE("closure"),
+    /**
+     * Compiles the AST into register bytecode and runs it on {@link vm.VirtualMachine}.
+     * Its call stack is an explicit stack of reusable frames on the heap, so recursion is not limited by the
+     * Java stack.
+     */
+    VM("vm");
+
+    private final String name;
+
+    Engine(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static Engine fromName(String name) {
+        for (Engine engine : values()) {
+            if (engine.name.equals(name)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+}
@@ -1,22 +1,86 @@
 package interpreter;
 
+import analyzer.Scope;
+import analyzer.ScopeResolver;
 import analyzer.SemanticAnalyzer;
 import ast.Statement;
+import compiler.ClosureCompiler;
 import context.ApplicationContext;
+import context.FrameLayout;
+import context.LoopProfile;
+import context.ProcedureContext;
+import exception.SemanticException;
 import executor.MainStatementExecutor;
+import jit.JitCompiler;
+import library.Output;
+import precompiled.CompilationCache;
+import precompiled.ProgramImage;
+import scanner.Source;
 import structure.Block;
+import vm.BytecodeCompiler;
+import vm.Program;
+import vm.VirtualMachine;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Objects;
 
 public class Interpreter {
 
+    public static final String VERSION = "1.0";
+
+    static final long INTERPRETER_STACK_SIZE = 1L << 30;
+
     static boolean hadError = false;
+    static boolean profile = false;
+    static boolean parallelLexing = false;
+    static boolean precompile = false;
+    static Path cacheDirectory = null;
+    static long cacheLimit = CompilationCache.DEFAULT_LIMIT;
+    static Engine engine = Engine.TREE;
 
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.equals("--parallel-lex")) {
+                parallelLexing = true;
+            } else if (arg.equals("--precompile")) {
+                precompile = true;
+            } else if (arg.startsWith("--cache-dir=")) {
+                cacheDirectory = Paths.get(arg.substring("--cache-dir=".length()));
+            } else if (arg.startsWith("--cache-size=")) {
+                try {
+                    cacheLimit = Long.parseLong(arg.substring("--cache-size=".length())) << 20;
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid cache size: " + arg.substring("--cache-size=".length()));
+                    System.exit(64);
+                }
+            } else if (arg.startsWith("--engine=")) {
+                engine = Engine.fromName(arg.substring("--engine=".length()));
+                if (engine == null) {
+                    System.err.println("Unknown engine: " + arg.substring("--engine=".length()));
+                    System.exit(64);
+                }
+            } else if (arg.startsWith("--flush=")) {
+                Output.FlushPolicy flushPolicy = Output.FlushPolicy.fromName(arg.substring("--flush=".length()));
+                if (flushPolicy == null) {
+                    System.err.println("Unknown flush policy: " + arg.substring("--flush=".length()));
+                    System.exit(64);
+                }
+                Output.setFlushPolicy(flushPolicy);
+            } else if (arg.startsWith("--jit-threshold=")) {
+                try {
+                    JitCompiler.setThreshold(Integer.parseInt(arg.substring("--jit-threshold=".length())));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid JIT threshold: " + arg.substring("--jit-threshold=".length()));
+                    System.exit(64);
+                }
+            }
+        }
+
         System.out.println("Modula-2 Interpreter");
         System.out.print("Enter path to file: ");
         java.util.Scanner scanner = new java.util.Scanner(System.in);
@@ -28,39 +92,119 @@ public class Interpreter {
         }
     }
 
-    private static void run(String source) {
-        Block block = Block.readBlock(source);
-        ApplicationContext.initialize(block.getStatementList());
+    private static void run(Block block) {
+        FrameLayout globalLayout = ScopeResolver.resolve(block);
+        ProcedureContext globalContext = ApplicationContext.initializeGlobals(globalLayout,
+                                                                              block.getStatementList());
+        Statement.Main main = (Statement.Main) Objects.requireNonNull(block.getStatementList()
+                                                                           .stream()
+                                                                           .filter(statement -> statement instanceof Statement.Main)
+                                                                           .findFirst()
+                                                                           .orElse(null));
 
-        for (Statement statement : block.getStatementList()) {
-            if (statement != null) {
-                SemanticAnalyzer.analyze(statement, block);
+        try {
+            if (engine == Engine.CLOSURE) {
+                runOnInterpreterStack(() -> new ClosureCompiler().compileMain(main, globalLayout)
+                                                                 .execute(globalContext));
+            } else if (engine == Engine.VM) {
+                Program program = new BytecodeCompiler().compile(block.getStatementList(), main, globalLayout);
+                new VirtualMachine(program).run(program.getEntry());
+            } else {
+                runOnInterpreterStack(() -> new MainStatementExecutor().execute(main, globalContext));
             }
+        } catch (StackOverflowError e) {
+            // The tree and closure engines recurse on the Java stack; the VM keeps its call stack on the heap.
+            error(0, "", "Procedure calls nested too deeply, run with --engine=vm for deep recursion");
+            System.exit(1);
         }
 
-        MainStatementExecutor mainStatementExecutor = new MainStatementExecutor();
-        mainStatementExecutor.execute(
-            (Statement.Main) Objects.requireNonNull(block.getStatementList()
-                                                         .stream()
-                                                         .filter(statement -> statement instanceof Statement.Main)
-                                                         .findFirst()
-                                                         .orElse(null)), null
-        );
-
+        Output.flush();
+        if (profile) {
+            LoopProfile.report(System.err);
+        }
         System.exit(0);
     }
 
+    /**
+     * Runs {@code program} on a thread with a stack of {@link #INTERPRETER_STACK_SIZE}, since the tree and
+     * closure engines need a few Java frames per Modula-2 call. The stack is only reserved; pages are
+     * committed as recursion actually reaches them.
+     */
+    private static void runOnInterpreterStack(Runnable program) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                program.run();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "interpreter", INTERPRETER_STACK_SIZE);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure[0] instanceof RuntimeException e) {
+            throw e;
+        } else if (failure[0] instanceof Error e) {
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the precompiled image next to the source, or else the one in the compilation cache, if it was
+     * built from exactly this source; otherwise goes through the front end and leaves a fresh image in the
+     * cache and, with {@code --precompile}, next to the source.
+     */
     private static void runFile(String path) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
+        Path sourcePath = Paths.get(path);
+        Path imagePath = ProgramImage.pathFor(sourcePath);
+        Source source = Source.map(sourcePath);
+        CompilationCache cache = cacheDirectory != null ? new CompilationCache(cacheDirectory, cacheLimit, VERSION)
+                                                        : null;
+
+        Block block = ProgramImage.load(imagePath, source);
+        if (block == null && cache != null) {
+            block = cache.load(source);
+        }
+        if (block != null) {
+            ApplicationContext.initialize(block.getStatementList());
+        } else {
+            block = analyze(source);
+            if (precompile) {
+                ProgramImage.save(imagePath, source, block.getStatementList());
+            }
+            if (cache != null) {
+                cache.store(source, block.getStatementList());
+            }
+        }
+        run(block);
+    }
+
+    private static Block analyze(Source source) {
+        Block block = Block.readBlock(source, parallelLexing);
+        ApplicationContext.initialize(block.getStatementList());
+
+        List<SemanticException> diagnostics = SemanticAnalyzer.analyze(block, Scope.of(block));
+        if (!diagnostics.isEmpty()) {
+            diagnostics.forEach(diagnostic -> error(diagnostic.getLine(), diagnostic.getWhere(),
+                                                    diagnostic.getMessage()));
+            System.exit(1);
+        }
+        return block;
     }
 
     public static void error(int line, String where, String message) {
         report(line, where, message);
     }
 
+    /**
+     * Prints a diagnostic after flushing the Terminal2 output buffer, so it follows the output that preceded it.
+     */
     private static void report(int line, String where,
                                String message) {
+        Output.flush();
         System.err.println(
             "[line " + line + "] Error" + where + ": " + message);
         hadError = true;
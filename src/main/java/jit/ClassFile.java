@@ -0,0 +1,403 @@
+package jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for the classes emitted by {@link ProcedureCompiler}: one public static field and
+ * public static methods. Classes are written in version 49 so that the verifier infers stack map frames
+ * itself.
+ */
+final class ClassFile {
+
+    private static final int VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final String name;
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+    private final List<String[]> fields = new ArrayList<>();
+    private final List<Object[]> methods = new ArrayList<>();
+
+    ClassFile(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void addField(String fieldName, String descriptor) {
+        fields.add(new String[]{fieldName, descriptor});
+    }
+
+    void addMethod(String methodName, String descriptor, Code code) {
+        methods.add(new Object[]{methodName, descriptor, code});
+    }
+
+    byte[] toByteArray() {
+        int thisClass = classRef(name);
+        int superClass = classRef("java/lang/Object");
+        int codeName = utf8("Code");
+        List<int[]> fieldEntries = new ArrayList<>();
+        for (String[] field : fields) {
+            fieldEntries.add(new int[]{utf8(field[0]), utf8(field[1])});
+        }
+        List<int[]> methodEntries = new ArrayList<>();
+        for (Object[] method : methods) {
+            methodEntries.add(new int[]{utf8((String) method[0]), utf8((String) method[1])});
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+
+            out.writeShort(fieldEntries.size());
+            for (int[] field : fieldEntries) {
+                out.writeShort(ACC_PUBLIC | ACC_STATIC);
+                out.writeShort(field[0]);
+                out.writeShort(field[1]);
+                out.writeShort(0);
+            }
+
+            out.writeShort(methodEntries.size());
+            for (int k = 0; k < methodEntries.size(); k++) {
+                Code code = (Code) methods.get(k)[2];
+                out.writeShort(ACC_PUBLIC | ACC_STATIC);
+                out.writeShort(methodEntries.get(k)[0]);
+                out.writeShort(methodEntries.get(k)[1]);
+                out.writeShort(1);
+                out.writeShort(codeName);
+                out.writeInt(12 + code.length);
+                out.writeShort(code.maxStack);
+                out.writeShort(code.maxLocals);
+                out.writeInt(code.length);
+                out.write(code.bytes, 0, code.length);
+                out.writeShort(0);
+                out.writeShort(0);
+            }
+            out.writeShort(0);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // constant pool
+
+    int utf8(String value) {
+        return entry("U" + value, 1, () -> {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int nameIndex = utf8(internalName);
+        return entry("C" + internalName, 1, () -> {
+            poolOut.writeByte(7);
+            poolOut.writeShort(nameIndex);
+        });
+    }
+
+    int string(String value) {
+        int valueIndex = utf8(value);
+        return entry("S" + value, 1, () -> {
+            poolOut.writeByte(8);
+            poolOut.writeShort(valueIndex);
+        });
+    }
+
+    int integer(int value) {
+        return entry("I" + value, 1, () -> {
+            poolOut.writeByte(3);
+            poolOut.writeInt(value);
+        });
+    }
+
+    int doubleConstant(double value) {
+        return entry("D" + Double.doubleToRawLongBits(value), 2, () -> {
+            poolOut.writeByte(6);
+            poolOut.writeDouble(value);
+        });
+    }
+
+    int fieldRef(String owner, String fieldName, String descriptor) {
+        return memberRef(9, owner, fieldName, descriptor);
+    }
+
+    int methodRef(String owner, String methodName, String descriptor) {
+        return memberRef(10, owner, methodName, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String memberName, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(memberName);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = entry("N" + memberName + ":" + descriptor, 1, () -> {
+            poolOut.writeByte(12);
+            poolOut.writeShort(nameIndex);
+            poolOut.writeShort(descriptorIndex);
+        });
+        return entry(tag + owner + "." + memberName + ":" + descriptor, 1, () -> {
+            poolOut.writeByte(tag);
+            poolOut.writeShort(ownerIndex);
+            poolOut.writeShort(nameAndType);
+        });
+    }
+
+    private int entry(String key, int width, PoolWriter writer) {
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        index = poolSize;
+        poolSize += width;
+        if (poolSize > 0xFFFF) {
+            throw new ProcedureCompiler.Unsupported("constant pool overflow");
+        }
+        entries.put(key, index);
+        return index;
+    }
+
+    @FunctionalInterface
+    private interface PoolWriter {
+        void write() throws IOException;
+    }
+
+    /**
+     * Bytecode of one method. Tracks the operand stack depth of straight-line code to size {@code max_stack};
+     * the estimate may be higher than the real maximum, never lower.
+     */
+    static final class Code {
+
+        private final ClassFile owner;
+        private byte[] bytes = new byte[256];
+        private int length;
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        Code(ClassFile owner, int maxLocals) {
+            this.owner = owner;
+            this.maxLocals = maxLocals;
+        }
+
+        void locals(int count) {
+            maxLocals = Math.max(maxLocals, count);
+        }
+
+        int position() {
+            return length;
+        }
+
+        /**
+         * Emits an instruction without operands that changes the stack depth by {@code delta}.
+         */
+        void op(int opcode, int delta) {
+            u1(opcode);
+            adjust(delta);
+        }
+
+        void resetStack() {
+            stack = 0;
+        }
+
+        void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                u1(Opcodes.ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(Opcodes.BIPUSH);
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(Opcodes.SIPUSH);
+                u2(value);
+            } else {
+                ldc(owner.integer(value));
+            }
+            adjust(1);
+        }
+
+        void dconst(double value) {
+            if (value == 0.0 && Double.doubleToRawLongBits(value) == 0L) {
+                u1(Opcodes.DCONST_0);
+            } else if (value == 1.0) {
+                u1(Opcodes.DCONST_1);
+            } else {
+                u1(Opcodes.LDC2_W);
+                u2(owner.doubleConstant(value));
+            }
+            adjust(2);
+        }
+
+        void sconst(String value) {
+            ldc(owner.string(value));
+            adjust(1);
+        }
+
+        private void ldc(int index) {
+            if (index <= 0xFF) {
+                u1(Opcodes.LDC);
+                u1(index);
+            } else {
+                u1(Opcodes.LDC_W);
+                u2(index);
+            }
+        }
+
+        void local(int opcode, int index, int delta) {
+            if (index > 0xFF) {
+                u1(Opcodes.WIDE);
+                u1(opcode);
+                u2(index);
+            } else {
+                u1(opcode);
+                u1(index);
+            }
+            adjust(delta);
+        }
+
+        void iinc(int index, int amount) {
+            if (index > 0xFF || amount < Byte.MIN_VALUE || amount > Byte.MAX_VALUE) {
+                u1(Opcodes.WIDE);
+                u1(Opcodes.IINC);
+                u2(index);
+                u2(amount);
+            } else {
+                u1(Opcodes.IINC);
+                u1(index);
+                u1(amount);
+            }
+        }
+
+        void type(int opcode, String internalName) {
+            u1(opcode);
+            u2(owner.classRef(internalName));
+            adjust(opcode == Opcodes.NEW ? 1 : 0);
+        }
+
+        void getStatic(String fieldOwner, String fieldName, String descriptor) {
+            u1(Opcodes.GETSTATIC);
+            u2(owner.fieldRef(fieldOwner, fieldName, descriptor));
+            adjust(slots(descriptor));
+        }
+
+        void invokeStatic(String methodOwner, String methodName, String descriptor) {
+            u1(Opcodes.INVOKESTATIC);
+            u2(owner.methodRef(methodOwner, methodName, descriptor));
+            adjust(returnSlots(descriptor) - argumentSlots(descriptor));
+        }
+
+        void invokeVirtual(String methodOwner, String methodName, String descriptor) {
+            u1(Opcodes.INVOKEVIRTUAL);
+            u2(owner.methodRef(methodOwner, methodName, descriptor));
+            adjust(returnSlots(descriptor) - argumentSlots(descriptor) - 1);
+        }
+
+        void jump(int opcode, Label label, int delta) {
+            int at = length;
+            u1(opcode);
+            adjust(delta);
+            if (label.position >= 0) {
+                u2(label.position - at);
+            } else {
+                label.fixups.add(at);
+                u2(0);
+            }
+        }
+
+        void bind(Label label) {
+            label.position = length;
+            for (int at : label.fixups) {
+                int offset = length - at;
+                if (offset > Short.MAX_VALUE) {
+                    throw new ProcedureCompiler.Unsupported("method too large");
+                }
+                bytes[at + 1] = (byte) (offset >> 8);
+                bytes[at + 2] = (byte) offset;
+            }
+            label.fixups.clear();
+        }
+
+        private void adjust(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u1(int value) {
+            if (length + 1 > bytes.length) {
+                if (bytes.length >= Short.MAX_VALUE) {
+                    throw new ProcedureCompiler.Unsupported("method too large");
+                }
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void u2(int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+
+        private static int slots(String descriptor) {
+            char type = descriptor.charAt(0);
+            return type == 'V' ? 0 : type == 'J' || type == 'D' ? 2 : 1;
+        }
+
+        private static int returnSlots(String descriptor) {
+            return slots(descriptor.substring(descriptor.indexOf(')') + 1));
+        }
+
+        private static int argumentSlots(String descriptor) {
+            int count = 0;
+            for (int k = 1; descriptor.charAt(k) != ')'; k++) {
+                char type = descriptor.charAt(k);
+                if (type == 'J' || type == 'D') {
+                    count += 2;
+                } else {
+                    count++;
+                    while (descriptor.charAt(k) == '[') {
+                        k++;
+                    }
+                    if (descriptor.charAt(k) == 'L') {
+                        k = descriptor.indexOf(';', k);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Branch target; forward references are patched when the label is bound.
+     */
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> fixups = new ArrayList<>();
+    }
+}
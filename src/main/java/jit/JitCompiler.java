@@ -0,0 +1,58 @@
+package jit;
+
+import ast.Statement;
+import context.InvocationProfile;
+import context.ProcedureContext;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Second execution tier of the tree walker: a procedure invoked {@link #getThreshold()} times is translated to
+ * JVM bytecode, defined as a hidden class and from then on called through a {@link MethodHandle}, so HotSpot
+ * optimizes it like any Java method. Procedures the translator cannot handle stay interpreted.
+ */
+public class JitCompiler {
+
+    private static final MethodType ENTRY = MethodType.methodType(void.class, ProcedureContext.class);
+
+    private static int threshold = 100;
+
+    private JitCompiler() {
+    }
+
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the invocation count that triggers compilation; zero or less disables the tier.
+     */
+    public static void setThreshold(int threshold) {
+        JitCompiler.threshold = threshold;
+    }
+
+    /**
+     * Compiles {@code procedure} and installs the result in its profile; returns {@code null} and marks the
+     * profile rejected when the procedure cannot be compiled.
+     */
+    public static MethodHandle compile(Statement.Procedure procedure) {
+        InvocationProfile profile = procedure.getProfile();
+        try {
+            ProcedureCompiler compiler = new ProcedureCompiler(procedure,
+                                                               "jit/Procedure$" + procedure.getName().lexeme());
+            byte[] bytes = compiler.compile();
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            Class<?> compiled = lookup.lookupClass();
+            lookup.findStaticVarHandle(compiled, ProcedureCompiler.CONSTANTS, Object[].class)
+                  .set(compiler.getConstants());
+            MethodHandle target = lookup.findStatic(compiled, ProcedureCompiler.METHOD, ENTRY);
+            profile.setCompiledCode(target);
+            return target;
+        } catch (ProcedureCompiler.Unsupported | ReflectiveOperationException | LinkageError e) {
+            profile.reject();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package jit;
+
+import ast.BasicExpression;
+import ast.Statement;
+import context.ProcedureContext;
+import executor.CallStatementExecutor;
+import interpreter.Interpreter;
+import library.Native;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Entry points called from generated code for everything that is not a plain JVM instruction.
+ */
+public final class JitRuntime {
+
+    private JitRuntime() {
+    }
+
+    public static int toInt(Object value) {
+        if (value instanceof Integer number) {
+            return number;
+        } else if (value instanceof Character character) {
+            return character;
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        } else if (value instanceof String text && text.length() == 1) {
+            return text.charAt(0);
+        }
+        Interpreter.error(-1, "", "Incompatible types");
+        System.exit(1);
+        return 0;
+    }
+
+    public static double toReal(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        } else if (value instanceof Integer number) {
+            return number;
+        }
+        Interpreter.error(-1, "", "Incompatible types");
+        System.exit(1);
+        return 0;
+    }
+
+    public static boolean toCondition(Object value, int line) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        Interpreter.error(line, "", "Condition must be a boolean expression");
+        System.exit(1);
+        return false;
+    }
+
+    public static Object binary(Object node, Object left, Object right) {
+        BasicExpression.Binary binary = (BasicExpression.Binary) node;
+        return binary.getOperation().apply(binary, left, right);
+    }
+
+    public static Object negate(Object value) {
+        if (value instanceof Boolean bool) {
+            return !bool;
+        } else if (value instanceof Double number) {
+            return -number;
+        } else if (value instanceof Integer number) {
+            return -number;
+        }
+        Interpreter.error(-1, "", "Unknown type for negation");
+        System.exit(1);
+        return null;
+    }
+
+    public static boolean contains(Object labels, int value) {
+        return ((Set<?>) labels).contains(value);
+    }
+
+    public static long tripCount(int first, int last, int step, int line) {
+        checkStep(step, line);
+        if (step > 0) {
+            return first > last ? 0 : ((long) last - first) / step + 1;
+        }
+        return first < last ? 0 : ((long) first - last) / -(long) step + 1;
+    }
+
+    public static long tripCount(double origin, double last, double step, int line) {
+        checkStep(step, line);
+        double trips = Math.floor((last - origin) / step) + 1;
+        return trips <= 0 ? 0 : (long) trips;
+    }
+
+    private static void checkStep(double step, int line) {
+        if (step == 0) {
+            Interpreter.error(line, " at 'FOR'", "BY step must not be zero");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Calls a user procedure declared {@code depth} static links above the compiled procedure's frame.
+     */
+    public static Object call(ProcedureContext context, int depth, Object procedure, Object[] arguments) {
+        return CallStatementExecutor.enter((Statement.Procedure) procedure, context.getFrame(depth), arguments);
+    }
+
+    /**
+     * Hands a tail call of a user procedure to the trampoline in {@link CallStatementExecutor#enter}.
+     */
+    public static void tailCall(ProcedureContext context, int depth, Object procedure, Object[] arguments) {
+        Statement.Procedure callee = (Statement.Procedure) procedure;
+        int count = Math.min(arguments.length, callee.getLayout().getParameterCount());
+        System.arraycopy(arguments, 0, context.getTailArguments(count), 0, count);
+        context.setTailCall(callee, context.getFrame(depth), count);
+    }
+
+    public static Object nativeCall(String name, Object[] arguments) {
+        return Native.call(name, Arrays.asList(arguments));
+    }
+
+    public static void terminal(Object call, Object[] arguments) {
+        CallStatementExecutor.callTerminal2((Statement.Call) call, Arrays.asList(arguments));
+    }
+}
@@ -0,0 +1,1042 @@
+package jit;
+
+import ast.BasicExpression;
+import ast.Operator;
+import ast.Statement;
+import context.ApplicationContext;
+import context.FrameLayout;
+import evaluator.BinaryOperation;
+import evaluator.LiteralExpressionEvaluator;
+import library.Native;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates one resolved procedure into a class with a single method {@code static void run(ProcedureContext)}.
+ * The procedure's own variables live in JVM locals typed after their declarations (INTEGER, CARDINAL, CHAR
+ * and BOOLEAN as {@code int}, REAL as {@code double}); parameters are read from the frame on entry, outer
+ * variables go through the frame's static links. Procedures that declare nested procedures, and statements
+ * the translator does not know, raise {@link Unsupported} so the procedure stays interpreted.
+ */
+final class ProcedureCompiler {
+
+    static final String METHOD = "run";
+    static final String METHOD_DESCRIPTOR = "(Lcontext/ProcedureContext;)V";
+    static final String CONSTANTS = "K";
+
+    private static final String CONTEXT = "context/ProcedureContext";
+    private static final String ARRAY = "structure/Array";
+    private static final String STORAGE = "structure/ArrayStorage";
+    private static final String RUNTIME = "jit/JitRuntime";
+    private static final String TERMINAL = "library/Terminal2";
+    private static final String LOOP_PROFILE = "context/LoopProfile";
+    private static final String OBJECT_ARRAY = "[Ljava/lang/Object;";
+
+    private static final int INTEGER = 0;
+    private static final int CHAR = 1;
+    private static final int BOOLEAN = 2;
+    private static final int REAL = 3;
+    private static final int OBJECT = 4;
+    private static final int LONG = 5;
+
+    private static final int CONTEXT_LOCAL = 0;
+    private static final int SLOTS_LOCAL = 1;
+
+    /**
+     * Thrown for constructs the translator does not handle; never escapes {@link JitCompiler}.
+     */
+    static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    private final Statement.Procedure procedure;
+    private final FrameLayout layout;
+    private final ClassFile classFile;
+    private final ClassFile.Code code;
+    private final List<Object> constants = new ArrayList<>();
+    private final int[] kinds;
+    private final int[] locals;
+    private int nextLocal;
+    private final ClassFile.Label body = new ClassFile.Label();
+
+    ProcedureCompiler(Statement.Procedure procedure, String className) {
+        this.procedure = procedure;
+        this.layout = procedure.getLayout();
+        this.classFile = new ClassFile(className);
+        this.kinds = new int[layout.getSize()];
+        this.locals = new int[layout.getSize()];
+        this.nextLocal = SLOTS_LOCAL + 1;
+        for (int slot = 0; slot < kinds.length; slot++) {
+            kinds[slot] = slotKind(layout, slot);
+            locals[slot] = nextLocal;
+            nextLocal += kinds[slot] == REAL ? 2 : 1;
+        }
+        this.code = new ClassFile.Code(classFile, nextLocal);
+    }
+
+    byte[] compile() {
+        if (layout.declaresProcedures()) {
+            throw new Unsupported("nested procedures");
+        }
+        prologue();
+        code.bind(body);
+        for (Statement statement : layout.getStatements()) {
+            statement(statement);
+        }
+        code.op(Opcodes.RETURN, 0);
+
+        classFile.addField(CONSTANTS, OBJECT_ARRAY);
+        classFile.addMethod(METHOD, METHOD_DESCRIPTOR, code);
+        return classFile.toByteArray();
+    }
+
+    Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    private void prologue() {
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        code.invokeVirtual(CONTEXT, "getSlots", "()" + OBJECT_ARRAY);
+        code.local(Opcodes.ASTORE, SLOTS_LOCAL, -1);
+
+        int parameterCount = layout.getParameterCount();
+        for (int slot = 0; slot < kinds.length; slot++) {
+            int kind = kinds[slot];
+            if (layout.isArray(slot) || slot < parameterCount || kind == OBJECT) {
+                code.local(Opcodes.ALOAD, SLOTS_LOCAL, 1);
+                code.iconst(slot);
+                code.op(Opcodes.AALOAD, -1);
+                if (layout.isArray(slot)) {
+                    code.type(Opcodes.CHECKCAST, ARRAY);
+                } else {
+                    coerce(OBJECT, kind);
+                }
+            } else if (kind == REAL) {
+                code.dconst(0.0);
+            } else {
+                code.iconst(0);
+            }
+            store(kind, locals[slot]);
+        }
+        code.resetStack();
+    }
+
+    // statements
+
+    private void block(List<Statement> statements) {
+        if (statements != null) {
+            statements.forEach(this::statement);
+        }
+    }
+
+    private void statement(Statement statement) {
+        int savedLocal = nextLocal;
+
+        if (statement instanceof Statement.Assignment assignment) {
+            assignment(assignment);
+        } else if (statement instanceof Statement.Call call) {
+            call(call);
+        } else if (statement instanceof Statement.If ifStatement) {
+            ifStatement(ifStatement);
+        } else if (statement instanceof Statement.While whileStatement) {
+            whileStatement(whileStatement);
+        } else if (statement instanceof Statement.For forStatement) {
+            forStatement(forStatement);
+        } else if (statement instanceof Statement.Case caseStatement) {
+            caseStatement(caseStatement);
+        } else if (statement instanceof Statement.Const constant) {
+            int slot = constant.getSlot();
+            expressionAs(constant.getInitializer(), kinds[slot]);
+            store(kinds[slot], locals[slot]);
+        } else if (statement instanceof Statement.Return returnStatement) {
+            returnStatement(returnStatement);
+        } else if (!(statement instanceof Statement.Var) && !(statement instanceof Statement.VarArray)) {
+            throw new Unsupported(statement.getClass().getSimpleName());
+        }
+
+        code.resetStack();
+        nextLocal = savedLocal;
+    }
+
+    /**
+     * Stores the result in the frame, where the caller picks it up after the compiled method returns.
+     */
+    private void returnStatement(Statement.Return returnStatement) {
+        BasicExpression expression = returnStatement.getExpression();
+        if (expression instanceof BasicExpression.ProcedureCall procedureCall && procedureCall.isTailCall() &&
+            findProcedureDepth(procedureCall.name.lexeme()) > 0) {
+            tailCall(procedureCall.name.lexeme(), procedureCall.arguments);
+            return;
+        }
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        if (expression == null || expression instanceof BasicExpression.Empty) {
+            code.op(Opcodes.ACONST_NULL, 1);
+        } else {
+            expressionAs(expression, OBJECT);
+        }
+        code.invokeVirtual(CONTEXT, "setResult", "(Ljava/lang/Object;)V");
+        code.op(Opcodes.RETURN, 0);
+    }
+
+    private void assignment(Statement.Assignment assignment) {
+        if (assignment.getIdent() instanceof BasicExpression.Variable variable) {
+            if (!variable.isBound()) {
+                throw new Unsupported("unresolved variable");
+            }
+            storeVariable(variable.getDepth(), variable.getSlot(), assignment.getExpression());
+            return;
+        }
+
+        BasicExpression.ArrayVariable arrayVariable = (BasicExpression.ArrayVariable) assignment.getIdent();
+        int elementKind = elementKind(arrayVariable);
+        pushArray(arrayVariable);
+        code.invokeVirtual(ARRAY, "getStorage", "()L" + STORAGE + ";");
+        offset(arrayVariable);
+        expressionAs(assignment.getExpression(), elementKind);
+        switch (elementKind) {
+            case REAL -> code.invokeVirtual(STORAGE, "setReal", "(ID)V");
+            case OBJECT -> code.invokeVirtual(STORAGE, "set", "(ILjava/lang/Object;)V");
+            default -> code.invokeVirtual(STORAGE, "setInt", "(II)V");
+        }
+    }
+
+    /**
+     * Evaluates {@code expression} into the slot {@code depth} static links up. Outer frames hold boxed
+     * values, so the value is boxed after its own type, as the interpreter would store it.
+     */
+    private void storeVariable(int depth, int slot, BasicExpression expression) {
+        if (depth == 0) {
+            expressionAs(expression, kinds[slot]);
+            store(kinds[slot], locals[slot]);
+            return;
+        }
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        code.iconst(depth);
+        code.iconst(slot);
+        int kind = expression(expression);
+        if (kind == INTEGER && slotKind(layoutAt(depth), slot) == REAL) {
+            coerce(INTEGER, REAL);
+            kind = REAL;
+        }
+        coerce(kind, OBJECT);
+        code.invokeVirtual(CONTEXT, "set", "(IILjava/lang/Object;)V");
+    }
+
+    /**
+     * Stores the value on top of the stack, of the given kind, into a variable.
+     */
+    private void storeTop(BasicExpression.Variable variable, int kind) {
+        int depth = variable.getDepth();
+        int slot = variable.getSlot();
+        if (depth == 0) {
+            coerce(kind, kinds[slot]);
+            store(kinds[slot], locals[slot]);
+            return;
+        }
+        coerce(kind, OBJECT);
+        int value = temp(OBJECT);
+        code.local(Opcodes.ASTORE, value, -1);
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        code.iconst(depth);
+        code.iconst(slot);
+        code.local(Opcodes.ALOAD, value, 1);
+        code.invokeVirtual(CONTEXT, "set", "(IILjava/lang/Object;)V");
+    }
+
+    private void call(Statement.Call call) {
+        String name = call.getProcedureName().lexeme();
+        List<BasicExpression> arguments = call.getArguments();
+
+        if (ApplicationContext.imports.contains(name)) {
+            terminal(call, name, arguments);
+        } else if (Native.supportedProcedures.contains(name)) {
+            boolean step = name.equals("INC") || name.equals("DEC");
+            if (step && !arguments.isEmpty() && arguments.get(0) instanceof BasicExpression.Variable variable &&
+                variable.isBound() && variable.getDepth() == 0 && kinds[variable.getSlot()] == INTEGER) {
+                int local = locals[variable.getSlot()];
+                if (arguments.size() == 1) {
+                    code.iinc(local, name.equals("INC") ? 1 : -1);
+                } else {
+                    code.local(Opcodes.ILOAD, local, 1);
+                    expressionAs(arguments.get(1), INTEGER);
+                    code.op(name.equals("INC") ? Opcodes.IADD : Opcodes.ISUB, -1);
+                    code.local(Opcodes.ISTORE, local, -1);
+                }
+                return;
+            }
+            nativeCall(name, arguments);
+            if (step && arguments.get(0) instanceof BasicExpression.Variable variable && variable.isBound()) {
+                storeTop(variable, OBJECT);
+            } else {
+                code.op(Opcodes.POP, -1);
+            }
+        } else if (findProcedureDepth(name) > 0 && call.isTailCall()) {
+            tailCall(name, arguments);
+        } else if (findProcedureDepth(name) > 0) {
+            invoke(name, arguments);
+            code.op(Opcodes.POP, -1);
+        } else {
+            throw new Unsupported("unknown procedure " + name);
+        }
+    }
+
+    private void terminal(Statement.Call call, String name, List<BasicExpression> arguments) {
+        int[] argumentKinds = arguments.stream().mapToInt(this::staticKind).toArray();
+        switch (name) {
+            case "WriteLn" -> {
+                if (arguments.isEmpty()) {
+                    code.invokeStatic(TERMINAL, "WriteLn", "()V");
+                    return;
+                }
+            }
+            case "WriteString" -> {
+                if (arguments.size() == 1 && argumentKinds[0] == OBJECT) {
+                    expressionAs(arguments.get(0), OBJECT);
+                    code.type(Opcodes.CHECKCAST, "java/lang/String");
+                    code.invokeStatic(TERMINAL, "WriteString", "(Ljava/lang/String;)V");
+                    return;
+                }
+            }
+            case "WriteChar" -> {
+                if (arguments.size() == 1 && (argumentKinds[0] == CHAR || argumentKinds[0] == INTEGER)) {
+                    expressionAs(arguments.get(0), argumentKinds[0]);
+                    code.op(Opcodes.I2C, 0);
+                    code.invokeStatic(TERMINAL, "WriteChar", "(C)V");
+                    return;
+                }
+            }
+            case "WriteInt", "WriteCard" -> {
+                if (arguments.size() == 2 && argumentKinds[0] == INTEGER && argumentKinds[1] == INTEGER) {
+                    expressionAs(arguments.get(0), INTEGER);
+                    expressionAs(arguments.get(1), INTEGER);
+                    code.invokeStatic(TERMINAL, name, "(II)V");
+                    return;
+                }
+            }
+            case "WriteReal" -> {
+                if (arguments.size() == 2 && argumentKinds[0] == REAL && argumentKinds[1] == INTEGER) {
+                    expressionAs(arguments.get(0), REAL);
+                    expressionAs(arguments.get(1), INTEGER);
+                    code.invokeStatic(TERMINAL, name, "(DI)V");
+                    return;
+                }
+            }
+            default -> {
+            }
+        }
+        pushConstant(call);
+        argumentArray(arguments);
+        code.invokeStatic(RUNTIME, "terminal", "(Ljava/lang/Object;" + OBJECT_ARRAY + ")V");
+    }
+
+    private void nativeCall(String name, List<BasicExpression> arguments) {
+        code.sconst(name);
+        argumentArray(arguments);
+        code.invokeStatic(RUNTIME, "nativeCall", "(Ljava/lang/String;" + OBJECT_ARRAY + ")Ljava/lang/Object;");
+    }
+
+    private void invoke(String name, List<BasicExpression> arguments) {
+        int depth = findProcedureDepth(name);
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        code.iconst(depth);
+        pushConstant(layoutAt(depth).getProcedure(name));
+        argumentArray(arguments);
+        code.invokeStatic(RUNTIME, "call",
+                          "(L" + CONTEXT + ";ILjava/lang/Object;" + OBJECT_ARRAY + ")Ljava/lang/Object;");
+    }
+
+    /**
+     * A self tail call becomes a jump back to the start of the body with the parameters reassigned and the
+     * other locals cleared as on entry; any other tail call is left to the caller of the compiled method.
+     */
+    private void tailCall(String name, List<BasicExpression> arguments) {
+        int depth = findProcedureDepth(name);
+        if (layoutAt(depth).getProcedure(name) != procedure) {
+            code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+            code.iconst(depth);
+            pushConstant(layoutAt(depth).getProcedure(name));
+            argumentArray(arguments);
+            code.invokeStatic(RUNTIME, "tailCall", "(L" + CONTEXT + ";ILjava/lang/Object;" + OBJECT_ARRAY + ")V");
+            code.op(Opcodes.RETURN, 0);
+            return;
+        }
+
+        int count = Math.min(arguments.size(), layout.getParameterCount());
+        int[] values = new int[count];
+        for (int slot = 0; slot < count; slot++) {
+            values[slot] = temp(kinds[slot]);
+            expressionAs(arguments.get(slot), kinds[slot]);
+            store(kinds[slot], values[slot]);
+        }
+        for (int slot = 0; slot < kinds.length; slot++) {
+            if (slot < count) {
+                load(kinds[slot], values[slot]);
+            } else if (kinds[slot] == OBJECT) {
+                code.op(Opcodes.ACONST_NULL, 1);
+            } else if (kinds[slot] == REAL) {
+                code.dconst(0.0);
+            } else {
+                code.iconst(0);
+            }
+            store(kinds[slot], locals[slot]);
+        }
+        code.jump(Opcodes.GOTO, body, 0);
+    }
+
+    private void argumentArray(List<BasicExpression> arguments) {
+        code.iconst(arguments.size());
+        code.type(Opcodes.ANEWARRAY, "java/lang/Object");
+        for (int k = 0; k < arguments.size(); k++) {
+            code.op(Opcodes.DUP, 1);
+            code.iconst(k);
+            expressionAs(arguments.get(k), OBJECT);
+            code.op(Opcodes.AASTORE, -3);
+        }
+    }
+
+    private void ifStatement(Statement.If ifStatement) {
+        ClassFile.Label end = new ClassFile.Label();
+        ClassFile.Label next = new ClassFile.Label();
+        branchIfFalse(ifStatement.getCondition(), next, ifStatement.getLine());
+        block(ifStatement.getBody());
+        code.jump(Opcodes.GOTO, end, 0);
+        code.bind(next);
+        for (Statement.Elsif elsif : ifStatement.getElsifBranches()) {
+            next = new ClassFile.Label();
+            branchIfFalse(elsif.getCondition(), next, elsif.getLine());
+            block(elsif.getStatements());
+            code.jump(Opcodes.GOTO, end, 0);
+            code.bind(next);
+        }
+        if (ifStatement.getElseBranch() != null) {
+            block(ifStatement.getElseBranch().getStatements());
+        }
+        code.bind(end);
+    }
+
+    private void whileStatement(Statement.While whileStatement) {
+        pushConstant(whileStatement.getProfile());
+        code.type(Opcodes.CHECKCAST, LOOP_PROFILE);
+        code.invokeVirtual(LOOP_PROFILE, "enter", "()V");
+
+        ClassFile.Label top = new ClassFile.Label();
+        ClassFile.Label exit = new ClassFile.Label();
+        code.bind(top);
+        branchIfFalse(whileStatement.getCondition(), exit, whileStatement.getLine());
+        code.resetStack();
+        block(whileStatement.getBody());
+        pushConstant(whileStatement.getProfile());
+        code.type(Opcodes.CHECKCAST, LOOP_PROFILE);
+        code.invokeVirtual(LOOP_PROFILE, "backedge", "()V");
+        code.jump(Opcodes.GOTO, top, 0);
+        code.bind(exit);
+    }
+
+    private void forStatement(Statement.For forStatement) {
+        Statement.Assignment index = (Statement.Assignment) forStatement.getIndex();
+        BasicExpression.Variable variable = (BasicExpression.Variable) index.getIdent();
+        int line = forStatement.getLine();
+        if (!variable.isBound()) {
+            throw new Unsupported("unresolved loop variable");
+        }
+        assignment(index);
+        code.resetStack();
+
+        int kind = slotKind(layoutAt(variable.getDepth()), variable.getSlot());
+        ClassFile.Label top = new ClassFile.Label();
+        ClassFile.Label exit = new ClassFile.Label();
+        int trips = temp(LONG);
+
+        if (kind == INTEGER || kind == CHAR) {
+            int induction = temp(INTEGER);
+            expressionAs(variable, kind);
+            code.local(Opcodes.ISTORE, induction, -1);
+            int by = temp(INTEGER);
+            if (forStatement.getBy() != null) {
+                expressionAs(forStatement.getBy(), INTEGER);
+            } else {
+                code.iconst(1);
+            }
+            code.local(Opcodes.ISTORE, by, -1);
+
+            code.local(Opcodes.ILOAD, induction, 1);
+            expressionAs(forStatement.getTo(), kind);
+            code.local(Opcodes.ILOAD, by, 1);
+            code.iconst(line);
+            code.invokeStatic(RUNTIME, "tripCount", "(IIII)J");
+            code.local(Opcodes.LSTORE, trips, -2);
+            code.local(Opcodes.LLOAD, trips, 2);
+            code.op(Opcodes.LCONST_0, 2);
+            code.op(Opcodes.LCMP, -3);
+            code.jump(Opcodes.IFLE, exit, -1);
+            code.resetStack();
+
+            code.bind(top);
+            code.local(Opcodes.ILOAD, induction, 1);
+            storeTop(variable, kind);
+            code.resetStack();
+            block(forStatement.getBody());
+            code.local(Opcodes.ILOAD, induction, 1);
+            code.local(Opcodes.ILOAD, by, 1);
+            code.op(Opcodes.IADD, -1);
+            code.local(Opcodes.ISTORE, induction, -1);
+        } else if (kind == REAL) {
+            int origin = temp(REAL);
+            expressionAs(variable, REAL);
+            code.local(Opcodes.DSTORE, origin, -2);
+            int by = temp(REAL);
+            if (forStatement.getBy() != null) {
+                expressionAs(forStatement.getBy(), REAL);
+            } else {
+                code.dconst(1.0);
+            }
+            code.local(Opcodes.DSTORE, by, -2);
+            int counter = temp(LONG);
+            code.op(Opcodes.LCONST_0, 2);
+            code.local(Opcodes.LSTORE, counter, -2);
+
+            code.local(Opcodes.DLOAD, origin, 2);
+            expressionAs(forStatement.getTo(), REAL);
+            code.local(Opcodes.DLOAD, by, 2);
+            code.iconst(line);
+            code.invokeStatic(RUNTIME, "tripCount", "(DDDI)J");
+            code.local(Opcodes.LSTORE, trips, -2);
+            code.local(Opcodes.LLOAD, trips, 2);
+            code.op(Opcodes.LCONST_0, 2);
+            code.op(Opcodes.LCMP, -3);
+            code.jump(Opcodes.IFLE, exit, -1);
+            code.resetStack();
+
+            code.bind(top);
+            code.local(Opcodes.DLOAD, origin, 2);
+            code.local(Opcodes.LLOAD, counter, 2);
+            code.op(Opcodes.L2D, 0);
+            code.local(Opcodes.DLOAD, by, 2);
+            code.op(Opcodes.DMUL, -2);
+            code.op(Opcodes.DADD, -2);
+            storeTop(variable, REAL);
+            code.resetStack();
+            block(forStatement.getBody());
+            code.local(Opcodes.LLOAD, counter, 2);
+            code.op(Opcodes.LCONST_1, 2);
+            code.op(Opcodes.LADD, -2);
+            code.local(Opcodes.LSTORE, counter, -2);
+        } else {
+            throw new Unsupported("loop variable type");
+        }
+        code.local(Opcodes.LLOAD, trips, 2);
+        code.op(Opcodes.LCONST_1, 2);
+        code.op(Opcodes.LSUB, -2);
+        code.local(Opcodes.LSTORE, trips, -2);
+        code.local(Opcodes.LLOAD, trips, 2);
+        code.op(Opcodes.LCONST_0, 2);
+        code.op(Opcodes.LCMP, -3);
+        code.jump(Opcodes.IFGT, top, -1);
+        code.bind(exit);
+    }
+
+    private void caseStatement(Statement.Case caseStatement) {
+        int selector = temp(INTEGER);
+        expressionAs(caseStatement.getSelector(), INTEGER);
+        code.local(Opcodes.ISTORE, selector, -1);
+        int executed = temp(BOOLEAN);
+        code.iconst(0);
+        code.local(Opcodes.ISTORE, executed, -1);
+
+        for (Statement.CaseBranch branch : caseStatement.getBranches()) {
+            ClassFile.Label next = new ClassFile.Label();
+            pushConstant(branch.getRange());
+            code.local(Opcodes.ILOAD, selector, 1);
+            code.invokeStatic(RUNTIME, "contains", "(Ljava/lang/Object;I)Z");
+            code.jump(Opcodes.IFEQ, next, -1);
+            code.resetStack();
+            block(branch.getBody());
+            code.iconst(1);
+            code.local(Opcodes.ISTORE, executed, -1);
+            code.bind(next);
+        }
+        ClassFile.Label end = new ClassFile.Label();
+        code.local(Opcodes.ILOAD, executed, 1);
+        code.jump(Opcodes.IFNE, end, -1);
+        block(caseStatement.getDefaultBranch());
+        code.bind(end);
+    }
+
+    // expressions
+
+    /**
+     * Jumps to {@code target} unless the condition holds; comparisons of primitive operands branch directly
+     * on the operands instead of materializing a boolean.
+     */
+    private void branchIfFalse(BasicExpression condition, ClassFile.Label target, int line) {
+        if (condition instanceof BasicExpression.Grouping grouping) {
+            branchIfFalse(grouping.expression, target, line);
+            return;
+        }
+        if (condition instanceof BasicExpression.Binary binary && binary.getOperator().isComparison()) {
+            int operandKind = operandKind(binary);
+            if (operandKind != OBJECT) {
+                compareOperands(binary, operandKind);
+                code.jump(negate(comparisonBranch(binary.getOperator(), operandKind)), target,
+                          operandKind == REAL ? -1 : -2);
+                return;
+            }
+        }
+        int kind = expression(condition);
+        if (kind == OBJECT) {
+            code.iconst(line);
+            code.invokeStatic(RUNTIME, "toCondition", "(Ljava/lang/Object;I)Z");
+        } else if (kind != BOOLEAN) {
+            throw new Unsupported("non-boolean condition");
+        }
+        code.jump(Opcodes.IFEQ, target, -1);
+    }
+
+    private void expressionAs(BasicExpression expression, int kind) {
+        coerce(expression(expression), kind);
+    }
+
+    /**
+     * Pushes the value of {@code expression} and returns its kind; always agrees with {@link #staticKind}.
+     */
+    private int expression(BasicExpression expression) {
+        if (expression instanceof BasicExpression.Literal literal) {
+            return constant(literal.getConstantValue());
+        } else if (expression instanceof BasicExpression.Variable variable) {
+            return variable(variable);
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            return expression(grouping.expression);
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            return binary(binary);
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            int kind = expression(negation.getNegatedValue());
+            switch (kind) {
+                case INTEGER -> code.op(Opcodes.INEG, 0);
+                case BOOLEAN -> {
+                    code.iconst(1);
+                    code.op(Opcodes.IXOR, -1);
+                }
+                case REAL -> code.op(Opcodes.DNEG, 0);
+                case OBJECT -> code.invokeStatic(RUNTIME, "negate", "(Ljava/lang/Object;)Ljava/lang/Object;");
+                default -> throw new Unsupported("negation of CHAR");
+            }
+            return kind;
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            int elementKind = elementKind(arrayVariable);
+            pushArray(arrayVariable);
+            code.invokeVirtual(ARRAY, "getStorage", "()L" + STORAGE + ";");
+            offset(arrayVariable);
+            switch (elementKind) {
+                case REAL -> code.invokeVirtual(STORAGE, "getReal", "(I)D");
+                case OBJECT -> code.invokeVirtual(STORAGE, "get", "(I)Ljava/lang/Object;");
+                default -> code.invokeVirtual(STORAGE, "getInt", "(I)I");
+            }
+            return elementKind;
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            return procedureCall(procedureCall);
+        }
+        throw new Unsupported("expression " + expression);
+    }
+
+    private int variable(BasicExpression.Variable variable) {
+        if (variable.isBound()) {
+            int depth = variable.getDepth();
+            int slot = variable.getSlot();
+            if (depth == 0) {
+                load(kinds[slot], locals[slot]);
+                return kinds[slot];
+            }
+            FrameLayout scope = layoutAt(depth);
+            int kind = slotKind(scope, slot);
+            code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+            code.iconst(depth);
+            code.iconst(slot);
+            code.invokeVirtual(CONTEXT, "get", "(II)Ljava/lang/Object;");
+            if (scope.isArray(slot)) {
+                code.type(Opcodes.CHECKCAST, ARRAY);
+            } else {
+                coerce(OBJECT, kind);
+            }
+            return kind;
+        }
+        return constant(LiteralExpressionEvaluator.valueOf(variable.name));
+    }
+
+    private int constant(Object value) {
+        if (value instanceof Integer number) {
+            code.iconst(number);
+            return INTEGER;
+        } else if (value instanceof Character character) {
+            code.iconst(character);
+            return CHAR;
+        } else if (value instanceof Boolean bool) {
+            code.iconst(bool ? 1 : 0);
+            return BOOLEAN;
+        } else if (value instanceof Double number) {
+            code.dconst(number);
+            return REAL;
+        } else if (value instanceof String text) {
+            code.sconst(text);
+            return OBJECT;
+        }
+        pushConstant(value);
+        return OBJECT;
+    }
+
+    private int binary(BasicExpression.Binary binary) {
+        Operator operator = binary.getOperator();
+        int operandKind = operandKind(binary);
+        int arithmetic = arithmetic(operator, operandKind);
+        if (arithmetic >= 0) {
+            expressionAs(binary.getLeft(), operandKind);
+            expressionAs(binary.getRight(), operandKind);
+            code.op(arithmetic, operandKind == REAL ? -2 : -1);
+            return operandKind == BOOLEAN ? BOOLEAN : operandKind;
+        }
+        if (operandKind != OBJECT && operator.isComparison()) {
+            compareOperands(binary, operandKind);
+            ClassFile.Label holds = new ClassFile.Label();
+            ClassFile.Label end = new ClassFile.Label();
+            code.jump(comparisonBranch(operator, operandKind), holds, operandKind == REAL ? -1 : -2);
+            code.iconst(0);
+            code.jump(Opcodes.GOTO, end, 0);
+            code.bind(holds);
+            code.iconst(1);
+            code.bind(end);
+            return BOOLEAN;
+        }
+
+        pushConstant(binary);
+        expressionAs(binary.getLeft(), OBJECT);
+        expressionAs(binary.getRight(), OBJECT);
+        code.invokeStatic(RUNTIME, "binary",
+                          "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+        return OBJECT;
+    }
+
+    /**
+     * Pushes both operands of a primitive comparison; for REAL operands also the {@code dcmp} result.
+     */
+    private void compareOperands(BasicExpression.Binary binary, int operandKind) {
+        expressionAs(binary.getLeft(), operandKind);
+        expressionAs(binary.getRight(), operandKind);
+        if (operandKind == REAL) {
+            Operator operator = binary.getOperator();
+            code.op(operator == Operator.LESS || operator == Operator.LESS_EQUAL ? Opcodes.DCMPG : Opcodes.DCMPL, -3);
+        }
+    }
+
+    private int procedureCall(BasicExpression.ProcedureCall procedureCall) {
+        String name = procedureCall.name.lexeme();
+        List<BasicExpression> arguments = procedureCall.arguments;
+        if (findProcedureDepth(name) > 0) {
+            invoke(name, arguments);
+            return OBJECT;
+        }
+        if (!Native.supportedProcedures.contains(name)) {
+            throw new Unsupported("unknown procedure " + name);
+        }
+        if (arguments.size() == 1) {
+            int argumentKind = staticKind(arguments.get(0));
+            switch (name) {
+                case "CHR" -> {
+                    if (argumentKind == INTEGER) {
+                        expressionAs(arguments.get(0), INTEGER);
+                        code.op(Opcodes.I2C, 0);
+                        return CHAR;
+                    }
+                }
+                case "ORD" -> {
+                    if (argumentKind == CHAR) {
+                        expressionAs(arguments.get(0), CHAR);
+                        return INTEGER;
+                    }
+                }
+                case "FLOAT" -> {
+                    if (argumentKind == INTEGER) {
+                        expressionAs(arguments.get(0), INTEGER);
+                        code.op(Opcodes.I2D, 1);
+                        return REAL;
+                    }
+                }
+                case "TRUNC" -> {
+                    if (argumentKind == REAL) {
+                        expressionAs(arguments.get(0), REAL);
+                        code.op(Opcodes.D2I, -1);
+                        return INTEGER;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        nativeCall(name, arguments);
+        return OBJECT;
+    }
+
+    /**
+     * Kind {@link #expression} yields for {@code expression}, without emitting code.
+     */
+    private int staticKind(BasicExpression expression) {
+        if (expression instanceof BasicExpression.Literal literal) {
+            return constantKind(literal.getConstantValue());
+        } else if (expression instanceof BasicExpression.Variable variable) {
+            if (variable.isBound()) {
+                return slotKind(layoutAt(variable.getDepth()), variable.getSlot());
+            }
+            return constantKind(LiteralExpressionEvaluator.valueOf(variable.name));
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            return staticKind(grouping.expression);
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            Operator operator = binary.getOperator();
+            int operandKind = operandKind(binary);
+            if (arithmetic(operator, operandKind) >= 0) {
+                return operandKind;
+            }
+            return operandKind != OBJECT && operator.isComparison() ? BOOLEAN : OBJECT;
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            return staticKind(negation.getNegatedValue());
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            return elementKind(arrayVariable);
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            String name = procedureCall.name.lexeme();
+            if (findProcedureDepth(name) < 0 && procedureCall.arguments.size() == 1) {
+                int argumentKind = staticKind(procedureCall.arguments.get(0));
+                switch (name) {
+                    case "CHR":
+                        return argumentKind == INTEGER ? CHAR : OBJECT;
+                    case "ORD":
+                        return argumentKind == CHAR ? INTEGER : OBJECT;
+                    case "FLOAT":
+                        return argumentKind == INTEGER ? REAL : OBJECT;
+                    case "TRUNC":
+                        return argumentKind == REAL ? INTEGER : OBJECT;
+                    default:
+                        return OBJECT;
+                }
+            }
+        }
+        return OBJECT;
+    }
+
+    /**
+     * Kind of the operands of a binary expression the resolver specialized, or {@link #OBJECT} when it is
+     * left to run-time dispatch.
+     */
+    private int operandKind(BasicExpression.Binary binary) {
+        String operandType = binary.getOperation().getOperandType();
+        if (operandType == null) {
+            return OBJECT;
+        }
+        int kind = kindOf(operandType);
+        return staticKind(binary.getLeft()) == kind && staticKind(binary.getRight()) == kind ? kind : OBJECT;
+    }
+
+    private static int constantKind(Object value) {
+        if (value instanceof Integer) {
+            return INTEGER;
+        } else if (value instanceof Character) {
+            return CHAR;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Double) {
+            return REAL;
+        }
+        return OBJECT;
+    }
+
+    private static int arithmetic(Operator operator, int operandKind) {
+        if (operandKind == INTEGER) {
+            return switch (operator) {
+                case PLUS -> Opcodes.IADD;
+                case MINUS -> Opcodes.ISUB;
+                case TIMES -> Opcodes.IMUL;
+                case SLASH, DIV -> Opcodes.IDIV;
+                case MOD -> Opcodes.IREM;
+                default -> -1;
+            };
+        } else if (operandKind == REAL) {
+            return switch (operator) {
+                case PLUS -> Opcodes.DADD;
+                case MINUS -> Opcodes.DSUB;
+                case TIMES -> Opcodes.DMUL;
+                case SLASH, DIV -> Opcodes.DDIV;
+                case MOD -> Opcodes.DREM;
+                default -> -1;
+            };
+        } else if (operandKind == BOOLEAN) {
+            return switch (operator) {
+                case AND -> Opcodes.IAND;
+                case OR -> Opcodes.IOR;
+                default -> -1;
+            };
+        }
+        return -1;
+    }
+
+    /**
+     * Branch taken when the comparison holds; for REAL the operands were already folded by {@code dcmp}.
+     */
+    private static int comparisonBranch(Operator operator, int operandKind) {
+        boolean real = operandKind == REAL;
+        return switch (operator) {
+            case LESS -> real ? Opcodes.IFLT : Opcodes.IF_ICMPLT;
+            case LESS_EQUAL -> real ? Opcodes.IFLE : Opcodes.IF_ICMPLE;
+            case GREATER -> real ? Opcodes.IFGT : Opcodes.IF_ICMPGT;
+            case GREATER_EQUAL -> real ? Opcodes.IFGE : Opcodes.IF_ICMPGE;
+            case EQUAL -> real ? Opcodes.IFEQ : Opcodes.IF_ICMPEQ;
+            default -> real ? Opcodes.IFNE : Opcodes.IF_ICMPNE;
+        };
+    }
+
+    private static int negate(int branch) {
+        return switch (branch) {
+            case Opcodes.IFEQ -> Opcodes.IFNE;
+            case Opcodes.IFNE -> Opcodes.IFEQ;
+            case Opcodes.IFLT -> Opcodes.IFGE;
+            case Opcodes.IFGE -> Opcodes.IFLT;
+            case Opcodes.IFGT -> Opcodes.IFLE;
+            case Opcodes.IFLE -> Opcodes.IFGT;
+            case Opcodes.IF_ICMPEQ -> Opcodes.IF_ICMPNE;
+            case Opcodes.IF_ICMPNE -> Opcodes.IF_ICMPEQ;
+            case Opcodes.IF_ICMPLT -> Opcodes.IF_ICMPGE;
+            case Opcodes.IF_ICMPGE -> Opcodes.IF_ICMPLT;
+            case Opcodes.IF_ICMPGT -> Opcodes.IF_ICMPLE;
+            default -> Opcodes.IF_ICMPGT;
+        };
+    }
+
+    private void pushArray(BasicExpression.ArrayVariable arrayVariable) {
+        if (!arrayVariable.isBound()) {
+            throw new Unsupported("unresolved array");
+        }
+        int depth = arrayVariable.getDepth();
+        if (depth == 0) {
+            code.local(Opcodes.ALOAD, locals[arrayVariable.getSlot()], 1);
+            return;
+        }
+        code.local(Opcodes.ALOAD, CONTEXT_LOCAL, 1);
+        code.iconst(depth);
+        code.iconst(arrayVariable.getSlot());
+        code.invokeVirtual(CONTEXT, "get", "(II)Ljava/lang/Object;");
+        code.type(Opcodes.CHECKCAST, ARRAY);
+    }
+
+    private void offset(BasicExpression.ArrayVariable arrayVariable) {
+        code.iconst(0);
+        for (int dimension = 0; dimension < arrayVariable.index.length; dimension++) {
+            pushArray(arrayVariable);
+            code.iconst(dimension);
+            expressionAs(arrayVariable.index[dimension], INTEGER);
+            code.iconst(arrayVariable.name.line());
+            code.invokeVirtual(ARRAY, "offset", "(III)I");
+            code.op(Opcodes.IADD, -1);
+        }
+    }
+
+    private int elementKind(BasicExpression.ArrayVariable arrayVariable) {
+        if (!arrayVariable.isBound()) {
+            throw new Unsupported("unresolved array");
+        }
+        return kindOf(layoutAt(arrayVariable.getDepth()).getType(arrayVariable.getSlot()));
+    }
+
+    /**
+     * Converts the value on top of the stack; conversions Modula-2 does not allow implicitly are left to the
+     * interpreter.
+     */
+    private void coerce(int from, int to) {
+        boolean fromInt = from == INTEGER || from == CHAR || from == BOOLEAN;
+        boolean toInt = to == INTEGER || to == CHAR || to == BOOLEAN;
+        if (from == to || fromInt && toInt) {
+            return;
+        }
+        if (from == INTEGER && to == REAL) {
+            code.op(Opcodes.I2D, 1);
+        } else if (to == OBJECT) {
+            switch (from) {
+                case INTEGER -> code.invokeStatic("java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;");
+                case CHAR -> code.invokeStatic("java/lang/Character", "valueOf", "(C)Ljava/lang/Character;");
+                case BOOLEAN -> code.invokeStatic("java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;");
+                default -> code.invokeStatic("java/lang/Double", "valueOf", "(D)Ljava/lang/Double;");
+            }
+        } else if (from == OBJECT && toInt) {
+            code.invokeStatic(RUNTIME, "toInt", "(Ljava/lang/Object;)I");
+        } else if (from == OBJECT) {
+            code.invokeStatic(RUNTIME, "toReal", "(Ljava/lang/Object;)D");
+        } else {
+            throw new Unsupported("incompatible types");
+        }
+    }
+
+    private void load(int kind, int local) {
+        switch (kind) {
+            case REAL -> code.local(Opcodes.DLOAD, local, 2);
+            case OBJECT -> code.local(Opcodes.ALOAD, local, 1);
+            default -> code.local(Opcodes.ILOAD, local, 1);
+        }
+    }
+
+    private void store(int kind, int local) {
+        switch (kind) {
+            case REAL -> code.local(Opcodes.DSTORE, local, -2);
+            case OBJECT -> code.local(Opcodes.ASTORE, local, -1);
+            default -> code.local(Opcodes.ISTORE, local, -1);
+        }
+    }
+
+    private int temp(int kind) {
+        int local = nextLocal;
+        nextLocal += kind == REAL || kind == LONG ? 2 : 1;
+        code.locals(nextLocal);
+        return local;
+    }
+
+    private void pushConstant(Object value) {
+        int index = constants.size();
+        constants.add(value);
+        code.getStatic(classFile.getName(), CONSTANTS, OBJECT_ARRAY);
+        code.iconst(index);
+        code.op(Opcodes.AALOAD, -1);
+    }
+
+    private FrameLayout layoutAt(int depth) {
+        FrameLayout scope = layout;
+        for (int k = depth; k > 0; k--) {
+            scope = scope.getParent();
+        }
+        return scope;
+    }
+
+    private int findProcedureDepth(String name) {
+        int depth = 0;
+        for (FrameLayout scope = layout; scope != null; scope = scope.getParent(), depth++) {
+            if (scope.getProcedure(name) != null) {
+                return depth;
+            }
+        }
+        return -1;
+    }
+
+    private static int slotKind(FrameLayout scope, int slot) {
+        return scope.isArray(slot) ? OBJECT : kindOf(scope.getType(slot));
+    }
+
+    private static int kindOf(String type) {
+        if (type == null) {
+            return OBJECT;
+        }
+        return switch (type) {
+            case "INTEGER", "CARDINAL" -> INTEGER;
+            case "CHAR" -> CHAR;
+            case "BOOLEAN" -> BOOLEAN;
+            case "REAL" -> REAL;
+            default -> OBJECT;
+        };
+    }
+}
@@ -1,12 +1,10 @@
 package library;
 
-import ast.BasicExpression;
-import context.ProcedureContext;
-import evaluator.ExpressionEvaluator;
 import interpreter.Interpreter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class Native {
 
@@ -26,39 +24,36 @@ public class Native {
         "MAX", List.of("TYPE")
     );
 
-    public static Object executeNativeProcedure(BasicExpression.ProcedureCall expression, ProcedureContext procedureContext) {
-        String procedureName = expression.name.lexeme();
-        List<Object> arguments = expression.arguments
-                                           .stream()
-                                           .map(argument -> ExpressionEvaluator.evaluate(argument, procedureContext))
-                                           .toList();
-        switch (procedureName) {
-            case "CHR":
-                return Native.CHR((Integer) arguments.get(0));
-            case "FLOAT":
-                return Native.FLOAT((Integer) arguments.get(0));
-            case "TRUNC":
-                return Native.TRUNC((Double) arguments.get(0));
-            case "ORD":
-                return Native.ORD(String.valueOf(arguments.get(0)));
-            case "CAP":
-                return Native.CAP(String.valueOf(arguments.get(0)));
-            case "VAL":
-                return Native.VAL(String.valueOf(arguments.get(0)), arguments.get(1));
-            case "INC":
-                return Native.INC(arguments.get(0), arguments.size() > 1 ? (Integer) arguments.get(1) : 0);
-            case "DEC":
-                return Native.DEC(arguments.get(0), arguments.size() > 1 ? (Integer) arguments.get(1) : 0);
-            case "MIN":
-                return Native.MIN(String.valueOf(arguments.get(0)));
-            case "MAX":
-                return Native.MAX(String.valueOf(arguments.get(0)));
-            default:
-                Interpreter.error(0, " at '" + procedureName + "'", "Procedure not found");
-                System.exit(1);
-                break;
+    public static Object call(String procedureName, List<Object> arguments) {
+        Function<List<Object>, Object> intrinsic = intrinsic(procedureName);
+        if (intrinsic == null) {
+            Interpreter.error(0, " at '" + procedureName + "'", "Procedure not found");
+            System.exit(1);
+            return null;
         }
-        return null;
+        return intrinsic.apply(arguments);
+    }
+
+    /**
+     * The routine behind the built-in {@code procedureName}, or {@code null} if there is none, for callers
+     * that resolve a call once and keep the routine.
+     */
+    public static Function<List<Object>, Object> intrinsic(String procedureName) {
+        return switch (procedureName) {
+            case "CHR" -> arguments -> Native.CHR((Integer) arguments.get(0));
+            case "FLOAT" -> arguments -> Native.FLOAT((Integer) arguments.get(0));
+            case "TRUNC" -> arguments -> Native.TRUNC((Double) arguments.get(0));
+            case "ORD" -> arguments -> Native.ORD(String.valueOf(arguments.get(0)));
+            case "CAP" -> arguments -> Native.CAP(String.valueOf(arguments.get(0)));
+            case "VAL" -> arguments -> Native.VAL(String.valueOf(arguments.get(0)), arguments.get(1));
+            case "INC" -> arguments -> Native.INC(arguments.get(0),
+                                                  arguments.size() > 1 ? (Integer) arguments.get(1) : 1);
+            case "DEC" -> arguments -> Native.DEC(arguments.get(0),
+                                                  arguments.size() > 1 ? (Integer) arguments.get(1) : 1);
+            case "MIN" -> arguments -> Native.MIN(String.valueOf(arguments.get(0)));
+            case "MAX" -> arguments -> Native.MAX(String.valueOf(arguments.get(0)));
+            default -> null;
+        };
     }
 
     public static double FLOAT(Integer number) {
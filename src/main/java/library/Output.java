@@ -0,0 +1,189 @@
+package library;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte buffer behind the Terminal2 procedures. Text and numbers are encoded straight into the buffer, which is
+ * written to standard output when it fills up, after every WriteLn if the {@link FlushPolicy} says so, and
+ * when the interpreter exits.
+ */
+public final class Output {
+
+    public enum FlushPolicy {
+        /**
+         * Flush after every line, for output that is watched while the program runs.
+         */
+        LINE("line"),
+        /**
+         * Flush only when the buffer is full and at exit.
+         */
+        BUFFER("buffer");
+
+        private final String name;
+
+        FlushPolicy(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public static FlushPolicy fromName(String name) {
+            for (FlushPolicy policy : values()) {
+                if (policy.name.equals(name)) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int CAPACITY = 1 << 16;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_INT = Integer.toString(Integer.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private static final Charset CHARSET = System.out.charset();
+
+    private static final byte[] buffer = new byte[CAPACITY];
+    private static int position;
+    private static FlushPolicy flushPolicy = FlushPolicy.BUFFER;
+    private static PrintStream target = System.out;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Output::flush, "output-flush"));
+    }
+
+    private Output() {
+    }
+
+    public static FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public static void setFlushPolicy(FlushPolicy flushPolicy) {
+        Output.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Text without the double quotes of Modula-2 string literals. Runs of non-ASCII characters are encoded
+     * together, so surrogate pairs reach the encoder intact.
+     */
+    public static void writeUnquoted(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char character = text.charAt(i);
+            if (character < 0x80) {
+                if (character != '"') {
+                    writeChar(character);
+                }
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < length && text.charAt(end) >= 0x80) {
+                    end++;
+                }
+                writeBytes(text.substring(i, end).getBytes(CHARSET));
+                i = end;
+            }
+        }
+    }
+
+    public static void writeChar(char character) {
+        if (character < 0x80) {
+            if (position == CAPACITY) {
+                flush();
+            }
+            buffer[position++] = (byte) character;
+        } else {
+            writeBytes(String.valueOf(character).getBytes(CHARSET));
+        }
+    }
+
+    public static void writeAscii(String text) {
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Decimal digits of {@code number}, written back to front directly into the buffer.
+     */
+    public static void writeInt(int number) {
+        if (number == Integer.MIN_VALUE) {
+            writeBytes(MIN_INT);
+            return;
+        }
+        ensure(11);
+        if (number < 0) {
+            buffer[position++] = '-';
+            number = -number;
+        }
+        int end = position + digits(number);
+        int at = end;
+        do {
+            buffer[--at] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number != 0);
+        position = end;
+    }
+
+    public static void writeSpaces(int count) {
+        while (count > 0) {
+            if (position == CAPACITY) {
+                flush();
+            }
+            int run = Math.min(count, CAPACITY - position);
+            for (int i = 0; i < run; i++) {
+                buffer[position++] = ' ';
+            }
+            count -= run;
+        }
+    }
+
+    public static void writeLine() {
+        writeBytes(LINE_SEPARATOR);
+        if (flushPolicy == FlushPolicy.LINE) {
+            flush();
+        }
+    }
+
+    public static synchronized void flush() {
+        if (position > 0) {
+            target.write(buffer, 0, position);
+            position = 0;
+        }
+        target.flush();
+    }
+
+    private static void writeBytes(byte[] bytes) {
+        if (bytes.length > CAPACITY) {
+            flush();
+            target.write(bytes, 0, bytes.length);
+            return;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private static void ensure(int length) {
+        if (position + length > CAPACITY) {
+            flush();
+        }
+    }
+
+    private static int digits(int number) {
+        int count = 1;
+        while (number >= 10) {
+            number /= 10;
+            count++;
+        }
+        return count;
+    }
+}
@@ -18,29 +18,32 @@ public class Terminal2 {
     );
 
     public static void WriteString(String text) {
-        System.out.print(text.replace("\"", ""));
+        Output.writeUnquoted(text);
     }
 
     public static void WriteInt(int number, int spaces) {
-        System.out.print(number + " ".repeat(spaces));
+        Output.writeInt(number);
+        Output.writeSpaces(spaces);
     }
 
     public static void WriteLn() {
-        System.out.println();
+        Output.writeLine();
     }
 
     public static void WriteChar(char character) {
-        System.out.print(character);
+        Output.writeChar(character);
     }
 
     public static void WriteCard(int number, int spaces) {
         if (number < 0) {
             number = Integer.MAX_VALUE + number + 1;
         }
-        System.out.print(number + " ".repeat(spaces));
+        Output.writeInt(number);
+        Output.writeSpaces(spaces);
     }
 
     public static void WriteReal(double number, int spaces) {
-        System.out.print(number + " ".repeat(spaces));
+        Output.writeAscii(Double.toString(number));
+        Output.writeSpaces(spaces);
     }
 }
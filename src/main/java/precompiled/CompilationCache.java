@@ -0,0 +1,154 @@
+package precompiled;
+
+import ast.Statement;
+import library.Native;
+import library.Terminal2;
+import scanner.Source;
+import structure.Block;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Directory of {@link ProgramImage}s shared by all interpreter processes, addressed by a hash of the source,
+ * the library signatures the analyzer checked it against and the interpreter version, so that an entry is
+ * never reused once any of them changes.
+ * <p>
+ * Readers take a shared lock and writers an exclusive one on {@code .lock} in the directory. A hit refreshes
+ * the entry's modification time; after a store the least recently used entries are evicted until the
+ * directory fits into its size limit.
+ * <p>
+ * A cache directory belongs to one user. Entries are readable by others, but the lock file and eviction need
+ * write access to the directory and everything in it.
+ */
+public final class CompilationCache {
+
+    public static final long DEFAULT_LIMIT = 256L << 20;
+
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final long limit;
+    private final String environment;
+
+    public CompilationCache(Path directory, long limit, String interpreterVersion) {
+        this.directory = directory;
+        this.limit = limit;
+        this.environment = interpreterVersion + '\n' + ProgramImage.VERSION + '\n' + librarySignature();
+    }
+
+    /**
+     * Hex SHA-256 naming the entry of {@code source}.
+     */
+    public String keyOf(Source source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(source.digest());
+            digest.update(environment.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The cached statements of {@code source}, or {@code null} on a miss.
+     */
+    public Block load(Source source) throws IOException {
+        Path entry = entryOf(source);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try (FileChannel lock = openLock()) {
+            FileLock shared = lock.lock(0, Long.MAX_VALUE, true);
+            try {
+                Block block = ProgramImage.load(entry, source);
+                if (block != null) {
+                    Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                }
+                return block;
+            } finally {
+                shared.release();
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the analyzed statements of {@code source} and trims the directory to its limit.
+     */
+    public void store(Source source, List<Statement> statements) throws IOException {
+        Files.createDirectories(directory);
+        try (FileChannel lock = openLock()) {
+            FileLock exclusive = lock.lock();
+            try {
+                ProgramImage.save(entryOf(source), source, statements);
+                evict();
+            } finally {
+                exclusive.release();
+            }
+        }
+    }
+
+    private Path entryOf(Source source) {
+        return directory.resolve(keyOf(source) + ProgramImage.EXTENSION);
+    }
+
+    private FileChannel openLock() throws IOException {
+        Files.createDirectories(directory);
+        return FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Deletes entries, least recently used first, until the total size is within the limit. Runs under the
+     * exclusive lock, so no reader is between finding and loading an entry.
+     */
+    private void evict() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(ProgramImage.EXTENSION)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                total += attributes.size();
+            }
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (int i = 0; i < entries.size() && total > limit; i++) {
+            Files.deleteIfExists(entries.get(i).file());
+            total -= entries.get(i).size();
+        }
+    }
+
+    /**
+     * Procedures and argument kinds of the libraries, which semantic analysis checks calls against.
+     */
+    private static String librarySignature() {
+        return "Terminal2" + new TreeMap<>(Terminal2.ARGS_MAP) + "\nNative" + new TreeMap<>(Native.ARGS_MAP);
+    }
+
+    private record Entry(Path file, long size, FileTime lastUsed) {
+    }
+}
@@ -0,0 +1,262 @@
+package precompiled;
+
+import ast.BasicExpression;
+import ast.Operator;
+import ast.Statement;
+import scanner.Token;
+import scanner.TokenType;
+import structure.Dimension;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Decodes a {@link ProgramImage} straight from its mapped bytes. Malformed input surfaces as an unchecked
+ * exception, usually {@link IllegalArgumentException} or {@link java.nio.BufferUnderflowException}.
+ */
+final class ImageReader {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final ByteBuffer bytes;
+    private String[] strings;
+
+    ImageReader(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Checks magic, version, source identity and payload checksum and reads the string table; {@code false}
+     * if the image does not belong to this source or was damaged.
+     */
+    boolean readHeader(int sourceLength, byte[] sourceDigest) {
+        byte[] magic = new byte[ProgramImage.MAGIC.length];
+        bytes.get(magic);
+        if (!ProgramImage.isMagic(magic) || readInt() != ProgramImage.VERSION || readInt() != sourceLength) {
+            return false;
+        }
+        byte[] digest = new byte[ProgramImage.DIGEST_LENGTH];
+        bytes.get(digest);
+        if (!Arrays.equals(digest, sourceDigest)) {
+            return false;
+        }
+        long expected = readLong();
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.duplicate());
+        if (checksum.getValue() != expected) {
+            return false;
+        }
+
+        strings = new String[readCount()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] encoded = new byte[readCount()];
+            bytes.get(encoded);
+            strings[i] = new String(encoded, StandardCharsets.UTF_8);
+        }
+        return true;
+    }
+
+    List<Statement> readProgram() {
+        List<Statement> statements = readStatements();
+        if (statements == null || bytes.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing data in program image");
+        }
+        return statements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Statement> List<T> readStatements() {
+        int count = readInt();
+        if (count == -1) {
+            return null;
+        }
+        checkCount(count);
+        List<T> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            statements.add((T) readStatement());
+        }
+        return statements;
+    }
+
+    private Statement readStatement() {
+        int tag = readInt();
+        switch (tag) {
+            case Tag.NONE:
+                return null;
+            case Tag.MODULE:
+                return new Statement.Module(readToken());
+            case Tag.IMPORT: {
+                Token module = readToken();
+                List<String> imports = new ArrayList<>();
+                for (int i = readCount(); i > 0; i--) {
+                    imports.add(readString());
+                }
+                return new Statement.Import(module, imports);
+            }
+            case Tag.CONST:
+                return new Statement.Const(readToken(), readExpression());
+            case Tag.VAR:
+                return new Statement.Var(readToken(), readToken(), readExpression());
+            case Tag.VAR_ARRAY: {
+                Token name = readToken();
+                Token type = readToken();
+                List<Dimension> dimensions = new ArrayList<>();
+                for (int i = readCount(); i > 0; i--) {
+                    dimensions.add(new Dimension(readInt(), readInt(), readInt()));
+                }
+                return new Statement.VarArray(name, type, dimensions, readExpression());
+            }
+            case Tag.PROCEDURE:
+                return new Statement.Procedure(readToken(), readToken(), readStatements(), readStatements());
+            case Tag.MAIN:
+                return new Statement.Main(readStatements());
+            case Tag.ASSIGNMENT:
+                return new Statement.Assignment(readExpression(), readExpression());
+            case Tag.CALL:
+                return new Statement.Call(readToken(), readExpressions());
+            case Tag.IF: {
+                int line = readInt();
+                BasicExpression condition = readExpression();
+                List<Statement> body = readStatements();
+                List<Statement.Elsif> elsifBranches = readStatements();
+                return new Statement.If(condition, body, elsifBranches, (Statement.ElseBranch) readStatement(), line);
+            }
+            case Tag.ELSIF: {
+                int line = readInt();
+                return new Statement.Elsif(readExpression(), readStatements(), line);
+            }
+            case Tag.ELSE:
+                return new Statement.ElseBranch(readStatements());
+            case Tag.WHILE: {
+                int line = readInt();
+                return new Statement.While(readExpression(), readStatements(), line);
+            }
+            case Tag.FOR: {
+                int line = readInt();
+                return new Statement.For(readStatement(), readExpression(), readExpression(), readStatements(), line);
+            }
+            case Tag.CASE:
+                return new Statement.Case(readToken(), readStatements(), readStatements());
+            case Tag.CASE_BRANCH: {
+                Set<Integer> range = new HashSet<>();
+                for (int i = readCount(); i > 0; i--) {
+                    range.add(readInt());
+                }
+                return new Statement.CaseBranch(range, readStatements());
+            }
+            case Tag.RETURN:
+                return new Statement.Return(readExpression());
+            case Tag.READ:
+                return new Statement.Read(readToken(), readExpression());
+            case Tag.WRITE:
+                return new Statement.Write(readToken(), readExpression());
+            default:
+                throw new IllegalArgumentException("Unknown statement tag " + tag);
+        }
+    }
+
+    private List<BasicExpression> readExpressions() {
+        int count = readCount();
+        List<BasicExpression> expressions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expressions.add(readExpression());
+        }
+        return expressions;
+    }
+
+    private BasicExpression readExpression() {
+        int tag = readInt();
+        switch (tag) {
+            case Tag.NONE:
+                return null;
+            case Tag.BINARY: {
+                Operator operator = OPERATORS[readInt()];
+                int line = readInt();
+                return new BasicExpression.Binary(readExpression(), operator, readExpression(), line);
+            }
+            case Tag.GROUPING:
+                return new BasicExpression.Grouping(readExpression());
+            case Tag.LITERAL:
+                return new BasicExpression.Literal(readToken(), readConstant());
+            case Tag.VARIABLE:
+                return new BasicExpression.Variable(readToken());
+            case Tag.NEGATION:
+                return new BasicExpression.Negation(readExpression());
+            case Tag.ARRAY_VARIABLE:
+                return new BasicExpression.ArrayVariable(readToken(), readExpressions().toArray(new BasicExpression[0]));
+            case Tag.PROCEDURE_CALL:
+                return new BasicExpression.ProcedureCall(readToken(), readExpressions());
+            case Tag.EMPTY:
+                return new BasicExpression.Empty();
+            default:
+                throw new IllegalArgumentException("Unknown expression tag " + tag);
+        }
+    }
+
+    private Object readConstant() {
+        int tag = readInt();
+        return switch (tag) {
+            case Tag.NONE -> null;
+            case Tag.INTEGER -> readInt();
+            case Tag.REAL -> Double.longBitsToDouble(readLong());
+            case Tag.CHAR -> (char) readInt();
+            case Tag.BOOLEAN -> readInt() != 0;
+            case Tag.STRING -> readString();
+            default -> throw new IllegalArgumentException("Unknown constant tag " + tag);
+        };
+    }
+
+    /**
+     * Rebuilds a token; identifiers are interned again, since symbol IDs are only stable within one run.
+     */
+    private Token readToken() {
+        int type = readInt();
+        if (type < 0) {
+            return null;
+        }
+        String lexeme = readString();
+        int line = readInt();
+        return new Token(TOKEN_TYPES[type], lexeme, null, line);
+    }
+
+    private String readString() {
+        return strings[readInt()];
+    }
+
+    private int readCount() {
+        return checkCount(readInt());
+    }
+
+    /**
+     * Every counted element takes at least one byte, which bounds allocations made for a damaged image.
+     */
+    private int checkCount(int count) {
+        if (count < 0 || count > bytes.remaining()) {
+            throw new IllegalArgumentException("Bad count " + count);
+        }
+        return count;
+    }
+
+    private int readInt() {
+        return (int) readLong();
+    }
+
+    private long readLong() {
+        long bits = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes.get();
+            bits |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (bits >>> 1) ^ -(bits & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,284 @@
+package precompiled;
+
+import ast.BasicExpression;
+import ast.Statement;
+import scanner.Token;
+import structure.Dimension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Encodes a statement tree in the {@link ProgramImage} format. The program is encoded first so that the
+ * string table, which precedes it in the file, holds exactly the lexemes that are referenced, and the header
+ * is written last since it checksums both.
+ */
+final class ImageWriter {
+
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private byte[] buffer = new byte[4096];
+    private int size;
+
+    byte[] write(int sourceLength, byte[] sourceDigest, List<Statement> statements) {
+        writeStatements(statements);
+        byte[] program = Arrays.copyOf(buffer, size);
+
+        size = 0;
+        writeInt(strings.size());
+        for (String string : strings) {
+            byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+            writeInt(encoded.length);
+            writeBytes(encoded);
+        }
+        writeBytes(program);
+        byte[] payload = Arrays.copyOf(buffer, size);
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+
+        size = 0;
+        writeBytes(ProgramImage.MAGIC);
+        writeInt(ProgramImage.VERSION);
+        writeInt(sourceLength);
+        writeBytes(sourceDigest);
+        writeLong(checksum.getValue());
+        writeBytes(payload);
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void writeStatements(List<? extends Statement> statements) {
+        if (statements == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(statements.size());
+        for (Statement statement : statements) {
+            writeStatement(statement);
+        }
+    }
+
+    private void writeStatement(Statement statement) {
+        if (statement == null) {
+            writeInt(Tag.NONE);
+        } else if (statement instanceof Statement.Module module) {
+            writeInt(Tag.MODULE);
+            writeToken(module.getName());
+        } else if (statement instanceof Statement.Import anImport) {
+            writeInt(Tag.IMPORT);
+            writeToken(anImport.getModule());
+            writeInt(anImport.getImports().size());
+            anImport.getImports().forEach(this::writeString);
+        } else if (statement instanceof Statement.Const constant) {
+            writeInt(Tag.CONST);
+            writeToken(constant.getName());
+            writeExpression(constant.getInitializer());
+        } else if (statement instanceof Statement.Var variable) {
+            writeInt(Tag.VAR);
+            writeToken(variable.getName());
+            writeToken(variable.getType());
+            writeExpression(variable.getInitializer());
+        } else if (statement instanceof Statement.VarArray array) {
+            writeInt(Tag.VAR_ARRAY);
+            writeToken(array.getName());
+            writeToken(array.getType());
+            writeInt(array.getDimensionRanges().size());
+            for (Dimension dimension : array.getDimensionRanges()) {
+                writeInt(dimension.getLow());
+                writeInt(dimension.getHigh());
+                writeInt(dimension.getStride());
+            }
+            writeExpression(array.getInitializer());
+        } else if (statement instanceof Statement.Procedure procedure) {
+            writeInt(Tag.PROCEDURE);
+            writeToken(procedure.getName());
+            writeToken(procedure.getReturnType());
+            writeStatements(procedure.getParameters());
+            writeStatements(procedure.getBody());
+        } else if (statement instanceof Statement.Main main) {
+            writeInt(Tag.MAIN);
+            writeStatements(main.getBody());
+        } else if (statement instanceof Statement.Assignment assignment) {
+            writeInt(Tag.ASSIGNMENT);
+            writeExpression(assignment.getIdent());
+            writeExpression(assignment.getExpression());
+        } else if (statement instanceof Statement.Call call) {
+            writeInt(Tag.CALL);
+            writeToken(call.getProcedureName());
+            writeExpressions(call.getArguments());
+        } else if (statement instanceof Statement.If ifStatement) {
+            writeInt(Tag.IF);
+            writeInt(ifStatement.getLine());
+            writeExpression(ifStatement.getCondition());
+            writeStatements(ifStatement.getBody());
+            writeStatements(ifStatement.getElsifBranches());
+            writeStatement(ifStatement.getElseBranch());
+        } else if (statement instanceof Statement.Elsif elsif) {
+            writeInt(Tag.ELSIF);
+            writeInt(elsif.getLine());
+            writeExpression(elsif.getCondition());
+            writeStatements(elsif.getStatements());
+        } else if (statement instanceof Statement.ElseBranch elseBranch) {
+            writeInt(Tag.ELSE);
+            writeStatements(elseBranch.getStatements());
+        } else if (statement instanceof Statement.While whileStatement) {
+            writeInt(Tag.WHILE);
+            writeInt(whileStatement.getLine());
+            writeExpression(whileStatement.getCondition());
+            writeStatements(whileStatement.getBody());
+        } else if (statement instanceof Statement.For forStatement) {
+            writeInt(Tag.FOR);
+            writeInt(forStatement.getLine());
+            writeStatement(forStatement.getIndex());
+            writeExpression(forStatement.getTo());
+            writeExpression(forStatement.getBy());
+            writeStatements(forStatement.getBody());
+        } else if (statement instanceof Statement.Case caseStatement) {
+            writeInt(Tag.CASE);
+            writeToken(caseStatement.getIdent());
+            writeStatements(caseStatement.getBranches());
+            writeStatements(caseStatement.getDefaultBranch());
+        } else if (statement instanceof Statement.CaseBranch branch) {
+            writeInt(Tag.CASE_BRANCH);
+            writeInt(branch.getRange().size());
+            for (int label : branch.getRange()) {
+                writeInt(label);
+            }
+            writeStatements(branch.getBody());
+        } else if (statement instanceof Statement.Return returnStatement) {
+            writeInt(Tag.RETURN);
+            writeExpression(returnStatement.getExpression());
+        } else if (statement instanceof Statement.Read read) {
+            writeInt(Tag.READ);
+            writeToken(read.getIdent());
+            writeExpression(read.getArrayIndex());
+        } else if (statement instanceof Statement.Write write) {
+            writeInt(Tag.WRITE);
+            writeToken(write.getIdent());
+            writeExpression(write.getArrayIndex());
+        } else {
+            throw new IllegalArgumentException("Cannot precompile " + statement.getClass().getSimpleName());
+        }
+    }
+
+    private void writeExpressions(List<BasicExpression> expressions) {
+        writeInt(expressions.size());
+        expressions.forEach(this::writeExpression);
+    }
+
+    private void writeExpression(BasicExpression expression) {
+        if (expression == null) {
+            writeInt(Tag.NONE);
+        } else if (expression instanceof BasicExpression.Binary binary) {
+            writeInt(Tag.BINARY);
+            writeInt(binary.getOperator().ordinal());
+            writeInt(binary.getLine());
+            writeExpression(binary.getLeft());
+            writeExpression(binary.getRight());
+        } else if (expression instanceof BasicExpression.Grouping grouping) {
+            writeInt(Tag.GROUPING);
+            writeExpression(grouping.expression);
+        } else if (expression instanceof BasicExpression.Literal literal) {
+            writeInt(Tag.LITERAL);
+            writeToken(literal.value);
+            writeConstant(literal.getConstantValue());
+        } else if (expression instanceof BasicExpression.Variable variable) {
+            writeInt(Tag.VARIABLE);
+            writeToken(variable.name);
+        } else if (expression instanceof BasicExpression.Negation negation) {
+            writeInt(Tag.NEGATION);
+            writeExpression(negation.getNegatedValue());
+        } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+            writeInt(Tag.ARRAY_VARIABLE);
+            writeToken(arrayVariable.name);
+            writeExpressions(Arrays.asList(arrayVariable.index));
+        } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+            writeInt(Tag.PROCEDURE_CALL);
+            writeToken(procedureCall.name);
+            writeExpressions(procedureCall.arguments);
+        } else if (expression instanceof BasicExpression.Empty) {
+            writeInt(Tag.EMPTY);
+        } else {
+            throw new IllegalArgumentException("Cannot precompile " + expression.getClass().getSimpleName());
+        }
+    }
+
+    private void writeConstant(Object value) {
+        if (value instanceof Integer number) {
+            writeInt(Tag.INTEGER);
+            writeInt(number);
+        } else if (value instanceof Double number) {
+            writeInt(Tag.REAL);
+            writeLong(Double.doubleToRawLongBits(number));
+        } else if (value instanceof Character character) {
+            writeInt(Tag.CHAR);
+            writeInt(character);
+        } else if (value instanceof Boolean bool) {
+            writeInt(Tag.BOOLEAN);
+            writeInt(bool ? 1 : 0);
+        } else if (value instanceof String text) {
+            writeInt(Tag.STRING);
+            writeString(text);
+        } else {
+            writeInt(Tag.NONE);
+        }
+    }
+
+    private void writeToken(Token token) {
+        if (token == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(token.type().ordinal());
+        writeString(token.lexeme());
+        writeInt(token.line());
+    }
+
+    private void writeString(String string) {
+        Integer index = stringIndex.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            stringIndex.put(string, index);
+        }
+        writeInt(index);
+    }
+
+    /**
+     * Zigzag varint, so that small negative values such as the -1 markers stay one byte long.
+     */
+    private void writeInt(int value) {
+        writeLong(value);
+    }
+
+    private void writeLong(long value) {
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7FL) != 0) {
+            writeByte((int) (bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        writeByte((int) bits);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package precompiled;
+
+import ast.Statement;
+import scanner.Source;
+import structure.Block;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Precompiled program ({@code .m2b}): the analyzed statement tree of one source file, so that later runs can
+ * skip scanning, parsing and semantic analysis.
+ *
+ * <pre>
+ * header   'M' '2' 'B' 0, format version, source length, SHA-256 of the source (32 bytes),
+ *          CRC32C of everything that follows
+ * strings  count, then every distinct lexeme once as length + UTF-8 bytes
+ * program  count, then the top-level statements in prefix order
+ * </pre>
+ *
+ * Integers are zigzag varints; tokens are stored as type, string index and line, with identifier symbols
+ * re-interned on load. An image whose version or source hash does not match is stale and is never loaded.
+ */
+public final class ProgramImage {
+
+    public static final String EXTENSION = ".m2b";
+
+    static final byte[] MAGIC = {'M', '2', 'B', 0};
+
+    /**
+     * Bumped whenever the statement encoding or {@link scanner.TokenType} changes.
+     */
+    static final int VERSION = 1;
+
+    static final int DIGEST_LENGTH = 32;
+
+    private static final Set<PosixFilePermission> IMAGE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    private ProgramImage() {
+    }
+
+    /**
+     * Image path belonging to a source file: the source path with {@link #EXTENSION} appended.
+     */
+    public static Path pathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Loads the statements stored at {@code image}, or returns {@code null} if there is no image, it was
+     * built from a different source or by a different format version, or it is damaged.
+     */
+    public static Block load(Path image, Source source) throws IOException {
+        if (!Files.isRegularFile(image)) {
+            return null;
+        }
+        ByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            ImageReader reader = new ImageReader(bytes);
+            if (!reader.readHeader(source.length(), source.digest())) {
+                return null;
+            }
+            return Block.of(reader.readProgram());
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code statements}, which must already have passed semantic analysis, as the image of
+     * {@code source}. The file is replaced atomically so a concurrent run never maps a partial image. It is
+     * given the permissions of an ordinary file rather than the owner-only ones of the temporary file it is
+     * written to.
+     */
+    public static void save(Path image, Source source, List<Statement> statements) throws IOException {
+        ImageWriter writer = new ImageWriter();
+        byte[] content = writer.write(source.length(), source.digest(), statements);
+
+        Path temporary = Files.createTempFile(image.toAbsolutePath().getParent(), image.getFileName().toString(),
+                                              ".tmp");
+        try {
+            Files.write(temporary, content);
+            if (Files.getFileStore(temporary).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temporary, IMAGE_PERMISSIONS);
+            }
+            Files.move(temporary, image, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static boolean isMagic(byte[] magic) {
+        return Arrays.equals(magic, MAGIC);
+    }
+}
@@ -0,0 +1,47 @@
+package precompiled;
+
+/**
+ * Node kinds in a program image. Zero always encodes an absent node.
+ */
+final class Tag {
+
+    static final int NONE = 0;
+
+    static final int MODULE = 1;
+    static final int IMPORT = 2;
+    static final int CONST = 3;
+    static final int VAR = 4;
+    static final int VAR_ARRAY = 5;
+    static final int PROCEDURE = 6;
+    static final int MAIN = 7;
+    static final int ASSIGNMENT = 8;
+    static final int CALL = 9;
+    static final int IF = 10;
+    static final int ELSIF = 11;
+    static final int ELSE = 12;
+    static final int WHILE = 13;
+    static final int FOR = 14;
+    static final int CASE = 15;
+    static final int CASE_BRANCH = 16;
+    static final int RETURN = 17;
+    static final int READ = 18;
+    static final int WRITE = 19;
+
+    static final int BINARY = 1;
+    static final int GROUPING = 2;
+    static final int LITERAL = 3;
+    static final int VARIABLE = 4;
+    static final int NEGATION = 5;
+    static final int ARRAY_VARIABLE = 6;
+    static final int PROCEDURE_CALL = 7;
+    static final int EMPTY = 8;
+
+    static final int INTEGER = 1;
+    static final int REAL = 2;
+    static final int CHAR = 3;
+    static final int BOOLEAN = 4;
+    static final int STRING = 5;
+
+    private Tag() {
+    }
+}
@@ -0,0 +1,93 @@
+package scanner;
+
+/**
+ * Perfect hash table of the reserved words. A word hashes on its length and its first and last letters;
+ * the multipliers are chosen once, when the class is loaded, so that no two keywords share a bucket. A
+ * lookup is then a single bucket probe and a compare of the whole word, since identifiers share buckets too.
+ */
+final class Keywords {
+
+    private static final int SIZE = 64;
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 9;
+
+    private static final TokenType[] KEYWORDS = {
+        TokenType.CONST, TokenType.MODULE, TokenType.FROM, TokenType.IMPORT, TokenType.VAR, TokenType.OF,
+        TokenType.PROCEDURE, TokenType.BEGIN, TokenType.RETURN, TokenType.END, TokenType.CASE, TokenType.IF,
+        TokenType.THEN, TokenType.ELSIF, TokenType.ELSE, TokenType.WHILE, TokenType.FOR, TokenType.TO,
+        TokenType.BY, TokenType.DO, TokenType.AND, TokenType.OR, TokenType.NOT, TokenType.DIV, TokenType.MOD
+    };
+
+    private static final TokenType[] table = new TokenType[SIZE];
+    private static final int firstFactor;
+    private static final int lastFactor;
+
+    static {
+        int[] factors = findFactors();
+        firstFactor = factors[0];
+        lastFactor = factors[1];
+        for (TokenType keyword : KEYWORDS) {
+            String key = keyword.getKey();
+            table[bucket(key.length(), key.charAt(0), key.charAt(key.length() - 1))] = keyword;
+        }
+    }
+
+    private Keywords() {
+    }
+
+    /**
+     * Returns the keyword spelled by {@code source[start, end)}, or {@code null} for an ordinary identifier.
+     */
+    static TokenType find(CharSequence source, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return null;
+        }
+        char first = source.charAt(start);
+        char last = source.charAt(end - 1);
+        if (first < 'A' || first > 'Z' || last < 'A' || last > 'Z') {
+            return null;
+        }
+        TokenType keyword = table[bucket(length, first, last)];
+        if (keyword == null) {
+            return null;
+        }
+        String key = keyword.getKey();
+        if (key.length() != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != source.charAt(start + i)) {
+                return null;
+            }
+        }
+        return keyword;
+    }
+
+    private static int bucket(int length, char first, char last) {
+        return (first * firstFactor + last * lastFactor + length) & (SIZE - 1);
+    }
+
+    private static int[] findFactors() {
+        for (int first = 1; first < SIZE; first++) {
+            for (int last = 1; last < SIZE; last++) {
+                boolean[] used = new boolean[SIZE];
+                boolean perfect = true;
+                for (TokenType keyword : KEYWORDS) {
+                    String key = keyword.getKey();
+                    int bucket = (key.charAt(0) * first + key.charAt(key.length() - 1) * last + key.length())
+                                 & (SIZE - 1);
+                    if (used[bucket]) {
+                        perfect = false;
+                        break;
+                    }
+                    used[bucket] = true;
+                }
+                if (perfect) {
+                    return new int[]{first, last};
+                }
+            }
+        }
+        throw new IllegalStateException("No perfect hash for the keyword table");
+    }
+}
@@ -0,0 +1,148 @@
+package scanner;
+
+import interpreter.Interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lexes a large source in chunks on a {@link ForkJoinPool}. A quick pre-pass finds chunk boundaries just
+ * after newlines that are outside strings and comments, where a fresh {@link Scanner} starts in the same
+ * state the sequential one would be in. Every chunk is scanned with lines counted from 1 and a private
+ * {@link SymbolTable}; the merge shifts lines by the newlines of the preceding chunks and maps symbols to
+ * their global IDs.
+ */
+public final class ParallelScanner {
+
+    /**
+     * Sources shorter than this per worker are not worth splitting.
+     */
+    private static final int MIN_CHUNK = 1 << 18;
+
+    private ParallelScanner() {
+    }
+
+    public static TokenArena scan(Source source) {
+        return scan(source, ForkJoinPool.commonPool());
+    }
+
+    public static TokenArena scan(Source source, ForkJoinPool pool) {
+        int chunkCount = Math.min(pool.getParallelism() * 4, source.length() / MIN_CHUNK);
+        int[] bounds = split(source, chunkCount);
+        if (bounds.length <= 2) {
+            return new Scanner(source).scanTokens();
+        }
+
+        List<Scanner> scanners = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            Scanner scanner = new Scanner(source, bounds[i], bounds[i + 1], new SymbolTable());
+            scanners.add(scanner);
+            tasks.add(ForkJoinTask.adapt(scanner::scanTokens));
+        }
+        pool.invoke(all(tasks));
+
+        int[] offsets = new int[scanners.size()];
+        int[] lineOffsets = new int[scanners.size()];
+        int count = 0;
+        int lineOffset = 0;
+        for (int i = 0; i < scanners.size(); i++) {
+            Scanner scanner = scanners.get(i);
+            if (scanner.getErrorMessage() != null) {
+                Interpreter.error(scanner.getErrorLine() + lineOffset, "", scanner.getErrorMessage());
+                System.exit(1);
+            }
+            offsets[i] = count;
+            lineOffsets[i] = lineOffset;
+            count += scanner.getArena().filled();
+            lineOffset += scanner.getLine() - 1;
+        }
+
+        TokenArena merged = new TokenArena(source, count + 1);
+        List<ForkJoinTask<?>> copies = new ArrayList<>();
+        for (int i = 0; i < scanners.size(); i++) {
+            Scanner scanner = scanners.get(i);
+            int at = offsets[i];
+            int shift = lineOffsets[i];
+            copies.add(ForkJoinTask.adapt(() -> merged.copyChunk(scanner.getArena(), at, shift,
+                                                                 Symbols.internAll(scanner.getChunkSymbols()))));
+        }
+        pool.invoke(all(copies));
+        merged.setFilled(count);
+        merged.add(TokenType.END, -1, -1, lineOffset + 1);
+        return merged;
+    }
+
+    /**
+     * Offsets {@code 0 = b0 < b1 < ... < bn = length} of at most {@code chunkCount} chunks. Mirrors the
+     * scanner's handling of strings, comments and character literals, and stops as soon as the last
+     * boundary is placed.
+     */
+    static int[] split(Source source, int chunkCount) {
+        int length = source.length();
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int next = 1;
+        int i = 0;
+        while (i < length && next < chunkCount) {
+            char c = source.charAt(i);
+            if (c == '"') {
+                i = skipPast(source, i + 1, '"');
+            } else if (c == '(' && i + 1 < length && source.charAt(i + 1) == '*') {
+                i = skipComment(source, i + 2);
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '\'') {
+                i++;
+                if (i < length) {
+                    i += source.sequenceLength(i);
+                }
+                i++;
+            } else {
+                i++;
+                if (c == '\n' && i >= (long) length * next / chunkCount) {
+                    if (i < length) {
+                        bounds.add(i);
+                    }
+                    next++;
+                }
+            }
+        }
+        bounds.add(length);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int skipPast(Source source, int from, char end) {
+        int length = source.length();
+        for (int i = from; i < length; i++) {
+            if (source.charAt(i) == end) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static int skipComment(Source source, int from) {
+        int length = source.length();
+        for (int i = from; i + 1 < length; i++) {
+            if (source.charAt(i) == '*' && source.charAt(i + 1) == ')') {
+                return i + 2;
+            }
+        }
+        return length;
+    }
+
+    private static RecursiveAction all(List<ForkJoinTask<?>> tasks) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        };
+    }
+}
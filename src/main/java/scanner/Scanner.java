@@ -1,8 +1,5 @@
 package scanner;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 import interpreter.Interpreter;
 
 public class Scanner {
@@ -11,52 +8,129 @@ public class Scanner {
     private int current;
     private int line;
 
-    private final String source;
-    private final List<Token> tokens = new ArrayList<>();
+    private final Source source;
+    private final int limit;
+    private final TokenArena tokens;
+    private final SymbolTable chunkSymbols;
+    private boolean finished;
+    private String errorMessage;
+    private int errorLine;
 
     public Scanner(String source) {
+        this(Source.of(source));
+    }
+
+    public Scanner(Source source) {
         this.source = source;
+        this.limit = source.length();
+        this.tokens = new TokenArena(source);
+        this.chunkSymbols = null;
         this.start = 0;
         this.current = 0;
         this.line = 1;
     }
 
-    public static List<Token> getTokens(String source) {
+    /**
+     * Scanner for {@code source[from, to)} as one chunk of a parallel scan: lines are counted from 1,
+     * identifiers are interned into {@code chunkSymbols}, no END token is added and errors are recorded
+     * instead of reported.
+     */
+    Scanner(Source source, int from, int to, SymbolTable chunkSymbols) {
+        this.source = source;
+        this.limit = to;
+        this.tokens = new TokenArena(source, Math.max(16, (to - from) / 4));
+        this.chunkSymbols = chunkSymbols;
+        this.start = from;
+        this.current = from;
+        this.line = 1;
+    }
+
+    public static TokenArena getTokens(String source) {
         return new Scanner(source).scanTokens();
     }
 
-    public List<Token> scanTokens() {
+    public TokenArena scanTokens() {
+        while (scanNext()) {
+            // Keep going until the END token has been added.
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the arena without scanning anything yet; tokens are scanned as the reader asks for them.
+     */
+    public TokenArena scanIncrementally() {
+        tokens.attach(this);
+        return tokens;
+    }
+
+    /**
+     * Scans until at least one more token is in the arena. Returns false once the END token has been added.
+     */
+    boolean scanNext() {
+        if (finished) {
+            return false;
+        }
+        int count = tokens.filled();
         while (!isAtEnd()) {
             // We are at the beginning of the next lexeme.
             start = current;
             scanToken();
+            if (tokens.filled() > count) {
+                return true;
+            }
         }
 
-        tokens.add(new Token(
-            TokenType.END,
-            TokenType.END.getKey(),
-            TokenType.END.getKey(),
-            line)
-        );
+        finished = true;
+        if (chunkSymbols != null) {
+            return false;
+        }
+        tokens.add(TokenType.END, -1, -1, line);
+        return true;
+    }
 
+    TokenArena getArena() {
         return tokens;
     }
 
+    SymbolTable getChunkSymbols() {
+        return chunkSymbols;
+    }
+
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    int getErrorLine() {
+        return errorLine;
+    }
+
+    private void error(String message) {
+        if (chunkSymbols == null) {
+            Interpreter.error(line, "", message);
+            System.exit(1);
+        }
+        if (errorMessage == null) {
+            errorMessage = message;
+            errorLine = line;
+        }
+        current = limit;
+    }
+
     private void scanToken() {
         char c = advance();
         switch (c) {
             case '(':
                 if (match('*')) {
-                    // A comment goes until the end of the line.
-                    while (!(String.valueOf(peek()) +
-                           source.charAt(current + 1)).equals("*)") && !isAtEnd()) {
+                    // A comment goes until the closing "*)".
+                    while (!isAtEnd() && !(peek() == '*' && peekNext() == ')')) {
                         if (peek() == '\n') line++;
-                        advance();
+                        current++;
                     }
-                    advance();
-                    if (advance() != ')') {
-                        Interpreter.error(line, "", "Unterminated comment.");
-                        System.exit(1);
+                    if (isAtEnd()) {
+                        error("Unterminated comment.");
+                    } else {
+                        current += 2;
                     }
 
                 } else {
@@ -140,9 +214,9 @@ public class Scanner {
                 string();
                 break;
             case '\'':
-                advance();
-                addToken(TokenType.CHAR, peek());
-                advance();
+                if (!isAtEnd()) current += source.sequenceLength(current);
+                addToken(TokenType.CHAR);
+                if (!isAtEnd()) advance();
                 break;
             default:
                 if (isDigit(c)) {
@@ -150,8 +224,7 @@ public class Scanner {
                 } else if (isAlpha(c)) {
                     identifier();
                 } else {
-                    Interpreter.error(line, "","Unexpected character.");
-                    System.exit(1);
+                    error("Unexpected character.");
                 }
                 break;
         }
@@ -159,10 +232,15 @@ public class Scanner {
 
     private void identifier() {
         while (isAlphaNumeric(peek())) advance();
-        String text = source.substring(start, current);
-        TokenType type = TokenType.findByKey(text);
-        if (type == null) type = TokenType.IDENT;
-        addToken(type);
+        TokenType type = Keywords.find(source, start, current);
+        if (type == null) {
+            int symbol = chunkSymbols == null
+                ? Symbols.intern(source, start, current)
+                : chunkSymbols.intern(source, start, current);
+            tokens.add(TokenType.IDENT, start, current, line, symbol);
+        } else {
+            addToken(type);
+        }
     }
 
     private boolean isAlpha(char c) {
@@ -176,7 +254,7 @@ public class Scanner {
     }
 
     private char peekNext() {
-        if (current + 1 >= source.length()) return '\0';
+        if (current + 1 >= limit) return '\0';
         return source.charAt(current + 1);
     }
 
@@ -191,8 +269,7 @@ public class Scanner {
             while (isDigit(peek())) advance();
         }
 
-        addToken(TokenType.NUMBER,
-            Double.parseDouble(source.substring(start, current)));
+        addToken(TokenType.NUMBER);
     }
 
     private boolean isDigit(char c) {
@@ -200,25 +277,18 @@ public class Scanner {
     }
 
     private void string() {
-        char peeked = peek();
-        while (!Objects.equals(peeked, '"')
-//            && !Objects.equals(peeked, '\'') && !isAtEnd()
-        ) {
+        while (peek() != '"' && !isAtEnd()) {
             if (peek() == '\n') line++;
             advance();
-            peeked = peek();
         }
 
         if (isAtEnd()) {
-            Interpreter.error(line, "", "Unterminated string.");
-            System.exit(1);
+            error("Unterminated string.");
             return;
         }
 
         advance();
-
-        String value = source.substring(start + 1, current - 1);
-        addToken(TokenType.STRING, value);
+        addToken(TokenType.STRING);
     }
 
     private char peek() {
@@ -239,16 +309,11 @@ public class Scanner {
     }
 
     private void addToken(TokenType type) {
-        addToken(type, type.getKey());
-    }
-
-    private void addToken(TokenType type, Object literal) {
-        String text = source.substring(start, current);
-        tokens.add(new Token(type, text, literal, line));
+        tokens.add(type, start, current, line);
     }
 
     private boolean isAtEnd() {
-        return current >= source.length();
+        return current >= limit;
     }
 
     public int getStart() {
@@ -0,0 +1,108 @@
+package scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * UTF-8 encoded program text, usually memory-mapped straight from the source file so that it never has to be
+ * decoded into one large String. All offsets are byte offsets; {@link #charAt} exposes one byte per index,
+ * which is exact for the ASCII the scanner dispatches on, while {@link #text} decodes a range as UTF-8 for
+ * lexemes of strings and comments.
+ */
+public final class Source implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final int length;
+    private byte[] digest;
+
+    private Source(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.length = bytes.limit();
+    }
+
+    public static Source map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Source file too large: " + path);
+            }
+            return new Source(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static Source of(String text) {
+        return new Source(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static Source of(byte[] bytes) {
+        return new Source(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * The byte at {@code index} zero-extended to a char.
+     */
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    /**
+     * Decodes {@code [start, end)}; ranges without multi-byte sequences are copied byte for byte.
+     */
+    public String text(int start, int end) {
+        byte[] range = new byte[end - start];
+        bytes.get(start, range);
+        for (byte b : range) {
+            if (b < 0) {
+                return new String(range, StandardCharsets.UTF_8);
+            }
+        }
+        return new String(range, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Number of bytes in the UTF-8 sequence starting at {@code index}.
+     */
+    public int sequenceLength(int index) {
+        int lead = bytes.get(index) & 0xFF;
+        int expected = lead < 0x80 ? 1 : lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+        return Math.min(expected, length - index);
+    }
+
+    /**
+     * SHA-256 of the whole text, identifying the exact source a precompiled program was built from.
+     */
+    public byte[] digest() {
+        if (digest == null) {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                sha.update(bytes.duplicate().clear());
+                digest = sha.digest();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return digest.clone();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text(0, length);
+    }
+}
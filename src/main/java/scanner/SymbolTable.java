@@ -0,0 +1,109 @@
+package scanner;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing table assigning dense int IDs to identifier spellings. Not thread safe; {@link Symbols}
+ * guards the shared instance, and parallel lexing gives every chunk a private table that is folded into the
+ * shared one afterwards.
+ */
+public final class SymbolTable {
+
+    private volatile String[] names = new String[256];
+    private int[] hashes = new int[256];
+    private int[] table = new int[1024];
+    private int count;
+
+    /**
+     * Returns the ID of {@code text[start, end)}, assigning the next free ID if it was never seen before.
+     */
+    public int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = table.length - 1;
+        for (int at = hash & mask; ; at = (at + 1) & mask) {
+            int entry = table[at];
+            if (entry == 0) {
+                return insert(text.subSequence(start, end).toString(), hash, at);
+            }
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(names[id], text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of {@code name}, or {@link Symbols#NONE} if it was never interned.
+     */
+    public int lookup(String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int at = hash & mask; ; at = (at + 1) & mask) {
+            int entry = table[at];
+            if (entry == 0) {
+                return Symbols.NONE;
+            }
+            int id = entry - 1;
+            if (hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private int insert(String name, int hash, int at) {
+        int id = count++;
+        if (id == hashes.length) {
+            hashes = Arrays.copyOf(hashes, id * 2);
+            names = Arrays.copyOf(names, id * 2);
+        }
+        hashes[id] = hash;
+        names[id] = name;
+        table[at] = id + 1;
+        if (count * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        int mask = grown.length - 1;
+        for (int id = 0; id < count; id++) {
+            int at = hashes[id] & mask;
+            while (grown[at] != 0) {
+                at = (at + 1) & mask;
+            }
+            grown[at] = id + 1;
+        }
+        table = grown;
+    }
+
+    // same function as String.hashCode, so that lookups by String agree with interned source ranges
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static boolean matches(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package scanner;
+
+/**
+ * Interning table for identifiers. Every distinct spelling gets a dense int ID the first time it is scanned;
+ * later occurrences are matched against the source in place, without allocating a String. Scopes and
+ * frames key on these IDs instead of re-hashing lexemes.
+ */
+public final class Symbols {
+
+    public static final int NONE = -1;
+
+    private static final SymbolTable table = new SymbolTable();
+
+    private Symbols() {
+    }
+
+    public static int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Returns the ID of {@code text[start, end)}, assigning the next free ID if it was never seen before.
+     */
+    public static synchronized int intern(CharSequence text, int start, int end) {
+        return table.intern(text, start, end);
+    }
+
+    /**
+     * Returns the ID of {@code name}, or {@link #NONE} if no such identifier was ever interned.
+     */
+    public static synchronized int lookup(String name) {
+        return table.lookup(name);
+    }
+
+    /**
+     * Global IDs for every entry of a chunk-local table, indexed by local ID.
+     */
+    static synchronized int[] internAll(SymbolTable local) {
+        int[] ids = new int[local.size()];
+        for (int id = 0; id < ids.length; id++) {
+            String name = local.name(id);
+            ids[id] = table.intern(name, 0, name.length());
+        }
+        return ids;
+    }
+
+    public static String name(int id) {
+        return table.name(id);
+    }
+
+    public static synchronized int size() {
+        return table.size();
+    }
+}
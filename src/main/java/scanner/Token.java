@@ -7,12 +7,18 @@ public final class Token {
     private final String lexeme;
     private final Object literal;
     private final int line;
+    private final int symbol;
 
     public Token(TokenType type, String lexeme, Object literal, int line) {
+        this(type, lexeme, literal, line, TokenType.IDENT.equals(type) ? Symbols.intern(lexeme) : Symbols.NONE);
+    }
+
+    public Token(TokenType type, String lexeme, Object literal, int line, int symbol) {
         this.type = type;
         this.lexeme = lexeme;
         this.literal = literal;
         this.line = line;
+        this.symbol = symbol;
     }
 
     public String toString() {
@@ -35,6 +41,13 @@ public final class Token {
         return line;
     }
 
+    /**
+     * Interned ID of an identifier, {@link Symbols#NONE} for every other token.
+     */
+    public int symbol() {
+        return symbol;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
@@ -0,0 +1,199 @@
+package scanner;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Tokens of one source stored as parallel primitive arrays: type ordinal, start and end offset, line and
+ * symbol ID (see {@link Symbols}) of identifiers. Lexemes and literals are only cut out of the source when a
+ * {@link Token} is requested, so punctuation and keywords the parser merely checks the type of never
+ * allocate anything.
+ * <p>
+ * An arena handed out by {@link Scanner#scanIncrementally()} is filled on demand: reading past the tokens
+ * scanned so far makes the scanner continue, so parsing starts before the whole source has been lexed.
+ */
+public final class TokenArena extends AbstractList<Token> implements RandomAccess {
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+
+    private final Source source;
+    private Scanner scanner;
+    private byte[] types;
+    private int[] starts;
+    private int[] ends;
+    private int[] lines;
+    private int[] symbols;
+    private int size;
+
+    public TokenArena(Source source) {
+        this(source, Math.min(MAX_INITIAL_CAPACITY, Math.max(INITIAL_CAPACITY, source.length() / 8)));
+    }
+
+    public TokenArena(Source source, int capacity) {
+        this.source = source;
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.lines = new int[capacity];
+        this.symbols = new int[capacity];
+    }
+
+    /**
+     * Appends a token covering {@code source[start, end)}. A negative {@code start} marks a synthetic token
+     * whose lexeme is the key of its type.
+     */
+    public void add(TokenType type, int start, int end, int line) {
+        add(type, start, end, line, Symbols.NONE);
+    }
+
+    public void add(TokenType type, int start, int end, int line, int symbol) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        symbols[size] = symbol;
+        size++;
+    }
+
+    public TokenType type(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    public int line(int index) {
+        checkIndex(index);
+        return lines[index];
+    }
+
+    public int symbol(int index) {
+        checkIndex(index);
+        return symbols[index];
+    }
+
+    public int start(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public int end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    public String lexeme(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        if (symbols[index] != Symbols.NONE) {
+            return Symbols.name(symbols[index]);
+        }
+        return start < 0 ? TYPES[types[index]].getKey() : source.text(start, ends[index]);
+    }
+
+    public Object literal(int index) {
+        TokenType type = type(index);
+        int start = starts[index];
+        if (start < 0) {
+            return type.getKey();
+        }
+        int end = ends[index];
+        return switch (type) {
+            case NUMBER -> Double.parseDouble(source.text(start, end));
+            case STRING -> source.text(start + 1, end - 1);
+            // the lexeme stops before the closing quote, which is what the literal has always held
+            case CHAR -> end < source.length() ? source.charAt(end) : '\0';
+            default -> type.getKey();
+        };
+    }
+
+    /**
+     * Materializes the token at {@code index}; every call returns a new, equal {@link Token}.
+     */
+    @Override
+    public Token get(int index) {
+        return new Token(type(index), lexeme(index), literal(index), lines[index], symbols[index]);
+    }
+
+    /**
+     * Whether a token exists at {@code index}, scanning up to it if necessary.
+     */
+    public boolean has(int index) {
+        if (index >= size) {
+            fill(index);
+        }
+        return index >= 0 && index < size;
+    }
+
+    /**
+     * Number of tokens in the whole source; scans the rest of it first.
+     */
+    @Override
+    public int size() {
+        fill(Integer.MAX_VALUE);
+        return size;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Copies the tokens of a chunk to {@code [at, at + chunk.filled())}, shifting lines by
+     * {@code lineOffset} and translating chunk-local symbol IDs through {@code symbolIds}.
+     */
+    void copyChunk(TokenArena chunk, int at, int lineOffset, int[] symbolIds) {
+        int count = chunk.size;
+        System.arraycopy(chunk.types, 0, types, at, count);
+        System.arraycopy(chunk.starts, 0, starts, at, count);
+        System.arraycopy(chunk.ends, 0, ends, at, count);
+        for (int i = 0; i < count; i++) {
+            lines[at + i] = chunk.lines[i] + lineOffset;
+            int symbol = chunk.symbols[i];
+            symbols[at + i] = symbol == Symbols.NONE ? Symbols.NONE : symbolIds[symbol];
+        }
+    }
+
+    void setFilled(int size) {
+        this.size = size;
+    }
+
+    void attach(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    int filled() {
+        return size;
+    }
+
+    private void fill(int index) {
+        while (index >= size && scanner != null) {
+            if (!scanner.scanNext()) {
+                scanner = null;
+            }
+        }
+    }
+
+    // the arrays may be reallocated while filling, so callers must not read a field before this returns
+    private void checkIndex(int index) {
+        if (index >= size) {
+            fill(index);
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length + (types.length >> 1) + 16;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+    }
+}
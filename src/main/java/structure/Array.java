@@ -1,22 +1,52 @@
 package structure;
 
-import java.util.*;
+import interpreter.Interpreter;
+
+import java.util.List;
+import java.util.Objects;
 
 public class Array {
 
     private String name;
-    private Map<Integer, Set<Integer>> range;
+    private final List<Dimension> dimensions;
     private String type;
-    private Map<CompositeKey, Object> indexValueMap;
+    private final Dimension[] bounds;
+    private final ArrayStorage storage;
 
     public Array(String name,
-                 Map<Integer, Set<Integer>> range,
-                 String type,
-                 Map<CompositeKey, Object> indexValueMap) {
+                 List<Dimension> dimensions,
+                 String type) {
         this.name = name;
-        this.range = range;
+        this.dimensions = dimensions;
         this.type = type;
-        this.indexValueMap = indexValueMap;
+        this.bounds = dimensions.toArray(new Dimension[0]);
+        this.storage = ArrayStorage.forType(type, (int) Dimension.elementCount(dimensions));
+    }
+
+    /**
+     * Row-major contribution of {@code index} in the given dimension; summing it over all dimensions
+     * yields the element offset. An index out of bounds is reported at {@code line}, the line of the access.
+     */
+    public int offset(int dimension, int index, int line) {
+        Dimension bound = bounds[dimension];
+        if (!bound.contains(index)) {
+            Interpreter.error(line, " at '" + name + "'",
+                              "Index " + index + " is out of bounds " + bound);
+            System.exit(1);
+        }
+        return bound.offset(index);
+    }
+
+    public Object get(int offset) {
+        return storage.get(offset);
+    }
+
+    public void set(int offset, Object value) {
+        storage.set(offset, value);
+    }
+
+    public int getDimensions() {
+        return bounds.length;
     }
 
     public String getName() {
@@ -28,13 +58,8 @@ public class Array {
         return this;
     }
 
-    public Map<Integer, Set<Integer>> getRange() {
-        return range;
-    }
-
-    public Array setRange(Map<Integer, Set<Integer>> range) {
-        this.range = range;
-        return this;
+    public List<Dimension> getRange() {
+        return dimensions;
     }
 
     public String getType() {
@@ -46,13 +71,8 @@ public class Array {
         return this;
     }
 
-    public Map<CompositeKey, Object> getIndexValueMap() {
-        return indexValueMap;
-    }
-
-    public Array setIndexValueMap(Map<CompositeKey, Object> indexValueMap) {
-        this.indexValueMap = indexValueMap;
-        return this;
+    public ArrayStorage getStorage() {
+        return storage;
     }
 
     @Override
@@ -63,36 +83,11 @@ public class Array {
         return Objects.equals(getName(), array.getName())
             && Objects.equals(getRange(), array.getRange())
             && Objects.equals(getType(), array.getType())
-            && Objects.equals(getIndexValueMap(), array.getIndexValueMap());
+            && Objects.equals(getStorage(), array.getStorage());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getName(), getRange(), getType(), getIndexValueMap());
-    }
-
-    public static class CompositeKey {
-        private final Integer[] index;
-
-        public CompositeKey(Integer... index) {
-            this.index = index;
-        }
-
-        public Integer[] getIndex() {
-            return index;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CompositeKey that = (CompositeKey) o;
-            return Arrays.equals(getIndex(), that.getIndex());
-        }
-
-        @Override
-        public int hashCode() {
-            return Arrays.hashCode(getIndex());
-        }
+        return Objects.hash(getName(), getRange(), getType(), getStorage());
     }
 }
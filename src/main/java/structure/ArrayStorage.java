@@ -0,0 +1,331 @@
+package structure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public abstract class ArrayStorage {
+
+    public static final int DENSE_LIMIT = 1 << 24;
+
+    public static ArrayStorage forType(String type, int size) {
+        if (size > DENSE_LIMIT) {
+            return new SparseStorage(zeroOf(type));
+        }
+        return switch (type) {
+            case "INTEGER", "CARDINAL" -> new IntStorage(size);
+            case "REAL" -> new RealStorage(size);
+            case "CHAR" -> new CharStorage(size);
+            case "BOOLEAN" -> new BooleanStorage(size);
+            default -> new ObjectStorage(size);
+        };
+    }
+
+    /**
+     * Value of an element that was never written, matching the zero-filled dense storages.
+     */
+    public static Object zeroOf(String type) {
+        return switch (type) {
+            case "INTEGER", "CARDINAL" -> 0;
+            case "REAL" -> 0.0;
+            case "CHAR" -> '\0';
+            case "BOOLEAN" -> false;
+            default -> null;
+        };
+    }
+
+    public abstract Object get(int offset);
+
+    public abstract void set(int offset, Object value);
+
+    public int getInt(int offset) {
+        return toInt(get(offset));
+    }
+
+    public void setInt(int offset, int value) {
+        set(offset, value);
+    }
+
+    public double getReal(int offset) {
+        return toReal(get(offset));
+    }
+
+    public void setReal(int offset, double value) {
+        set(offset, value);
+    }
+
+    public abstract void clear();
+
+    static int toInt(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value instanceof Character) {
+            return (Character) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return 0;
+    }
+
+    static double toReal(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof Character) {
+            return (Character) value;
+        }
+        return 0.0;
+    }
+
+    public static class IntStorage extends ArrayStorage {
+        private final int[] values;
+
+        public IntStorage(int size) {
+            this.values = new int[size];
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values[offset] = toInt(value);
+        }
+
+        @Override
+        public int getInt(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void setInt(int offset, int value) {
+            values[offset] = value;
+        }
+
+        @Override
+        public double getReal(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IntStorage that && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    public static class RealStorage extends ArrayStorage {
+        private final double[] values;
+
+        public RealStorage(int size) {
+            this.values = new double[size];
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values[offset] = toReal(value);
+        }
+
+        @Override
+        public double getReal(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void setReal(int offset, double value) {
+            values[offset] = value;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, 0.0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RealStorage that && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    public static class CharStorage extends ArrayStorage {
+        private final char[] values;
+
+        public CharStorage(int size) {
+            this.values = new char[size];
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values[offset] = (char) toInt(value);
+        }
+
+        @Override
+        public int getInt(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void setInt(int offset, int value) {
+            values[offset] = (char) value;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, '\0');
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CharStorage that && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    public static class BooleanStorage extends ArrayStorage {
+        private final boolean[] values;
+
+        public BooleanStorage(int size) {
+            this.values = new boolean[size];
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values[offset] = Boolean.TRUE.equals(value);
+        }
+
+        @Override
+        public int getInt(int offset) {
+            return values[offset] ? 1 : 0;
+        }
+
+        @Override
+        public void setInt(int offset, int value) {
+            values[offset] = value != 0;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, false);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BooleanStorage that && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    public static class ObjectStorage extends ArrayStorage {
+        private final Object[] values;
+
+        public ObjectStorage(int size) {
+            this.values = new Object[size];
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values[offset];
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values[offset] = value;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(values, null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ObjectStorage that && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * Fallback for declarations whose element count exceeds {@link #DENSE_LIMIT}; only written elements
+     * occupy memory, the others read as {@code zero}.
+     */
+    public static class SparseStorage extends ArrayStorage {
+        private final Map<Integer, Object> values = new HashMap<>();
+        private final Object zero;
+
+        public SparseStorage(Object zero) {
+            this.zero = zero;
+        }
+
+        @Override
+        public Object get(int offset) {
+            return values.getOrDefault(offset, zero);
+        }
+
+        @Override
+        public void set(int offset, Object value) {
+            values.put(offset, value);
+        }
+
+        @Override
+        public void clear() {
+            values.clear();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SparseStorage that && Objects.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+}
@@ -5,7 +5,9 @@ import ast.Statement;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import scanner.ParallelScanner;
 import scanner.Scanner;
+import scanner.Source;
 
 public class Block {
 
@@ -15,10 +17,32 @@ public class Block {
         this.statementList = new LinkedList<>();
     }
 
+    /**
+     * Wraps statements that were already parsed, e.g. loaded from a precompiled program.
+     */
+    public static Block of(List<Statement> statements) {
+        Block block = new Block();
+        block.statementList.addAll(statements);
+        return block;
+    }
+
     public static Block readBlock(String source) {
+        return readBlock(Source.of(source));
+    }
+
+    public static Block readBlock(Source source) {
+        return readBlock(source, false);
+    }
+
+    /**
+     * Parses {@code source}; with {@code parallelLexing} the whole source is lexed up front in chunks on the
+     * common fork-join pool, otherwise tokens are scanned as the parser reaches them.
+     */
+    public static Block readBlock(Source source, boolean parallelLexing) {
         Block block = new Block();
-        Scanner scanner = new Scanner(source);
-        Parser parser = new Parser(scanner.scanTokens());
+        Parser parser = new Parser(parallelLexing
+                                   ? ParallelScanner.scan(source)
+                                   : new Scanner(source).scanIncrementally());
         List<Statement> statements = block.statementList;
         statements.add(parser.readModule());
         statements.add(parser.readImports());
@@ -0,0 +1,95 @@
+package structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public final class Dimension {
+
+    private final int low;
+    private final int high;
+    private final int stride;
+
+    public Dimension(int low, int high) {
+        this(low, high, 1);
+    }
+
+    public Dimension(int low, int high, int stride) {
+        this.low = low;
+        this.high = high;
+        this.stride = stride;
+    }
+
+    /**
+     * Assigns row-major strides to the given bounds, the last dimension varying fastest. Offsets are
+     * {@code int}s, so an array may have at most {@link Integer#MAX_VALUE} elements; the analyzer rejects
+     * larger declarations before any array is created.
+     */
+    public static List<Dimension> rowMajor(List<Dimension> dimensions) {
+        List<Dimension> laidOut = new ArrayList<>(dimensions);
+        long stride = 1;
+        for (int i = laidOut.size() - 1; i >= 0; i--) {
+            Dimension dimension = laidOut.get(i);
+            laidOut.set(i, new Dimension(dimension.low, dimension.high, (int) stride));
+            stride *= dimension.length();
+        }
+        return List.copyOf(laidOut);
+    }
+
+    /**
+     * Number of elements of an array with the given bounds. Counting stops once it exceeds
+     * {@link Integer#MAX_VALUE}, so the result never overflows.
+     */
+    public static long elementCount(List<Dimension> dimensions) {
+        long count = 1;
+        for (Dimension dimension : dimensions) {
+            count *= dimension.length();
+            if (count > Integer.MAX_VALUE) {
+                return count;
+            }
+        }
+        return count;
+    }
+
+    public boolean contains(int index) {
+        return index >= low && index <= high;
+    }
+
+    public int offset(int index) {
+        return (index - low) * stride;
+    }
+
+    public long length() {
+        return (long) high - low + 1;
+    }
+
+    public int getLow() {
+        return low;
+    }
+
+    public int getHigh() {
+        return high;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Dimension dimension = (Dimension) o;
+        return low == dimension.low && high == dimension.high && stride == dimension.stride;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(low, high, stride);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + low + ".." + high + "]";
+    }
+}
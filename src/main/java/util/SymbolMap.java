@@ -0,0 +1,76 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map keyed on symbol IDs; scopes are small, so a probe usually hits on the first slot.
+ */
+public class SymbolMap<V> {
+
+    private int[] keys = new int[8];
+    private Object[] values = new Object[8];
+    private int size;
+
+    public SymbolMap() {
+        Arrays.fill(keys, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int symbol) {
+        if (symbol < 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int at = mix(symbol) & mask; ; at = (at + 1) & mask) {
+            int key = keys[at];
+            if (key == symbol) {
+                return (V) values[at];
+            } else if (key == -1) {
+                return null;
+            }
+        }
+    }
+
+    public void put(int symbol, V value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int at = mix(symbol) & mask;
+        while (keys[at] != -1 && keys[at] != symbol) {
+            at = (at + 1) & mask;
+        }
+        if (keys[at] == -1) {
+            keys[at] = symbol;
+            size++;
+        }
+        values[at] = value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        Arrays.fill(keys, -1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != -1) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(int symbol) {
+        return symbol * 0x9E3779B9 >>> 16 ^ symbol;
+    }
+}
@@ -0,0 +1,1042 @@
+package vm;
+
+import ast.BasicExpression;
+import ast.Operator;
+import ast.Statement;
+import context.ApplicationContext;
+import context.FrameLayout;
+import evaluator.BinaryOperation;
+import evaluator.LiteralExpressionEvaluator;
+import library.Native;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Lowers the resolved AST into register bytecode. Every frame slot gets a register in the file matching its
+ * declared type, so INTEGER, CARDINAL, CHAR, BOOLEAN and REAL values never get boxed; values whose type is
+ * not known statically live in object registers and go through the expression's {@link BinaryOperation}.
+ * Must run after {@link analyzer.ScopeResolver}.
+ */
+public class BytecodeCompiler {
+
+    static final int INTEGER = 0;
+    static final int CHAR = 1;
+    static final int BOOLEAN = 2;
+    static final int REAL = 3;
+    static final int OBJECT = 4;
+
+    private final List<Function> functions = new ArrayList<>();
+    private final Map<Statement.Procedure, Integer> functionIndex = new IdentityHashMap<>();
+    private final Map<FrameLayout, SlotMap> slotMaps = new IdentityHashMap<>();
+
+    /**
+     * Compiles the module body, preceded by the module constants, and every procedure reachable from it.
+     */
+    public Program compile(List<Statement> moduleStatements, Statement.Main main, FrameLayout globalLayout) {
+        Function function = new Function("main");
+        functions.add(function);
+        build(function, globalLayout, builder -> {
+            for (Statement statement : moduleStatements) {
+                if (statement instanceof Statement.Const) {
+                    builder.statement(statement);
+                }
+            }
+            builder.block(main.getBody());
+            builder.emit(Opcode.HALT);
+        });
+        return new Program(functions.toArray(new Function[0]), 0);
+    }
+
+    private int compileProcedure(Statement.Procedure procedure) {
+        Integer index = functionIndex.get(procedure);
+        if (index != null) {
+            return index;
+        }
+        Function function = new Function(procedure.getName().lexeme());
+        index = functions.size();
+        functions.add(function);
+        functionIndex.put(procedure, index);
+
+        FrameLayout layout = procedure.getLayout();
+        SlotMap slots = slotMap(layout);
+        int parameterCount = layout.getParameterCount();
+        function.parameterKinds = Arrays.copyOf(slots.kinds, parameterCount);
+        function.parameterRegisters = Arrays.copyOf(slots.registers, parameterCount);
+
+        build(function, layout, builder -> {
+            builder.block(layout.getStatements());
+            builder.emit(Opcode.RET, -1);
+        });
+        return index;
+    }
+
+    /**
+     * Emits the function twice when it uses integer literals: the first pass finds them, the second pins each
+     * to a register loaded once on entry instead of re-materializing it inside loops.
+     */
+    private void build(Function function, FrameLayout layout, Consumer<Builder> body) {
+        Builder builder = new Builder(function, layout, Map.of());
+        body.accept(builder);
+        if (!builder.literals.isEmpty()) {
+            builder = new Builder(function, layout, builder.literals);
+            body.accept(builder);
+        }
+        builder.finish();
+    }
+
+    static int kindOf(String type) {
+        if (type == null) {
+            return OBJECT;
+        }
+        return switch (type) {
+            case "INTEGER", "CARDINAL" -> INTEGER;
+            case "CHAR" -> CHAR;
+            case "BOOLEAN" -> BOOLEAN;
+            case "REAL" -> REAL;
+            default -> OBJECT;
+        };
+    }
+
+    private static int kindOfValue(Object value) {
+        if (value instanceof Integer) {
+            return INTEGER;
+        } else if (value instanceof Character) {
+            return CHAR;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Double) {
+            return REAL;
+        }
+        return OBJECT;
+    }
+
+    private static boolean isInt(int kind) {
+        return kind == INTEGER || kind == CHAR || kind == BOOLEAN;
+    }
+
+    private SlotMap slotMap(FrameLayout layout) {
+        return slotMaps.computeIfAbsent(layout, SlotMap::new);
+    }
+
+    /**
+     * Register assignment of the slots of one layout.
+     */
+    private static final class SlotMap {
+        final int[] kinds;
+        final int[] registers;
+        int intCount;
+        int realCount;
+        int objectCount;
+
+        SlotMap(FrameLayout layout) {
+            kinds = new int[layout.getSize()];
+            registers = new int[layout.getSize()];
+            for (int slot = 0; slot < kinds.length; slot++) {
+                int kind = layout.isArray(slot) ? OBJECT : kindOf(layout.getType(slot));
+                kinds[slot] = kind;
+                if (isInt(kind)) {
+                    registers[slot] = intCount++;
+                } else if (kind == REAL) {
+                    registers[slot] = realCount++;
+                } else {
+                    registers[slot] = objectCount++;
+                }
+            }
+        }
+    }
+
+    private record Operand(int kind, int register) {
+    }
+
+    /**
+     * Emits the code of one function.
+     */
+    private final class Builder {
+        private final Function function;
+        private final FrameLayout layout;
+        private final SlotMap slots;
+        private int[] code = new int[64];
+        private int size;
+        private final List<Object> constants = new ArrayList<>();
+        private final List<Double> realConstants = new ArrayList<>();
+        private int nextInt;
+        private int nextReal;
+        private int nextObject;
+        private int maxInt;
+        private int maxReal;
+        private int maxObject;
+        /** Integer, CHAR and BOOLEAN literals held in registers for the whole activation. */
+        private final Map<Object, Integer> pinned;
+        private final Map<Object, Integer> literals = new LinkedHashMap<>();
+
+        Builder(Function function, FrameLayout layout, Map<Object, Integer> pinned) {
+            this.function = function;
+            this.layout = layout;
+            this.slots = slotMap(layout);
+            this.pinned = pinned;
+            this.nextInt = maxInt = slots.intCount + pinned.size();
+            this.nextReal = maxReal = slots.realCount;
+            this.nextObject = maxObject = slots.objectCount;
+            pinned.forEach((value, register) -> constantInto(value, kindOfValue(value), register));
+        }
+
+        void finish() {
+            function.code = Arrays.copyOf(code, size);
+            function.constants = constants.toArray();
+            function.realConstants = realConstants.stream().mapToDouble(Double::doubleValue).toArray();
+            function.intRegisters = maxInt;
+            function.realRegisters = maxReal;
+            function.objectRegisters = maxObject;
+
+            List<Integer> arrayRegisters = new ArrayList<>();
+            List<Statement.VarArray> arrayDeclarations = new ArrayList<>();
+            for (int slot = 0; slot < layout.getSize(); slot++) {
+                if (layout.isArray(slot)) {
+                    arrayRegisters.add(slots.registers[slot]);
+                    arrayDeclarations.add(layout.getArray(slot));
+                }
+            }
+            function.arrayRegisters = arrayRegisters.stream().mapToInt(Integer::intValue).toArray();
+            function.arrayDeclarations = arrayDeclarations.toArray(new Statement.VarArray[0]);
+        }
+
+        void emit(int... words) {
+            if (size + words.length > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+            }
+            System.arraycopy(words, 0, code, size, words.length);
+            size += words.length;
+        }
+
+        int position() {
+            return size;
+        }
+
+        void patch(int position, int target) {
+            code[position] = target;
+        }
+
+        int constant(Object value) {
+            constants.add(value);
+            return constants.size() - 1;
+        }
+
+        int realConstant(double value) {
+            realConstants.add(value);
+            return realConstants.size() - 1;
+        }
+
+        int temp(int kind) {
+            if (isInt(kind)) {
+                maxInt = Math.max(maxInt, nextInt + 1);
+                return nextInt++;
+            } else if (kind == REAL) {
+                maxReal = Math.max(maxReal, nextReal + 1);
+                return nextReal++;
+            }
+            maxObject = Math.max(maxObject, nextObject + 1);
+            return nextObject++;
+        }
+
+        void fail(String message, int line) {
+            emit(Opcode.FAIL, constant(message), line);
+        }
+
+        // statements
+
+        void block(List<Statement> statements) {
+            if (statements != null) {
+                statements.forEach(this::statement);
+            }
+        }
+
+        void statement(Statement statement) {
+            int savedInt = nextInt;
+            int savedReal = nextReal;
+            int savedObject = nextObject;
+
+            if (statement instanceof Statement.Assignment assignment) {
+                assignment(assignment);
+            } else if (statement instanceof Statement.Call call) {
+                call(call);
+            } else if (statement instanceof Statement.If ifStatement) {
+                ifStatement(ifStatement);
+            } else if (statement instanceof Statement.While whileStatement) {
+                whileStatement(whileStatement);
+            } else if (statement instanceof Statement.For forStatement) {
+                forStatement(forStatement);
+            } else if (statement instanceof Statement.Case caseStatement) {
+                caseStatement(caseStatement);
+            } else if (statement instanceof Statement.Const constant) {
+                int slot = constant.getSlot();
+                expressionInto(constant.getInitializer(), slots.kinds[slot], slots.registers[slot], 0);
+            } else if (statement instanceof Statement.Main main) {
+                block(main.getBody());
+            } else if (statement instanceof Statement.Return returnStatement) {
+                returnStatement(returnStatement);
+            } else if (!(statement instanceof Statement.Var) && !(statement instanceof Statement.VarArray) &&
+                       !(statement instanceof Statement.Procedure)) {
+                fail("Statement is not supported", 0);
+            }
+
+            nextInt = savedInt;
+            nextReal = savedReal;
+            nextObject = savedObject;
+        }
+
+        /**
+         * Returns straight to the caller; the result travels boxed, since the caller's result register is an
+         * object register.
+         */
+        private void returnStatement(Statement.Return returnStatement) {
+            BasicExpression expression = returnStatement.getExpression();
+            if (expression == null || expression instanceof BasicExpression.Empty) {
+                emit(Opcode.RET, -1);
+                return;
+            }
+            if (expression instanceof BasicExpression.ProcedureCall procedureCall && procedureCall.isTailCall()) {
+                tailCall(procedureCall.name.lexeme(), procedureCall.arguments, procedureCall.name.line());
+                return;
+            }
+            Operand result = expression(expression, 0);
+            int boxed = box(List.of(result), 0)[0];
+            emit(Opcode.RET, boxed);
+        }
+
+        private void assignment(Statement.Assignment assignment) {
+            if (assignment.getIdent() instanceof BasicExpression.Variable variable) {
+                if (!variable.isBound()) {
+                    fail("Variable not found", variable.name.line());
+                    return;
+                }
+                store(variable.getDepth(), variable.getSlot(), assignment.getExpression(), variable.name.line());
+                return;
+            }
+
+            BasicExpression.ArrayVariable arrayVariable = (BasicExpression.ArrayVariable) assignment.getIdent();
+            int line = arrayVariable.name.line();
+            if (!arrayVariable.isBound()) {
+                fail("Variable not found", line);
+                return;
+            }
+            int elementKind = elementKind(arrayVariable);
+            int value = temp(elementKind);
+            expressionInto(assignment.getExpression(), elementKind, value, line);
+            int array = arrayRegister(arrayVariable);
+            int offset = offset(arrayVariable, array, line);
+            emit(elementKind == REAL ? Opcode.ASTORE_R : isInt(elementKind) ? Opcode.ASTORE_I : Opcode.ASTORE_O,
+                 array, offset, value);
+        }
+
+        /**
+         * Evaluates {@code expression} into the slot {@code depth} frames up.
+         */
+        private void store(int depth, int slot, BasicExpression expression, int line) {
+            SlotMap target = slotMap(layoutAt(depth));
+            int kind = target.kinds[slot];
+            if (depth == 0) {
+                expressionInto(expression, kind, target.registers[slot], line);
+                return;
+            }
+            int value = temp(kind);
+            expressionInto(expression, kind, value, line);
+            emit(storeUp(kind), depth, target.registers[slot], value);
+        }
+
+        private void call(Statement.Call call) {
+            String name = call.getProcedureName().lexeme();
+            int line = call.getProcedureName().line();
+            List<BasicExpression> arguments = call.getArguments();
+
+            if (ApplicationContext.imports.contains(name)) {
+                terminal(call, name, arguments, line);
+            } else if (Native.supportedProcedures.contains(name)) {
+                if ((name.equals("INC") || name.equals("DEC")) && !arguments.isEmpty() &&
+                    arguments.get(0) instanceof BasicExpression.Variable variable && variable.isBound() &&
+                    slotMap(layoutAt(variable.getDepth())).kinds[variable.getSlot()] == INTEGER) {
+                    step(variable, arguments, name.equals("INC") ? 1 : -1, line);
+                    return;
+                }
+                int result = nativeCall(name, arguments, line);
+                if ((name.equals("INC") || name.equals("DEC")) &&
+                    arguments.get(0) instanceof BasicExpression.Variable variable && variable.isBound()) {
+                    SlotMap target = slotMap(layoutAt(variable.getDepth()));
+                    int kind = target.kinds[variable.getSlot()];
+                    if (variable.getDepth() == 0) {
+                        coerce(new Operand(OBJECT, result), kind, target.registers[variable.getSlot()], line);
+                    } else {
+                        int value = temp(kind);
+                        coerce(new Operand(OBJECT, result), kind, value, line);
+                        emit(storeUp(kind), variable.getDepth(), target.registers[variable.getSlot()], value);
+                    }
+                }
+            } else if (findProcedureDepth(name) >= 0 && call.isTailCall()) {
+                tailCall(name, arguments, line);
+            } else if (findProcedureDepth(name) >= 0) {
+                invoke(name, arguments, -1, line);
+            } else {
+                fail("Procedure not found", line);
+            }
+        }
+
+        private void step(BasicExpression.Variable variable, List<BasicExpression> arguments, int sign, int line) {
+            int register;
+            int depth = variable.getDepth();
+            SlotMap target = slotMap(layoutAt(depth));
+            if (depth == 0) {
+                register = target.registers[variable.getSlot()];
+            } else {
+                register = temp(INTEGER);
+                emit(Opcode.ILOAD_UP, register, depth, target.registers[variable.getSlot()]);
+            }
+
+            if (arguments.size() > 1) {
+                int amount = intOperand(arguments.get(1), line);
+                emit(sign > 0 ? Opcode.IADD : Opcode.ISUB, register, register, amount);
+            } else {
+                emit(Opcode.IADD_CONST, register, register, sign);
+            }
+
+            if (depth != 0) {
+                emit(Opcode.ISTORE_UP, depth, target.registers[variable.getSlot()], register);
+            }
+        }
+
+        private void terminal(Statement.Call call, String name, List<BasicExpression> arguments, int line) {
+            List<Operand> operands = new ArrayList<>();
+            for (BasicExpression argument : arguments) {
+                operands.add(expression(argument, line));
+            }
+
+            switch (name) {
+                case "WriteLn" -> {
+                    emit(Opcode.WRITE_LN);
+                    return;
+                }
+                case "WriteString" -> {
+                    if (operands.size() == 1 && operands.get(0).kind() == OBJECT) {
+                        emit(Opcode.WRITE_STRING, operands.get(0).register());
+                        return;
+                    }
+                }
+                case "WriteChar" -> {
+                    if (operands.size() == 1 && (operands.get(0).kind() == CHAR ||
+                                                 operands.get(0).kind() == INTEGER)) {
+                        emit(Opcode.WRITE_CHAR, operands.get(0).register());
+                        return;
+                    }
+                }
+                case "WriteInt", "WriteCard" -> {
+                    if (operands.size() == 2 && operands.get(0).kind() == INTEGER &&
+                        operands.get(1).kind() == INTEGER) {
+                        emit(name.equals("WriteInt") ? Opcode.WRITE_INT : Opcode.WRITE_CARD,
+                             operands.get(0).register(), operands.get(1).register());
+                        return;
+                    }
+                }
+                case "WriteReal" -> {
+                    if (operands.size() == 2 && operands.get(0).kind() == REAL &&
+                        operands.get(1).kind() == INTEGER) {
+                        emit(Opcode.WRITE_REAL, operands.get(0).register(), operands.get(1).register());
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+
+            int[] boxed = box(operands, line);
+            int[] instruction = new int[3 + boxed.length];
+            instruction[0] = Opcode.TERMINAL;
+            instruction[1] = constant(call);
+            instruction[2] = boxed.length;
+            System.arraycopy(boxed, 0, instruction, 3, boxed.length);
+            emit(instruction);
+        }
+
+        private int nativeCall(String name, List<BasicExpression> arguments, int line) {
+            List<Operand> operands = new ArrayList<>();
+            for (BasicExpression argument : arguments) {
+                operands.add(expression(argument, line));
+            }
+            int[] boxed = box(operands, line);
+            int result = temp(OBJECT);
+            int[] instruction = new int[4 + boxed.length];
+            instruction[0] = Opcode.NATIVE;
+            instruction[1] = result;
+            instruction[2] = constant(name);
+            instruction[3] = boxed.length;
+            System.arraycopy(boxed, 0, instruction, 4, boxed.length);
+            emit(instruction);
+            return result;
+        }
+
+        private int[] box(List<Operand> operands, int line) {
+            int[] boxed = new int[operands.size()];
+            for (int k = 0; k < boxed.length; k++) {
+                Operand operand = operands.get(k);
+                if (operand.kind() == OBJECT) {
+                    boxed[k] = operand.register();
+                } else {
+                    boxed[k] = temp(OBJECT);
+                    coerce(operand, OBJECT, boxed[k], line);
+                }
+            }
+            return boxed;
+        }
+
+        private void invoke(String name, List<BasicExpression> arguments, int result, int line) {
+            int depth = findProcedureDepth(name);
+            int index = compileProcedure(layoutAt(depth).getProcedure(name));
+            Function callee = functions.get(index);
+            int count = Math.min(arguments.size(), callee.parameterKinds.length);
+
+            int[] instruction = new int[5 + count];
+            instruction[0] = Opcode.CALL;
+            instruction[1] = result;
+            instruction[2] = index;
+            instruction[3] = depth;
+            instruction[4] = count;
+            for (int k = 0; k < count; k++) {
+                int kind = callee.parameterKinds[k];
+                int register = temp(kind);
+                expressionInto(arguments.get(k), kind, register, line);
+                instruction[5 + k] = register;
+            }
+            emit(instruction);
+        }
+
+        /**
+         * Call in tail position: the callee takes over the current frame and returns straight to our caller.
+         */
+        private void tailCall(String name, List<BasicExpression> arguments, int line) {
+            int depth = findProcedureDepth(name);
+            int index = compileProcedure(layoutAt(depth).getProcedure(name));
+            Function callee = functions.get(index);
+            int count = Math.min(arguments.size(), callee.parameterKinds.length);
+
+            int[] instruction = new int[4 + count];
+            instruction[0] = Opcode.TAILCALL;
+            instruction[1] = index;
+            instruction[2] = depth;
+            instruction[3] = count;
+            for (int k = 0; k < count; k++) {
+                int kind = callee.parameterKinds[k];
+                int register = temp(kind);
+                expressionInto(arguments.get(k), kind, register, line);
+                instruction[4 + k] = register;
+            }
+            emit(instruction);
+        }
+
+        private void ifStatement(Statement.If ifStatement) {
+            List<Integer> exits = new ArrayList<>();
+            int next = branch(ifStatement.getCondition(), ifStatement.getBody(), exits, ifStatement.getLine());
+            for (Statement.Elsif elsif : ifStatement.getElsifBranches()) {
+                patch(next, position());
+                next = branch(elsif.getCondition(), elsif.getStatements(), exits, ifStatement.getLine());
+            }
+            patch(next, position());
+            if (ifStatement.getElseBranch() != null) {
+                block(ifStatement.getElseBranch().getStatements());
+            }
+            exits.forEach(exit -> patch(exit, position()));
+        }
+
+        /**
+         * Emits a guarded block; returns the position of the jump taken when the condition is false.
+         */
+        private int branch(BasicExpression condition, List<Statement> body, List<Integer> exits, int line) {
+            int test = condition(condition, line);
+            emit(Opcode.JUMP_FALSE, test, -1);
+            int next = position() - 1;
+            block(body);
+            emit(Opcode.JUMP, -1);
+            exits.add(position() - 1);
+            return next;
+        }
+
+        private int condition(BasicExpression condition, int line) {
+            Operand operand = expression(condition, line);
+            if (operand.kind() == BOOLEAN) {
+                return operand.register();
+            }
+            int register = temp(BOOLEAN);
+            coerce(operand, BOOLEAN, register, line);
+            return register;
+        }
+
+        private void whileStatement(Statement.While whileStatement) {
+            int profile = constant(whileStatement.getProfile());
+            emit(Opcode.LOOP_ENTER, profile);
+            int top = position();
+            int savedInt = nextInt;
+            int test = condition(whileStatement.getCondition(), whileStatement.getLine());
+            nextInt = Math.max(savedInt, test + 1);
+            emit(Opcode.JUMP_FALSE, test, -1);
+            int exit = position() - 1;
+            block(whileStatement.getBody());
+            emit(Opcode.LOOP_BACKEDGE, profile);
+            emit(Opcode.JUMP, top);
+            patch(exit, position());
+        }
+
+        private void forStatement(Statement.For forStatement) {
+            Statement.Assignment index = (Statement.Assignment) forStatement.getIndex();
+            BasicExpression.Variable variable = (BasicExpression.Variable) index.getIdent();
+            int line = forStatement.getLine();
+            if (!variable.isBound()) {
+                fail("Variable not found", line);
+                return;
+            }
+            assignment(index);
+
+            int depth = variable.getDepth();
+            SlotMap target = slotMap(layoutAt(depth));
+            int kind = target.kinds[variable.getSlot()];
+            int register = target.registers[variable.getSlot()];
+            int trips = temp(REAL);
+
+            if (isInt(kind)) {
+                int induction = temp(INTEGER);
+                if (depth == 0) {
+                    emit(Opcode.IMOVE, induction, register);
+                } else {
+                    emit(Opcode.ILOAD_UP, induction, depth, register);
+                }
+                int to = temp(kind);
+                expressionInto(forStatement.getTo(), kind, to, line);
+                int by = temp(INTEGER);
+                if (forStatement.getBy() != null) {
+                    expressionInto(forStatement.getBy(), INTEGER, by, line);
+                } else {
+                    emit(Opcode.ICONST, by, 1);
+                }
+                emit(Opcode.FOR_PREP_I, trips, induction, to, by, line, -1);
+                int exit = position() - 1;
+                int top = position();
+                if (depth == 0) {
+                    emit(Opcode.IMOVE, register, induction);
+                } else {
+                    emit(Opcode.ISTORE_UP, depth, register, induction);
+                }
+                block(forStatement.getBody());
+                emit(Opcode.FOR_NEXT, trips, induction, by, top);
+                patch(exit, position());
+            } else if (kind == REAL) {
+                int origin = temp(REAL);
+                if (depth == 0) {
+                    emit(Opcode.RMOVE, origin, register);
+                } else {
+                    emit(Opcode.RLOAD_UP, origin, depth, register);
+                }
+                int to = temp(REAL);
+                expressionInto(forStatement.getTo(), REAL, to, line);
+                int by = temp(REAL);
+                if (forStatement.getBy() != null) {
+                    expressionInto(forStatement.getBy(), REAL, by, line);
+                } else {
+                    emit(Opcode.RCONST, by, realConstant(1.0));
+                }
+                emit(Opcode.FOR_PREP_R, trips, origin, to, by, line, -1);
+                int exit = position() - 1;
+                int total = temp(REAL);
+                emit(Opcode.RMOVE, total, trips);
+                int value = depth == 0 ? register : temp(REAL);
+                int top = position();
+                emit(Opcode.R_STEP, value, origin, total, trips, by);
+                if (depth != 0) {
+                    emit(Opcode.RSTORE_UP, depth, register, value);
+                }
+                block(forStatement.getBody());
+                emit(Opcode.FOR_NEXT_R, trips, top);
+                patch(exit, position());
+            } else {
+                fail("Incompatible types", line);
+            }
+        }
+
+        private void caseStatement(Statement.Case caseStatement) {
+            int line = caseStatement.getIdent().line();
+            int selector = intOperand(caseStatement.getSelector(), line);
+            int executed = temp(BOOLEAN);
+            emit(Opcode.ICONST, executed, 0);
+            for (Statement.CaseBranch branch : caseStatement.getBranches()) {
+                emit(Opcode.JUMP_NOT_IN, selector, constant(branch.getRange()), -1);
+                int next = position() - 1;
+                block(branch.getBody());
+                emit(Opcode.ICONST, executed, 1);
+                patch(next, position());
+            }
+            emit(Opcode.JUMP_FALSE, executed, -1);
+            int otherwise = position() - 1;
+            emit(Opcode.JUMP, -1);
+            int end = position() - 1;
+            patch(otherwise, position());
+            block(caseStatement.getDefaultBranch());
+            patch(end, position());
+        }
+
+        // expressions
+
+        private int intOperand(BasicExpression expression, int line) {
+            Operand operand = expression(expression, line);
+            if (isInt(operand.kind())) {
+                return operand.register();
+            }
+            int register = temp(INTEGER);
+            coerce(operand, INTEGER, register, line);
+            return register;
+        }
+
+        /**
+         * Evaluates {@code expression} and stores it, converted to {@code kind}, into {@code target}.
+         */
+        void expressionInto(BasicExpression expression, int kind, int target, int line) {
+            if (expression instanceof BasicExpression.Grouping grouping) {
+                expressionInto(grouping.expression, kind, target, line);
+                return;
+            }
+            if (expression instanceof BasicExpression.Binary binary) {
+                int opcode = primitiveOpcode(binary);
+                if (opcode >= 0 && resultKind(binary) == kind) {
+                    int left = register(binary.getLeft(), operandKind(binary), binary.getLine());
+                    int right = register(binary.getRight(), operandKind(binary), binary.getLine());
+                    emit(opcode, target, left, right);
+                    return;
+                }
+            }
+            if (expression instanceof BasicExpression.Literal literal) {
+                Object value = literal.getConstantValue();
+                int valueKind = kindOfValue(value);
+                if (valueKind == kind || (isInt(kind) && valueKind == INTEGER)) {
+                    constantInto(value, valueKind, target);
+                    return;
+                }
+            }
+            coerce(expression(expression, line), kind, target, line);
+        }
+
+        private int register(BasicExpression expression, int kind, int line) {
+            Operand operand = expression(expression, line);
+            if (operand.kind() == kind || (isInt(kind) && isInt(operand.kind()))) {
+                return operand.register();
+            }
+            int register = temp(kind);
+            coerce(operand, kind, register, line);
+            return register;
+        }
+
+        private void constantInto(Object value, int kind, int target) {
+            switch (kind) {
+                case INTEGER -> emit(Opcode.ICONST, target, (Integer) value);
+                case CHAR -> emit(Opcode.ICONST, target, (Character) value);
+                case BOOLEAN -> emit(Opcode.ICONST, target, (Boolean) value ? 1 : 0);
+                case REAL -> emit(Opcode.RCONST, target, realConstant((Double) value));
+                default -> emit(Opcode.OCONST, target, constant(value));
+            }
+        }
+
+        Operand expression(BasicExpression expression, int line) {
+            if (expression instanceof BasicExpression.Literal literal) {
+                return literal(literal.getConstantValue());
+            } else if (expression instanceof BasicExpression.Variable variable) {
+                return variable(variable);
+            } else if (expression instanceof BasicExpression.Grouping grouping) {
+                return expression(grouping.expression, line);
+            } else if (expression instanceof BasicExpression.Binary binary) {
+                return binary(binary);
+            } else if (expression instanceof BasicExpression.Negation negation) {
+                Operand operand = expression(negation.getNegatedValue(), line);
+                int kind = operand.kind();
+                int register = temp(kind);
+                switch (kind) {
+                    case INTEGER -> emit(Opcode.INEG, register, operand.register());
+                    case BOOLEAN -> emit(Opcode.NOT, register, operand.register());
+                    case REAL -> emit(Opcode.RNEG, register, operand.register());
+                    case OBJECT -> emit(Opcode.NEG, register, operand.register());
+                    default -> {
+                        register = temp(OBJECT);
+                        coerce(operand, OBJECT, register, line);
+                        emit(Opcode.NEG, register, register);
+                        kind = OBJECT;
+                    }
+                }
+                return new Operand(kind, register);
+            } else if (expression instanceof BasicExpression.ArrayVariable arrayVariable) {
+                int elementKind = elementKind(arrayVariable);
+                if (!arrayVariable.isBound()) {
+                    fail("Variable not found", arrayVariable.name.line());
+                    return new Operand(elementKind, temp(elementKind));
+                }
+                int array = arrayRegister(arrayVariable);
+                int offset = offset(arrayVariable, array, arrayVariable.name.line());
+                int register = temp(elementKind);
+                emit(elementKind == REAL ? Opcode.ALOAD_R : isInt(elementKind) ? Opcode.ALOAD_I : Opcode.ALOAD_O,
+                     register, array, offset);
+                return new Operand(elementKind, register);
+            } else if (expression instanceof BasicExpression.ProcedureCall procedureCall) {
+                return procedureCall(procedureCall);
+            }
+            int register = temp(OBJECT);
+            emit(Opcode.OCONST, register, constant(null));
+            return new Operand(OBJECT, register);
+        }
+
+        private Operand variable(BasicExpression.Variable variable) {
+            if (variable.isBound()) {
+                int depth = variable.getDepth();
+                SlotMap target = slotMap(layoutAt(depth));
+                int kind = target.kinds[variable.getSlot()];
+                if (depth == 0) {
+                    return new Operand(kind, target.registers[variable.getSlot()]);
+                }
+                int register = temp(kind);
+                emit(loadUp(kind), register, depth, target.registers[variable.getSlot()]);
+                return new Operand(kind, register);
+            }
+            return literal(LiteralExpressionEvaluator.valueOf(variable.name));
+        }
+
+        private Operand literal(Object value) {
+            int kind = kindOfValue(value);
+            if (isInt(kind)) {
+                Integer register = pinned.get(value);
+                if (register != null) {
+                    return new Operand(kind, register);
+                }
+                literals.putIfAbsent(value, slots.intCount + literals.size());
+            }
+            int register = temp(kind);
+            constantInto(value, kind, register);
+            return new Operand(kind, register);
+        }
+
+        private Operand binary(BasicExpression.Binary binary) {
+            int opcode = primitiveOpcode(binary);
+            if (opcode >= 0) {
+                int kind = resultKind(binary);
+                int left = register(binary.getLeft(), operandKind(binary), binary.getLine());
+                int right = register(binary.getRight(), operandKind(binary), binary.getLine());
+                int register = temp(kind);
+                emit(opcode, register, left, right);
+                return new Operand(kind, register);
+            }
+            int left = temp(OBJECT);
+            coerce(expression(binary.getLeft(), binary.getLine()), OBJECT, left, binary.getLine());
+            int right = temp(OBJECT);
+            coerce(expression(binary.getRight(), binary.getLine()), OBJECT, right, binary.getLine());
+            int register = temp(OBJECT);
+            emit(Opcode.BINARY, register, left, right, constant(binary));
+            return new Operand(OBJECT, register);
+        }
+
+        private Operand procedureCall(BasicExpression.ProcedureCall procedureCall) {
+            String name = procedureCall.name.lexeme();
+            int line = procedureCall.name.line();
+            List<BasicExpression> arguments = procedureCall.arguments;
+
+            if (findProcedureDepth(name) >= 0) {
+                int result = temp(OBJECT);
+                invoke(name, arguments, result, line);
+                return new Operand(OBJECT, result);
+            }
+            if (!Native.supportedProcedures.contains(name)) {
+                fail("Procedure not found", line);
+                return new Operand(OBJECT, temp(OBJECT));
+            }
+
+            if (arguments.size() == 1) {
+                Operand argument;
+                switch (name) {
+                    case "CHR" -> {
+                        argument = expression(arguments.get(0), line);
+                        if (argument.kind() == INTEGER) {
+                            return new Operand(CHAR, argument.register());
+                        }
+                    }
+                    case "ORD" -> {
+                        argument = expression(arguments.get(0), line);
+                        if (argument.kind() == CHAR) {
+                            return new Operand(INTEGER, argument.register());
+                        }
+                    }
+                    case "FLOAT" -> {
+                        argument = expression(arguments.get(0), line);
+                        if (argument.kind() == INTEGER) {
+                            int register = temp(REAL);
+                            emit(Opcode.I2R, register, argument.register());
+                            return new Operand(REAL, register);
+                        }
+                    }
+                    case "TRUNC" -> {
+                        argument = expression(arguments.get(0), line);
+                        if (argument.kind() == REAL) {
+                            int register = temp(INTEGER);
+                            emit(Opcode.R2I, register, argument.register());
+                            return new Operand(INTEGER, register);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return new Operand(OBJECT, nativeCall(name, arguments, line));
+        }
+
+        /**
+         * Opcode of the primitive instruction for a binary expression whose operand types are known, or -1.
+         */
+        private int primitiveOpcode(BasicExpression.Binary binary) {
+            BinaryOperation operation = binary.getOperation();
+            String operandType = operation.getOperandType();
+            Operator operator = operation.getOperator();
+            if (BinaryOperation.INTEGER.equals(operandType) || BinaryOperation.CHAR.equals(operandType)) {
+                return switch (operator) {
+                    case PLUS -> BinaryOperation.CHAR.equals(operandType) ? -1 : Opcode.IADD;
+                    case MINUS -> BinaryOperation.CHAR.equals(operandType) ? -1 : Opcode.ISUB;
+                    case TIMES -> BinaryOperation.CHAR.equals(operandType) ? -1 : Opcode.IMUL;
+                    case SLASH, DIV -> BinaryOperation.CHAR.equals(operandType) ? -1 : Opcode.IDIV;
+                    case MOD -> BinaryOperation.CHAR.equals(operandType) ? -1 : Opcode.IMOD;
+                    case LESS -> Opcode.ILT;
+                    case LESS_EQUAL -> Opcode.ILE;
+                    case GREATER -> Opcode.IGT;
+                    case GREATER_EQUAL -> Opcode.IGE;
+                    case EQUAL -> Opcode.IEQ;
+                    case NOT_EQUAL -> Opcode.INE;
+                    default -> -1;
+                };
+            } else if (BinaryOperation.REAL.equals(operandType)) {
+                return switch (operator) {
+                    case PLUS -> Opcode.RADD;
+                    case MINUS -> Opcode.RSUB;
+                    case TIMES -> Opcode.RMUL;
+                    case SLASH, DIV -> Opcode.RDIV;
+                    case MOD -> Opcode.RMOD;
+                    case LESS -> Opcode.RLT;
+                    case LESS_EQUAL -> Opcode.RLE;
+                    case GREATER -> Opcode.RGT;
+                    case GREATER_EQUAL -> Opcode.RGE;
+                    case EQUAL -> Opcode.REQ;
+                    case NOT_EQUAL -> Opcode.RNE;
+                    default -> -1;
+                };
+            } else if (BinaryOperation.BOOLEAN.equals(operandType)) {
+                return switch (operator) {
+                    case AND -> Opcode.AND;
+                    case OR -> Opcode.OR;
+                    default -> -1;
+                };
+            }
+            return -1;
+        }
+
+        private int operandKind(BasicExpression.Binary binary) {
+            return switch (binary.getOperation().getOperandType()) {
+                case BinaryOperation.REAL -> REAL;
+                case BinaryOperation.CHAR -> CHAR;
+                case BinaryOperation.BOOLEAN -> BOOLEAN;
+                default -> INTEGER;
+            };
+        }
+
+        private int resultKind(BasicExpression.Binary binary) {
+            String resultType = binary.getOperation().getResultType();
+            return kindOf(resultType);
+        }
+
+        private int elementKind(BasicExpression.ArrayVariable arrayVariable) {
+            if (!arrayVariable.isBound()) {
+                return OBJECT;
+            }
+            return kindOf(layoutAt(arrayVariable.getDepth()).getType(arrayVariable.getSlot()));
+        }
+
+        private int arrayRegister(BasicExpression.ArrayVariable arrayVariable) {
+            int depth = arrayVariable.getDepth();
+            int register = slotMap(layoutAt(depth)).registers[arrayVariable.getSlot()];
+            if (depth == 0) {
+                return register;
+            }
+            int array = temp(OBJECT);
+            emit(Opcode.OLOAD_UP, array, depth, register);
+            return array;
+        }
+
+        private int offset(BasicExpression.ArrayVariable arrayVariable, int array, int line) {
+            int offset = temp(INTEGER);
+            emit(Opcode.ICONST, offset, 0);
+            for (int dimension = 0; dimension < arrayVariable.index.length; dimension++) {
+                int index = intOperand(arrayVariable.index[dimension], line);
+                emit(Opcode.INDEX, offset, array, dimension, index, arrayVariable.name.line());
+            }
+            return offset;
+        }
+
+        /**
+         * Moves {@code operand} into {@code target}, converting between register files where Modula-2 allows it.
+         */
+        private void coerce(Operand operand, int kind, int target, int line) {
+            int from = operand.kind();
+            int source = operand.register();
+            if (isInt(from) && isInt(kind)) {
+                if (source != target) {
+                    emit(Opcode.IMOVE, target, source);
+                }
+            } else if (from == REAL && kind == REAL) {
+                if (source != target) {
+                    emit(Opcode.RMOVE, target, source);
+                }
+            } else if (from == OBJECT && kind == OBJECT) {
+                if (source != target) {
+                    emit(Opcode.OMOVE, target, source);
+                }
+            } else if (from == INTEGER && kind == REAL) {
+                emit(Opcode.I2R, target, source);
+            } else if (kind == OBJECT) {
+                emit(switch (from) {
+                    case INTEGER -> Opcode.BOX_I;
+                    case CHAR -> Opcode.BOX_C;
+                    case BOOLEAN -> Opcode.BOX_B;
+                    default -> Opcode.BOX_R;
+                }, target, source);
+            } else if (from == OBJECT) {
+                emit(kind == REAL ? Opcode.UNBOX_R : Opcode.UNBOX_I, target, source, line);
+            } else {
+                fail("Incompatible types", line);
+            }
+        }
+
+        private FrameLayout layoutAt(int depth) {
+            FrameLayout scope = layout;
+            for (int k = depth; k > 0; k--) {
+                scope = scope.getParent();
+            }
+            return scope;
+        }
+
+        private int findProcedureDepth(String name) {
+            int depth = 0;
+            for (FrameLayout scope = layout; scope != null; scope = scope.getParent(), depth++) {
+                if (scope.getProcedure(name) != null) {
+                    return depth;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static int loadUp(int kind) {
+        return isInt(kind) ? Opcode.ILOAD_UP : kind == REAL ? Opcode.RLOAD_UP : Opcode.OLOAD_UP;
+    }
+
+    private static int storeUp(int kind) {
+        return isInt(kind) ? Opcode.ISTORE_UP : kind == REAL ? Opcode.RSTORE_UP : Opcode.OSTORE_UP;
+    }
+}
@@ -0,0 +1,64 @@
+package vm;
+
+import java.util.Arrays;
+
+/**
+ * Activation record of the register machine. Frames are slots of the machine's explicit call stack, which
+ * lives on the heap, so calls never grow the Java stack. A slot is reused by every call that reaches its
+ * depth and keeps its register files as long as they are large enough.
+ */
+final class Frame {
+
+    private static final int[] NO_INTS = new int[0];
+    private static final double[] NO_REALS = new double[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
+
+    Function function;
+    /** Frame of the lexically enclosing procedure. */
+    Frame link;
+    int[] i = NO_INTS;
+    double[] r = NO_REALS;
+    Object[] o = NO_OBJECTS;
+    int returnPc;
+    int resultRegister;
+
+    /**
+     * Prepares the slot for a call of {@code function}: registers start out zero, as in a fresh frame, and
+     * the procedure's local arrays are allocated.
+     */
+    void enter(Function function, Frame link) {
+        this.function = function;
+        this.link = link;
+        if (i.length < function.intRegisters) {
+            i = new int[function.intRegisters];
+        } else {
+            Arrays.fill(i, 0, function.intRegisters, 0);
+        }
+        if (r.length < function.realRegisters) {
+            r = new double[function.realRegisters];
+        } else {
+            Arrays.fill(r, 0, function.realRegisters, 0.0);
+        }
+        if (o.length < function.objectRegisters) {
+            o = new Object[function.objectRegisters];
+        }
+        function.allocateArrays(this);
+    }
+
+    /**
+     * Drops the references the finished call held, so that a returned-from slot keeps nothing alive.
+     */
+    void leave() {
+        Arrays.fill(o, 0, function.objectRegisters, null);
+        function = null;
+        link = null;
+    }
+
+    Frame up(int depth) {
+        Frame frame = this;
+        for (int k = depth; k > 0; k--) {
+            frame = frame.link;
+        }
+        return frame;
+    }
+}
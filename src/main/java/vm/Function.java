@@ -0,0 +1,64 @@
+package vm;
+
+import ast.Statement;
+import structure.Array;
+
+/**
+ * Bytecode of one procedure (or of the module body) together with its constant pool and the sizes of the
+ * three register files a frame of it needs.
+ */
+public class Function {
+
+    private final String name;
+    int[] code = new int[0];
+    Object[] constants = new Object[0];
+    double[] realConstants = new double[0];
+    int intRegisters;
+    int realRegisters;
+    int objectRegisters;
+    /** Kind and register of every parameter, in declaration order. */
+    int[] parameterKinds = new int[0];
+    int[] parameterRegisters = new int[0];
+    /** Object registers holding the arrays declared by the procedure, allocated with each frame. */
+    int[] arrayRegisters = new int[0];
+    Statement.VarArray[] arrayDeclarations = new Statement.VarArray[0];
+
+    public Function(String name) {
+        this.name = name;
+    }
+
+    void allocateArrays(Frame frame) {
+        for (int k = 0; k < arrayRegisters.length; k++) {
+            Statement.VarArray declaration = arrayDeclarations[k];
+            frame.o[arrayRegisters[k]] = new Array(declaration.getName().lexeme(),
+                                                   declaration.getDimensionRanges(),
+                                                   declaration.getType().lexeme());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int[] getCode() {
+        return code;
+    }
+
+    public int getIntRegisters() {
+        return intRegisters;
+    }
+
+    public int getRealRegisters() {
+        return realRegisters;
+    }
+
+    public int getObjectRegisters() {
+        return objectRegisters;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + code.length + " words, registers i" + intRegisters + " r" + realRegisters + " o"
+            + objectRegisters + ")";
+    }
+}
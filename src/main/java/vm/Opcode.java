@@ -0,0 +1,193 @@
+package vm;
+
+/**
+ * Instruction set of the register machine. Every instruction is an opcode followed by its operands in the
+ * same {@code int[]}; {@code i}, {@code r} and {@code o} are the integer (also CHAR and BOOLEAN), real and
+ * object register files of the current frame.
+ */
+public final class Opcode {
+
+    /** Stops the machine. */
+    public static final int HALT = 0;
+    /** d v: i[d] = v */
+    public static final int ICONST = 1;
+    /** d k: r[d] = realConstants[k] */
+    public static final int RCONST = 2;
+    /** d k: o[d] = constants[k] */
+    public static final int OCONST = 3;
+    /** d s */
+    public static final int IMOVE = 4;
+    /** d s */
+    public static final int RMOVE = 5;
+    /** d s */
+    public static final int OMOVE = 6;
+    /** d depth s: i[d] = frame(depth).i[s] */
+    public static final int ILOAD_UP = 7;
+    /** d depth s */
+    public static final int RLOAD_UP = 8;
+    /** d depth s */
+    public static final int OLOAD_UP = 9;
+    /** depth d s: frame(depth).i[d] = i[s] */
+    public static final int ISTORE_UP = 10;
+    /** depth d s */
+    public static final int RSTORE_UP = 11;
+    /** depth d s */
+    public static final int OSTORE_UP = 12;
+    /** d a b */
+    public static final int IADD = 13;
+    /** d a b */
+    public static final int ISUB = 14;
+    /** d a b */
+    public static final int IMUL = 15;
+    /** d a b */
+    public static final int IDIV = 16;
+    /** d a b */
+    public static final int IMOD = 17;
+    /** d a b */
+    public static final int ILT = 18;
+    /** d a b */
+    public static final int ILE = 19;
+    /** d a b */
+    public static final int IGT = 20;
+    /** d a b */
+    public static final int IGE = 21;
+    /** d a b */
+    public static final int IEQ = 22;
+    /** d a b */
+    public static final int INE = 23;
+    /** d a */
+    public static final int INEG = 24;
+    /** d a */
+    public static final int NOT = 25;
+    /** d a b */
+    public static final int AND = 26;
+    /** d a b */
+    public static final int OR = 27;
+    /** d a v: i[d] = i[a] + v */
+    public static final int IADD_CONST = 28;
+    /** d a b */
+    public static final int RADD = 29;
+    /** d a b */
+    public static final int RSUB = 30;
+    /** d a b */
+    public static final int RMUL = 31;
+    /** d a b */
+    public static final int RDIV = 32;
+    /** d a b */
+    public static final int RMOD = 33;
+    /** d a b: i[d] = r[a] < r[b] */
+    public static final int RLT = 34;
+    /** d a b */
+    public static final int RLE = 35;
+    /** d a b */
+    public static final int RGT = 36;
+    /** d a b */
+    public static final int RGE = 37;
+    /** d a b */
+    public static final int REQ = 38;
+    /** d a b */
+    public static final int RNE = 39;
+    /** d a */
+    public static final int RNEG = 40;
+    /** d s: r[d] = i[s] */
+    public static final int I2R = 41;
+    /** d s: i[d] = (int) r[s] */
+    public static final int R2I = 42;
+    /** d s: o[d] = Integer */
+    public static final int BOX_I = 43;
+    /** d s: o[d] = Character */
+    public static final int BOX_C = 44;
+    /** d s: o[d] = Boolean */
+    public static final int BOX_B = 45;
+    /** d s: o[d] = Double */
+    public static final int BOX_R = 46;
+    /** d s line: i[d] = int value of o[s] */
+    public static final int UNBOX_I = 47;
+    /** d s line: r[d] = double value of o[s] */
+    public static final int UNBOX_R = 48;
+    /** d a b k: o[d] = operator node constants[k] applied to o[a], o[b] */
+    public static final int BINARY = 49;
+    /** d a: o[d] = negated o[a] */
+    public static final int NEG = 50;
+    /** t */
+    public static final int JUMP = 51;
+    /** c t: if i[c] == 0 goto t */
+    public static final int JUMP_FALSE = 52;
+    /** s k t: if constants[k] (a set of labels) lacks i[s] goto t */
+    public static final int JUMP_NOT_IN = 53;
+    /** n start to by line t: r[n] = trip count of the integer loop; goto t if it is zero */
+    public static final int FOR_PREP_I = 54;
+    /** n origin to by line t: r[n] = trip count of the real loop; goto t if it is zero */
+    public static final int FOR_PREP_R = 55;
+    /** n x by t: i[x] += i[by]; if --r[n] > 0 goto t */
+    public static final int FOR_NEXT = 56;
+    /** d origin total n by: r[d] = r[origin] + (r[total] - r[n]) * r[by] */
+    public static final int R_STEP = 57;
+    /** d a dim x line: i[d] += ((Array) o[a]).offset(dim, i[x], line) */
+    public static final int INDEX = 58;
+    /** d a x */
+    public static final int ALOAD_I = 59;
+    /** d a x */
+    public static final int ALOAD_R = 60;
+    /** d a x */
+    public static final int ALOAD_O = 61;
+    /** a x s */
+    public static final int ASTORE_I = 62;
+    /** a x s */
+    public static final int ASTORE_R = 63;
+    /** a x s */
+    public static final int ASTORE_O = 64;
+    /** d f depth argc args...: calls functions[f] with the static link depth frames up; o[d] receives the result */
+    public static final int CALL = 65;
+    /** s: returns o[s] to the caller's result register, or nothing if s is -1 */
+    public static final int RET = 66;
+    /** s */
+    public static final int WRITE_STRING = 67;
+    /** s w */
+    public static final int WRITE_INT = 68;
+    /** s w */
+    public static final int WRITE_CARD = 69;
+    /** s w */
+    public static final int WRITE_REAL = 70;
+    /** s */
+    public static final int WRITE_CHAR = 71;
+    public static final int WRITE_LN = 72;
+    /** k argc args...: Terminal2 call constants[k] with boxed arguments */
+    public static final int TERMINAL = 73;
+    /** d k argc args...: o[d] = Native procedure constants[k] applied to boxed arguments */
+    public static final int NATIVE = 74;
+    /** k */
+    public static final int LOOP_ENTER = 75;
+    /** k */
+    public static final int LOOP_BACKEDGE = 76;
+    /** k line: reports constants[k] and exits */
+    public static final int FAIL = 77;
+    /** f depth argc args...: replaces the current frame with a call of functions[f], which returns to its caller */
+    public static final int TAILCALL = 78;
+    /** n t: if --r[n] > 0 goto t */
+    public static final int FOR_NEXT_R = 79;
+
+    private static final String[] NAMES = {
+        "HALT", "ICONST", "RCONST", "OCONST", "IMOVE", "RMOVE",
+        "OMOVE", "ILOAD_UP", "RLOAD_UP", "OLOAD_UP", "ISTORE_UP", "RSTORE_UP",
+        "OSTORE_UP", "IADD", "ISUB", "IMUL", "IDIV", "IMOD",
+        "ILT", "ILE", "IGT", "IGE", "IEQ", "INE",
+        "INEG", "NOT", "AND", "OR", "IADD_CONST", "RADD",
+        "RSUB", "RMUL", "RDIV", "RMOD", "RLT", "RLE",
+        "RGT", "RGE", "REQ", "RNE", "RNEG", "I2R",
+        "R2I", "BOX_I", "BOX_C", "BOX_B", "BOX_R", "UNBOX_I",
+        "UNBOX_R", "BINARY", "NEG", "JUMP", "JUMP_FALSE", "JUMP_NOT_IN",
+        "FOR_PREP_I", "FOR_PREP_R", "FOR_NEXT", "R_STEP", "INDEX", "ALOAD_I",
+        "ALOAD_R", "ALOAD_O", "ASTORE_I", "ASTORE_R", "ASTORE_O", "CALL",
+        "RET", "WRITE_STRING", "WRITE_INT", "WRITE_CARD", "WRITE_REAL", "WRITE_CHAR",
+        "WRITE_LN", "TERMINAL", "NATIVE", "LOOP_ENTER", "LOOP_BACKEDGE", "FAIL",
+        "TAILCALL", "FOR_NEXT_R"
+    };
+
+    private Opcode() {
+    }
+
+    public static String name(int opcode) {
+        return opcode >= 0 && opcode < NAMES.length ? NAMES[opcode] : "?" + opcode;
+    }
+}
@@ -0,0 +1,11 @@
+package vm;
+
+/**
+ * Output of {@link BytecodeCompiler}: the function table indexed by {@link Opcode#CALL} and the entry point.
+ */
+public record Program(Function[] functions, int entry) {
+
+    public Function getEntry() {
+        return functions[entry];
+    }
+}
@@ -0,0 +1,550 @@
+package vm;
+
+import ast.BasicExpression;
+import ast.Statement;
+import context.LoopProfile;
+import evaluator.BinaryOperation;
+import executor.CallStatementExecutor;
+import interpreter.Interpreter;
+import library.Native;
+import library.Terminal2;
+import structure.Array;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interpreter loop of the register machine: a single dispatch over the opcode word with the registers of the
+ * current frame held in locals. Calls push frames onto an explicit stack on the heap, so recursion depth is
+ * bounded by the heap only and not by the Java thread's stack size.
+ */
+public class VirtualMachine {
+
+    private final Function[] functions;
+    private Frame[] stack = new Frame[16];
+    /** Arguments of a tail call, staged while the frame they are read from is cleared for the callee. */
+    private final int[] intArguments;
+    private final double[] realArguments;
+    private final Object[] objectArguments;
+
+    public VirtualMachine(Program program) {
+        this.functions = program.functions();
+        int parameters = 0;
+        for (Function function : functions) {
+            parameters = Math.max(parameters, function.parameterKinds.length);
+        }
+        this.intArguments = new int[parameters];
+        this.realArguments = new double[parameters];
+        this.objectArguments = new Object[parameters];
+    }
+
+    public void run(Function entry) {
+        int depth = 0;
+        Frame frame = frameAt(depth);
+        frame.enter(entry, null);
+        int[] code = entry.code;
+        Object[] constants = entry.constants;
+        double[] realConstants = entry.realConstants;
+        int[] i = frame.i;
+        double[] r = frame.r;
+        Object[] o = frame.o;
+        int pc = 0;
+
+        while (true) {
+            switch (code[pc]) {
+                case Opcode.HALT:
+                    return;
+                case Opcode.ICONST:
+                    i[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case Opcode.RCONST:
+                    r[code[pc + 1]] = realConstants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.OCONST:
+                    o[code[pc + 1]] = constants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.IMOVE:
+                    i[code[pc + 1]] = i[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.RMOVE:
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.OMOVE:
+                    o[code[pc + 1]] = o[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.ILOAD_UP:
+                    i[code[pc + 1]] = frame.up(code[pc + 2]).i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RLOAD_UP:
+                    r[code[pc + 1]] = frame.up(code[pc + 2]).r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.OLOAD_UP:
+                    o[code[pc + 1]] = frame.up(code[pc + 2]).o[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.ISTORE_UP:
+                    frame.up(code[pc + 1]).i[code[pc + 2]] = i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RSTORE_UP:
+                    frame.up(code[pc + 1]).r[code[pc + 2]] = r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.OSTORE_UP:
+                    frame.up(code[pc + 1]).o[code[pc + 2]] = o[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.IADD:
+                    i[code[pc + 1]] = i[code[pc + 2]] + i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.ISUB:
+                    i[code[pc + 1]] = i[code[pc + 2]] - i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.IMUL:
+                    i[code[pc + 1]] = i[code[pc + 2]] * i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.IDIV:
+                    i[code[pc + 1]] = i[code[pc + 2]] / i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.IMOD:
+                    i[code[pc + 1]] = i[code[pc + 2]] % i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.ILT:
+                    i[code[pc + 1]] = i[code[pc + 2]] < i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.ILE:
+                    i[code[pc + 1]] = i[code[pc + 2]] <= i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.IGT:
+                    i[code[pc + 1]] = i[code[pc + 2]] > i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.IGE:
+                    i[code[pc + 1]] = i[code[pc + 2]] >= i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.IEQ:
+                    i[code[pc + 1]] = i[code[pc + 2]] == i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.INE:
+                    i[code[pc + 1]] = i[code[pc + 2]] != i[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.INEG:
+                    i[code[pc + 1]] = -i[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.NOT:
+                    i[code[pc + 1]] = i[code[pc + 2]] == 0 ? 1 : 0;
+                    pc += 3;
+                    break;
+                case Opcode.AND:
+                    i[code[pc + 1]] = i[code[pc + 2]] & i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.OR:
+                    i[code[pc + 1]] = i[code[pc + 2]] | i[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.IADD_CONST:
+                    i[code[pc + 1]] = i[code[pc + 2]] + code[pc + 3];
+                    pc += 4;
+                    break;
+                case Opcode.RADD:
+                    r[code[pc + 1]] = r[code[pc + 2]] + r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RSUB:
+                    r[code[pc + 1]] = r[code[pc + 2]] - r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RMUL:
+                    r[code[pc + 1]] = r[code[pc + 2]] * r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RDIV:
+                    r[code[pc + 1]] = r[code[pc + 2]] / r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RMOD:
+                    r[code[pc + 1]] = r[code[pc + 2]] % r[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case Opcode.RLT:
+                    i[code[pc + 1]] = r[code[pc + 2]] < r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.RLE:
+                    i[code[pc + 1]] = r[code[pc + 2]] <= r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.RGT:
+                    i[code[pc + 1]] = r[code[pc + 2]] > r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.RGE:
+                    i[code[pc + 1]] = r[code[pc + 2]] >= r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.REQ:
+                    i[code[pc + 1]] = r[code[pc + 2]] == r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.RNE:
+                    i[code[pc + 1]] = r[code[pc + 2]] != r[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case Opcode.RNEG:
+                    r[code[pc + 1]] = -r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.I2R:
+                    r[code[pc + 1]] = i[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.R2I:
+                    i[code[pc + 1]] = (int) r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.BOX_I:
+                    o[code[pc + 1]] = i[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.BOX_C:
+                    o[code[pc + 1]] = (char) i[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.BOX_B:
+                    o[code[pc + 1]] = i[code[pc + 2]] != 0;
+                    pc += 3;
+                    break;
+                case Opcode.BOX_R:
+                    o[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case Opcode.UNBOX_I:
+                    i[code[pc + 1]] = unboxInt(o[code[pc + 2]], code[pc + 3]);
+                    pc += 4;
+                    break;
+                case Opcode.UNBOX_R:
+                    r[code[pc + 1]] = unboxReal(o[code[pc + 2]], code[pc + 3]);
+                    pc += 4;
+                    break;
+                case Opcode.BINARY: {
+                    BasicExpression.Binary binary = (BasicExpression.Binary) constants[code[pc + 4]];
+                    BinaryOperation operation = binary.getOperation();
+                    o[code[pc + 1]] = operation.apply(binary, o[code[pc + 2]], o[code[pc + 3]]);
+                    pc += 5;
+                    break;
+                }
+                case Opcode.NEG:
+                    o[code[pc + 1]] = negate(o[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case Opcode.JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case Opcode.JUMP_FALSE:
+                    pc = i[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case Opcode.JUMP_NOT_IN: {
+                    @SuppressWarnings("unchecked")
+                    Set<Integer> labels = (Set<Integer>) constants[code[pc + 2]];
+                    pc = labels.contains(i[code[pc + 1]]) ? pc + 4 : code[pc + 3];
+                    break;
+                }
+                case Opcode.FOR_PREP_I: {
+                    long trips = tripCount(i[code[pc + 2]], i[code[pc + 3]], i[code[pc + 4]], code[pc + 5]);
+                    r[code[pc + 1]] = trips;
+                    pc = trips == 0 ? code[pc + 6] : pc + 7;
+                    break;
+                }
+                case Opcode.FOR_PREP_R: {
+                    long trips = tripCount(r[code[pc + 2]], r[code[pc + 3]], r[code[pc + 4]], code[pc + 5]);
+                    r[code[pc + 1]] = trips;
+                    pc = trips == 0 ? code[pc + 6] : pc + 7;
+                    break;
+                }
+                case Opcode.FOR_NEXT:
+                    i[code[pc + 2]] += i[code[pc + 3]];
+                    pc = --r[code[pc + 1]] > 0 ? code[pc + 4] : pc + 5;
+                    break;
+                case Opcode.FOR_NEXT_R:
+                    pc = --r[code[pc + 1]] > 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case Opcode.R_STEP:
+                    r[code[pc + 1]] = r[code[pc + 2]] + (r[code[pc + 3]] - r[code[pc + 4]]) * r[code[pc + 5]];
+                    pc += 6;
+                    break;
+                case Opcode.INDEX:
+                    i[code[pc + 1]] += ((Array) o[code[pc + 2]]).offset(code[pc + 3], i[code[pc + 4]], code[pc + 5]);
+                    pc += 6;
+                    break;
+                case Opcode.ALOAD_I:
+                    i[code[pc + 1]] = ((Array) o[code[pc + 2]]).getStorage().getInt(i[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.ALOAD_R:
+                    r[code[pc + 1]] = ((Array) o[code[pc + 2]]).getStorage().getReal(i[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.ALOAD_O:
+                    o[code[pc + 1]] = ((Array) o[code[pc + 2]]).get(i[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.ASTORE_I:
+                    ((Array) o[code[pc + 1]]).getStorage().setInt(i[code[pc + 2]], i[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.ASTORE_R:
+                    ((Array) o[code[pc + 1]]).getStorage().setReal(i[code[pc + 2]], r[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.ASTORE_O:
+                    ((Array) o[code[pc + 1]]).set(i[code[pc + 2]], o[code[pc + 3]]);
+                    pc += 4;
+                    break;
+                case Opcode.CALL: {
+                    Function callee = functions[code[pc + 2]];
+                    Frame next = frameAt(depth + 1);
+                    next.enter(callee, frame.up(code[pc + 3]));
+                    int argc = code[pc + 4];
+                    for (int k = 0; k < argc; k++) {
+                        int source = code[pc + 5 + k];
+                        int target = callee.parameterRegisters[k];
+                        switch (callee.parameterKinds[k]) {
+                            case BytecodeCompiler.REAL -> next.r[target] = r[source];
+                            case BytecodeCompiler.OBJECT -> next.o[target] = o[source];
+                            default -> next.i[target] = i[source];
+                        }
+                    }
+                    frame.resultRegister = code[pc + 1];
+                    frame.returnPc = pc + 5 + argc;
+
+                    depth++;
+                    frame = next;
+                    code = callee.code;
+                    constants = callee.constants;
+                    realConstants = callee.realConstants;
+                    i = frame.i;
+                    r = frame.r;
+                    o = frame.o;
+                    pc = 0;
+                    break;
+                }
+                case Opcode.TAILCALL: {
+                    Function callee = functions[code[pc + 1]];
+                    Frame link = frame.up(code[pc + 2]);
+                    int argc = code[pc + 3];
+                    for (int k = 0; k < argc; k++) {
+                        int source = code[pc + 4 + k];
+                        switch (callee.parameterKinds[k]) {
+                            case BytecodeCompiler.REAL -> realArguments[k] = r[source];
+                            case BytecodeCompiler.OBJECT -> objectArguments[k] = o[source];
+                            default -> intArguments[k] = i[source];
+                        }
+                    }
+                    frame.leave();
+                    frame.enter(callee, link);
+                    for (int k = 0; k < argc; k++) {
+                        int target = callee.parameterRegisters[k];
+                        switch (callee.parameterKinds[k]) {
+                            case BytecodeCompiler.REAL -> frame.r[target] = realArguments[k];
+                            case BytecodeCompiler.OBJECT -> {
+                                frame.o[target] = objectArguments[k];
+                                objectArguments[k] = null;
+                            }
+                            default -> frame.i[target] = intArguments[k];
+                        }
+                    }
+
+                    code = callee.code;
+                    constants = callee.constants;
+                    realConstants = callee.realConstants;
+                    i = frame.i;
+                    r = frame.r;
+                    o = frame.o;
+                    pc = 0;
+                    break;
+                }
+                case Opcode.RET: {
+                    if (depth == 0) {
+                        frame.leave();
+                        return;
+                    }
+                    Frame caller = stack[--depth];
+                    if (caller.resultRegister >= 0) {
+                        caller.o[caller.resultRegister] = code[pc + 1] >= 0 ? o[code[pc + 1]] : null;
+                    }
+                    frame.leave();
+                    frame = caller;
+                    code = frame.function.code;
+                    constants = frame.function.constants;
+                    realConstants = frame.function.realConstants;
+                    i = frame.i;
+                    r = frame.r;
+                    o = frame.o;
+                    pc = frame.returnPc;
+                    break;
+                }
+                case Opcode.WRITE_STRING:
+                    Terminal2.WriteString((String) o[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Opcode.WRITE_INT:
+                    Terminal2.WriteInt(i[code[pc + 1]], i[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case Opcode.WRITE_CARD:
+                    Terminal2.WriteCard(i[code[pc + 1]], i[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case Opcode.WRITE_REAL:
+                    Terminal2.WriteReal(r[code[pc + 1]], i[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case Opcode.WRITE_CHAR:
+                    Terminal2.WriteChar((char) i[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case Opcode.WRITE_LN:
+                    Terminal2.WriteLn();
+                    pc += 1;
+                    break;
+                case Opcode.TERMINAL: {
+                    int argc = code[pc + 2];
+                    CallStatementExecutor.callTerminal2((Statement.Call) constants[code[pc + 1]],
+                                                        arguments(o, code, pc + 3, argc));
+                    pc += 3 + argc;
+                    break;
+                }
+                case Opcode.NATIVE: {
+                    int argc = code[pc + 3];
+                    o[code[pc + 1]] = Native.call((String) constants[code[pc + 2]], arguments(o, code, pc + 4, argc));
+                    pc += 4 + argc;
+                    break;
+                }
+                case Opcode.LOOP_ENTER:
+                    ((LoopProfile) constants[code[pc + 1]]).enter();
+                    pc += 2;
+                    break;
+                case Opcode.LOOP_BACKEDGE:
+                    ((LoopProfile) constants[code[pc + 1]]).backedge();
+                    pc += 2;
+                    break;
+                case Opcode.FAIL:
+                    Interpreter.error(code[pc + 2], "", (String) constants[code[pc + 1]]);
+                    System.exit(1);
+                    return;
+                default:
+                    Interpreter.error(-1, "", "Unknown opcode " + Opcode.name(code[pc]));
+                    System.exit(1);
+                    return;
+            }
+        }
+    }
+
+    private static List<Object> arguments(Object[] o, int[] code, int from, int count) {
+        List<Object> arguments = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            arguments.add(o[code[from + k]]);
+        }
+        return arguments;
+    }
+
+    private static int unboxInt(Object value, int line) {
+        if (value instanceof Integer number) {
+            return number;
+        } else if (value instanceof Character character) {
+            return character;
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        } else if (value instanceof String text && text.length() == 1) {
+            return text.charAt(0);
+        }
+        Interpreter.error(line, "", "Incompatible types");
+        System.exit(1);
+        return 0;
+    }
+
+    private static double unboxReal(Object value, int line) {
+        if (value instanceof Double number) {
+            return number;
+        } else if (value instanceof Integer number) {
+            return number;
+        }
+        Interpreter.error(line, "", "Incompatible types");
+        System.exit(1);
+        return 0;
+    }
+
+    private static Object negate(Object value) {
+        if (value instanceof Integer number) {
+            return -number;
+        } else if (value instanceof Double number) {
+            return -number;
+        } else if (value instanceof Boolean bool) {
+            return !bool;
+        }
+        Interpreter.error(-1, "", "Unknown type for negation");
+        System.exit(1);
+        return null;
+    }
+
+    /**
+     * Trip counts are kept in real registers, which hold every count of an integer loop exactly.
+     */
+    private static long tripCount(int first, int last, int step, int line) {
+        checkStep(step, line);
+        if (step > 0) {
+            return first > last ? 0 : ((long) last - first) / step + 1;
+        }
+        return first < last ? 0 : ((long) first - last) / -(long) step + 1;
+    }
+
+    private static long tripCount(double origin, double last, double step, int line) {
+        checkStep(step, line);
+        double trips = Math.floor((last - origin) / step) + 1;
+        return trips <= 0 ? 0 : (long) trips;
+    }
+
+    private static void checkStep(double step, int line) {
+        if (step == 0) {
+            Interpreter.error(line, " at 'FOR'", "BY step must not be zero");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The stack slot for a call {@code depth} levels below the entry function, growing the stack on demand.
+     */
+    private Frame frameAt(int depth) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        Frame frame = stack[depth];
+        if (frame == null) {
+            frame = new Frame();
+            stack[depth] = frame;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,40 @@
+package interpreter;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the sample programs on every engine and compares the output with the tree-walking interpreter's.
+ */
+class EngineConsistencyTest {
+
+    private static final List<Path> PROGRAM_DIRECTORIES = List.of(Path.of("src/main/resources/sample"),
+                                                                  Path.of("src/test/resources/engines"));
+
+    private static final List<String> ENGINES = List.of("--engine=closure", "--engine=vm", "--jit-threshold=1");
+
+    @TestFactory
+    Stream<DynamicTest> enginesPrintWhatTheTreeWalkerPrints() throws IOException {
+        List<Path> programs = new ArrayList<>();
+        for (Path directory : PROGRAM_DIRECTORIES) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(Files::isRegularFile).sorted().forEach(programs::add);
+            }
+        }
+        return programs.stream().map(program -> DynamicTest.dynamicTest(program.getFileName().toString(), () -> {
+            String expected = InterpreterProcess.run(program);
+            for (String engine : ENGINES) {
+                assertEquals(expected, InterpreterProcess.run(program, engine), program + " " + engine);
+            }
+        }));
+    }
+}
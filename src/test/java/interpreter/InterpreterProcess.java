@@ -0,0 +1,51 @@
+package interpreter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the interpreter in a separate JVM, since it exits on errors, and returns everything it printed to
+ * standard output and standard error.
+ */
+public final class InterpreterProcess {
+
+    private InterpreterProcess() {
+    }
+
+    public static String run(Path program, String... flags) throws IOException, InterruptedException {
+        return run(List.of(), program, flags);
+    }
+
+    public static String run(List<String> jvmOptions, Path program, String... flags)
+        throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classesDirectory());
+        command.add(Interpreter.class.getName());
+        command.addAll(List.of(flags));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (OutputStream input = process.getOutputStream()) {
+            input.write((program.toAbsolutePath() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        process.waitFor();
+        return output;
+    }
+
+    private static String classesDirectory() {
+        try {
+            return Path.of(Interpreter.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+}
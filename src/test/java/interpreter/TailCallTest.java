@@ -0,0 +1,32 @@
+package interpreter;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Self, mutual and proper-procedure tail calls millions of levels deep. Without tail-call elimination they
+ * overflow the tree and closure engines' Java stack, and a 64 MiB heap cannot hold the VM's call stack.
+ */
+class TailCallTest {
+
+    private static final Path PROGRAM = Path.of("src/test/resources/tail/TailCalls.txt");
+
+    private static final String EXPECTED = String.join(System.lineSeparator(),
+                                                       "Modula-2 Interpreter",
+                                                       "Enter path to file: -1124226208",
+                                                       "0",
+                                                       "2000000",
+                                                       "21",
+                                                       "");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"--engine=tree", "--engine=closure", "--engine=vm", "--jit-threshold=1"})
+    void tailCallsRunInConstantDepth(String engine) throws Exception {
+        assertEquals(EXPECTED, InterpreterProcess.run(List.of("-Xmx64m"), PROGRAM, engine));
+    }
+}
@@ -0,0 +1,111 @@
+package precompiled;
+
+import interpreter.InterpreterProcess;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import scanner.Source;
+import structure.Block;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompilationCacheTest {
+
+    private static final Path SAMPLES = Path.of("src/main/resources/sample");
+    private static final FileTime LONG_AGO = FileTime.fromMillis(0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storedProgramIsHit() throws IOException {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_LIMIT, "test");
+        Source source = sample("Factorial.txt");
+        assertNull(cache.load(source));
+
+        store(cache, source);
+        assertNotNull(cache.load(source));
+        assertEquals(List.of(entryOf(cache, source)), entries());
+    }
+
+    @Test
+    void otherSourceOrVersionMisses() throws IOException {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_LIMIT, "test");
+        store(cache, sample("Factorial.txt"));
+
+        assertNull(cache.load(sample("LoopDemo.txt")));
+        assertNull(new CompilationCache(directory, CompilationCache.DEFAULT_LIMIT, "other").load(sample("Factorial.txt")));
+    }
+
+    @Test
+    void hitRefreshesModificationTime() throws IOException {
+        CompilationCache cache = new CompilationCache(directory, CompilationCache.DEFAULT_LIMIT, "test");
+        Source source = sample("Factorial.txt");
+        store(cache, source);
+        Path entry = entryOf(cache, source);
+        Files.setLastModifiedTime(entry, LONG_AGO);
+
+        assertNotNull(cache.load(source));
+        assertTrue(Files.getLastModifiedTime(entry).compareTo(LONG_AGO) > 0);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws IOException {
+        Source first = sample("Factorial.txt");
+        Source second = sample("LoopDemo.txt");
+        CompilationCache unlimited = new CompilationCache(directory, Long.MAX_VALUE, "test");
+        store(unlimited, first);
+        store(unlimited, second);
+        long limit = Math.max(Files.size(entryOf(unlimited, first)), Files.size(entryOf(unlimited, second)));
+        Files.setLastModifiedTime(entryOf(unlimited, first), LONG_AGO);
+
+        CompilationCache limited = new CompilationCache(directory, limit, "test");
+        store(limited, second);
+        assertFalse(Files.exists(entryOf(limited, first)));
+        assertNotNull(limited.load(second));
+    }
+
+    @Test
+    void cacheDirectoryOptionReusesEntries() throws Exception {
+        Path program = SAMPLES.resolve("Factorial.txt").toAbsolutePath();
+        String expected = InterpreterProcess.run(program);
+        String option = "--cache-dir=" + directory;
+
+        assertEquals(expected, InterpreterProcess.run(program, option));
+        List<Path> entries = entries();
+        assertEquals(1, entries.size());
+        Files.setLastModifiedTime(entries.get(0), LONG_AGO);
+
+        assertEquals(expected, InterpreterProcess.run(program, option));
+        assertEquals(entries, entries());
+        assertTrue(Files.getLastModifiedTime(entries.get(0)).compareTo(LONG_AGO) > 0, "entry was not used");
+    }
+
+    private static Source sample(String name) throws IOException {
+        return Source.map(SAMPLES.resolve(name));
+    }
+
+    private static void store(CompilationCache cache, Source source) throws IOException {
+        cache.store(source, Block.readBlock(source).getStatementList());
+    }
+
+    private Path entryOf(CompilationCache cache, Source source) {
+        return directory.resolve(cache.keyOf(source) + ProgramImage.EXTENSION);
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(ProgramImage.EXTENSION)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package precompiled;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+import scanner.Source;
+import structure.Block;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProgramImageTest {
+
+    private static final Path SAMPLES = Path.of("src/main/resources/sample");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Saving the loaded statements again must reproduce the image byte for byte.
+     */
+    @TestFactory
+    Stream<DynamicTest> imagesRoundTrip() throws IOException {
+        List<Path> samples;
+        try (Stream<Path> files = Files.list(SAMPLES)) {
+            samples = files.filter(Files::isRegularFile).sorted().toList();
+        }
+        return samples.stream().map(path -> DynamicTest.dynamicTest(
+            path.getFileName().toString(), () -> {
+                Source source = Source.map(path);
+                Path image = directory.resolve(path.getFileName() + ProgramImage.EXTENSION);
+                ProgramImage.save(image, source, Block.readBlock(source).getStatementList());
+                byte[] saved = Files.readAllBytes(image);
+
+                Block loaded = ProgramImage.load(image, source);
+                assertNotNull(loaded);
+                ProgramImage.save(image, source, loaded.getStatementList());
+                assertArrayEquals(saved, Files.readAllBytes(image));
+            }));
+    }
+
+    @Test
+    void imageOfAnotherSourceIsNotLoaded() throws IOException {
+        Path image = saveFactorial();
+        Source changed = Source.of(Files.readString(SAMPLES.resolve("Factorial.txt")) + "\n");
+        assertNull(ProgramImage.load(image, changed));
+    }
+
+    @Test
+    void damagedImageIsNotLoaded() throws IOException {
+        Path image = saveFactorial();
+        byte[] bytes = Files.readAllBytes(image);
+        Source source = Source.map(SAMPLES.resolve("Factorial.txt"));
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length - 1] ^= 0x40;
+        Files.write(image, flipped);
+        assertNull(ProgramImage.load(image, source));
+
+        Files.write(image, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(ProgramImage.load(image, source));
+
+        Files.write(image, new byte[0]);
+        assertNull(ProgramImage.load(image, source));
+    }
+
+    @Test
+    void missingImageIsNotLoaded() throws IOException {
+        Source source = Source.map(SAMPLES.resolve("Factorial.txt"));
+        assertNull(ProgramImage.load(directory.resolve("Missing" + ProgramImage.EXTENSION), source));
+    }
+
+    private Path saveFactorial() throws IOException {
+        Source source = Source.map(SAMPLES.resolve("Factorial.txt"));
+        Path image = directory.resolve("Factorial" + ProgramImage.EXTENSION);
+        ProgramImage.save(image, source, Block.readBlock(source).getStatementList());
+        return image;
+    }
+}
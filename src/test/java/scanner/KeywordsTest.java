@@ -0,0 +1,38 @@
+package scanner;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordsTest {
+
+    @Test
+    void twoLetterIdentifiersAreNotKeywords() {
+        for (char first = 'A'; first <= 'Z'; first++) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                String name = "" + first + second;
+                if (isKeyword(name)) {
+                    continue;
+                }
+                TokenArena tokens = Scanner.getTokens(name);
+                assertEquals(TokenType.IDENT, tokens.type(0), name);
+            }
+        }
+    }
+
+    @Test
+    void keywordsAreRecognized() {
+        for (String keyword : new String[]{"OF", "TO", "BY", "OR", "END", "PROCEDURE", "ELSIF"}) {
+            assertEquals(keyword, Scanner.getTokens(keyword).type(0).getKey());
+        }
+    }
+
+    private static boolean isKeyword(String name) {
+        for (TokenType type : TokenType.values()) {
+            if (type != TokenType.IDENT && name.equals(type.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
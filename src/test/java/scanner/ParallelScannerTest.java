@@ -0,0 +1,72 @@
+package scanner;
+
+import interpreter.InterpreterProcess;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelScannerTest {
+
+    private static final int LINES = 40_000;
+
+    @Test
+    void chunksScanToTheSequentialTokens() {
+        Source source = Source.of(program(-1));
+        assertTrue(ParallelScanner.split(source, 8).length > 2, "source is not split");
+
+        TokenArena expected = new Scanner(source).scanTokens();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TokenArena actual;
+        try {
+            actual = ParallelScanner.scan(source, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), actual.type(i), "type of token " + i);
+            assertEquals(expected.line(i), actual.line(i), "line of token " + i);
+            assertEquals(expected.lexeme(i), actual.lexeme(i), "lexeme of token " + i);
+            assertEquals(expected.symbol(i), actual.symbol(i), "symbol of token " + i);
+        }
+    }
+
+    @Test
+    void errorsAreReportedAtTheSequentialLine(@TempDir Path directory) throws Exception {
+        Path program = directory.resolve("Broken.txt");
+        Files.writeString(program, program(LINES - 100), StandardCharsets.UTF_8);
+
+        String sequential = InterpreterProcess.run(program);
+        assertTrue(sequential.contains("Error: Unexpected character."), sequential);
+        assertEquals(sequential, InterpreterProcess.run(program, "--parallel-lex"));
+    }
+
+    /**
+     * Module of {@link #LINES} statements mixing the constructs chunk boundaries must not fall into: strings
+     * and comments, some of them spanning lines. With {@code brokenStatement} not negative, that statement
+     * starts with a character the scanner rejects.
+     */
+    private static String program(int brokenStatement) {
+        StringBuilder text = new StringBuilder("MODULE Big;\nBEGIN\n");
+        for (int i = 0; i < LINES; i++) {
+            if (i == brokenStatement) {
+                text.append("  $");
+            }
+            switch (i % 4) {
+                case 0 -> text.append("  X").append(i % 997).append(" := Y + ").append(i).append(" * 2.5;\n");
+                case 1 -> text.append("  S := \"text (* not a comment ").append(i).append("\";\n");
+                case 2 -> text.append("  (* comment \"").append(i).append("\n     continued *) Z := Z - 1;\n");
+                default -> text.append("  IF A").append(i % 31).append(" # 0 THEN B := TRUE END;\n");
+            }
+        }
+        return text.append("END Big.\n").toString();
+    }
+}